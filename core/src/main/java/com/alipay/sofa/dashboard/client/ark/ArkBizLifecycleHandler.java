@@ -26,6 +26,7 @@ import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.recipes.cache.NodeCache;
 import org.apache.curator.framework.recipes.cache.NodeCacheListener;
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,8 +71,15 @@ public class ArkBizLifecycleHandler implements LifecycleHandler {
         String bizPath = getBizPath();
 
         try {
+            // Created in background, so that starting client never waits for connection
             client.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL)
-                .forPath(bizPath);
+                .inBackground((cli, event) -> {
+                    KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+                    if (code != KeeperException.Code.OK
+                        && code != KeeperException.Code.NODEEXISTS) {
+                        LOGGER.error("Error to create biz path {}, code = {}", bizPath, code);
+                    }
+                }).forPath(bizPath);
 
             NodeCache nodeCache = new NodeCache(client, getBizPath());
             NodeCacheListener listener = () -> {
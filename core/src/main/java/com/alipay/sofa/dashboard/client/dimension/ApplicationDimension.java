@@ -52,4 +52,13 @@ public interface ApplicationDimension<D extends Serializable> {
     @Nullable
     D currentValue();
 
+    /**
+     * Expected sampling period of this dimension, jittered in the same way as the default one.
+     *
+     * @return period in seconds, not positive to follow the default period of schedule
+     */
+    default long getSamplePeriodExp() {
+        return 0L;
+    }
+
 }
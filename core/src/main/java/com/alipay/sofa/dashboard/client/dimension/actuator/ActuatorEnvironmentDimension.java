@@ -19,9 +19,12 @@ package com.alipay.sofa.dashboard.client.dimension.actuator;
 import com.alipay.sofa.dashboard.client.dimension.ApplicationDimension;
 import com.alipay.sofa.dashboard.client.model.io.RecordName;
 import com.alipay.sofa.dashboard.client.model.env.EnvironmentDescriptor;
-import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+import com.alipay.sofa.dashboard.client.model.env.PropertySourceDescriptor;
+import com.alipay.sofa.dashboard.client.model.env.PropertyValueDescriptor;
 import org.springframework.boot.actuate.env.EnvironmentEndpoint;
 
+import java.util.Map;
+
 /**
  * @author chen.pengzhi (chpengzh@foxmail.com)
  */
@@ -43,16 +46,44 @@ public class ActuatorEnvironmentDimension implements ApplicationDimension<Enviro
         return EnvironmentDescriptor.class;
     }
 
+    @Override
+    public long getSamplePeriodExp() {
+        return 600L; // Property sources rarely change after started
+    }
+
     @Override
     public EnvironmentDescriptor currentValue() {
-        EnvironmentEndpoint.EnvironmentDescriptor result = endpoint.environment(null);
         //
         // Consider of dependency design, we do not use an actuator model directly.
         // We choose to define a serializable model in core module,
         // which can also be used by other extension modules(storage, for example)
         //
-        String jsonString = JsonUtils.toJsonString(result);
-        return JsonUtils.parseObject(jsonString, EnvironmentDescriptor.class);
+        return toDescriptor(endpoint.environment(null));
+    }
+
+    /**
+     * Copy actuator model into core model directly. Property values are already sanitized
+     * into strings or primitive wrappers by endpoint, so they are shared as they are.
+     *
+     * @param source actuator model
+     * @return core model
+     */
+    static EnvironmentDescriptor toDescriptor(EnvironmentEndpoint.EnvironmentDescriptor source) {
+        EnvironmentDescriptor result = new EnvironmentDescriptor();
+        result.getActiveProfiles().addAll(source.getActiveProfiles());
+        for (EnvironmentEndpoint.PropertySourceDescriptor item : source.getPropertySources()) {
+            PropertySourceDescriptor propertySource = new PropertySourceDescriptor();
+            propertySource.setName(item.getName());
+            Map<String, PropertyValueDescriptor> properties = propertySource.getProperties();
+            item.getProperties().forEach((key, value) -> {
+                PropertyValueDescriptor property = new PropertyValueDescriptor();
+                property.setValue(value.getValue());
+                property.setOrigin(value.getOrigin());
+                properties.put(key, property);
+            });
+            result.getPropertySources().add(propertySource);
+        }
+        return result;
     }
 
 }
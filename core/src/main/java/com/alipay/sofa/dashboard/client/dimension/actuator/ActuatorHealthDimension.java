@@ -20,8 +20,12 @@ import com.alipay.sofa.dashboard.client.dimension.ApplicationDimension;
 import com.alipay.sofa.dashboard.client.model.io.RecordName;
 import com.alipay.sofa.dashboard.client.model.health.HealthDescriptor;
 import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthComponent;
 import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
 
 /**
  * @author chen.pengzhi (chpengzh@foxmail.com)
@@ -46,13 +50,47 @@ public class ActuatorHealthDimension implements ApplicationDimension<HealthDescr
 
     @Override
     public HealthDescriptor currentValue() {
-        HealthComponent health = endpoint.health();
         //
         // Consider of dependency design, we do not use an actuator model directly.
         // We choose to define a serializable model in core module,
         // which can also be used by other extension modules(storage, for example)
         //
-        String jsonString = JsonUtils.toJsonString(health);
-        return JsonUtils.parseObject(jsonString, HealthDescriptor.class);
+        return toDescriptor(endpoint.health());
+    }
+
+    /**
+     * Copy actuator model into core model directly, keeping what the json form carries:
+     * status code, and details of a single {@link Health}. Components of a composite health
+     * are not details in json form, so they are left out as well.
+     *
+     * @param source actuator model
+     * @return core model, {@code null} if no health
+     */
+    static HealthDescriptor toDescriptor(@Nullable HealthComponent source) {
+        if (source == null) {
+            return null;
+        }
+        HealthDescriptor result = new HealthDescriptor();
+        result.setStatus(source.getStatus().getCode());
+        if (source instanceof Health) {
+            Map<String, Object> details = result.getDetails();
+            ((Health) source).getDetails().forEach(
+                (key, value) -> details.put(key, toDetailValue(value)));
+        }
+        return result;
+    }
+
+    /**
+     * Simple values are shared, others are converted into maps or lists as parsed from json
+     *
+     * @param value detail value
+     * @return detail value in json form
+     */
+    private static Object toDetailValue(Object value) {
+        if (value == null || value instanceof String || value instanceof Number
+            || value instanceof Boolean) {
+            return value;
+        }
+        return JsonUtils.convertValue(value, Object.class);
     }
 }
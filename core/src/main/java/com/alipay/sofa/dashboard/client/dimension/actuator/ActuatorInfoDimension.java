@@ -46,6 +46,11 @@ public class ActuatorInfoDimension implements ApplicationDimension<InfoDescripto
         return InfoDescriptor.class;
     }
 
+    @Override
+    public long getSamplePeriodExp() {
+        return 600L; // Build and git info never change after started
+    }
+
     @Override
     public InfoDescriptor currentValue() {
         Map<String, Object> info = endpoint.info();
@@ -48,6 +48,11 @@ public class ActuatorLoggersDimension implements ApplicationDimension<LoggersDes
         return LoggersDescriptor.class;
     }
 
+    @Override
+    public long getSamplePeriodExp() {
+        return 300L; // Levels only change when set at runtime
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public LoggersDescriptor currentValue() {
@@ -20,22 +20,39 @@ import com.alipay.sofa.dashboard.client.dimension.ApplicationDimension;
 import com.alipay.sofa.dashboard.client.model.io.RecordName;
 import com.alipay.sofa.dashboard.client.model.mappings.MappingsDescriptor;
 import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.web.mappings.MappingsEndpoint;
 import org.springframework.boot.actuate.web.mappings.MappingsEndpoint.ApplicationMappings;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
+ * Request mappings are fixed once a context is refreshed, so the descriptor is extracted on
+ * {@link ContextRefreshedEvent} (of this context or any child one) and shared by all samples
+ * until next refresh.
+ *
  * @author chen.pengzhi (chpengzh@foxmail.com)
  */
-public class ActuatorMappingsDimension implements ApplicationDimension<MappingsDescriptor> {
+public class ActuatorMappingsDimension implements ApplicationDimension<MappingsDescriptor>,
+                                      ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Logger                       LOGGER = LoggerFactory
+                                                                 .getLogger(ActuatorMappingsDimension.class);
+
+    private static final String                       SPIT   = ", ";
 
-    private static final String    SPIT = ", ";
+    private final MappingsEndpoint                    endpoint;
 
-    private final MappingsEndpoint endpoint;
+    /**
+     * Unmodifiable descriptor of latest refreshed contexts, {@code null} if not extracted yet
+     */
+    private final AtomicReference<MappingsDescriptor> cache  = new AtomicReference<>();
 
     public ActuatorMappingsDimension(MappingsEndpoint endpoint) {
         this.endpoint = endpoint;
@@ -51,8 +68,40 @@ public class ActuatorMappingsDimension implements ApplicationDimension<MappingsD
         return MappingsDescriptor.class;
     }
 
+    @Override
+    public long getSamplePeriodExp() {
+        return 600L; // Mappings only change with context refresh
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        cache.set(null); // Never serve mappings of previous contexts
+        try {
+            cache.set(extract());
+        } catch (Throwable e) {
+            LOGGER.warn("Error to extract mappings, retry on next sample", e);
+        }
+    }
+
     @Override
     public MappingsDescriptor currentValue() {
+        MappingsDescriptor result = cache.get();
+        if (result == null) {
+            // Sampled before any refresh event, or last extracting failed
+            result = extract();
+            if (!cache.compareAndSet(null, result)) {
+                result = cache.get();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Extract an unmodifiable descriptor from mappings endpoint
+     *
+     * @return descriptor instance
+     */
+    private MappingsDescriptor extract() {
         ApplicationMappings mappingsInfo = endpoint.mappings();
 
         final Map<String, MappingsDescriptor.MappingEntity> result = new HashMap<>();
@@ -62,29 +111,18 @@ public class ActuatorMappingsDimension implements ApplicationDimension<MappingsD
             Map<String, Object> valueMap = JsonUtils.parseObject(
                 JsonUtils.toJsonString(value), Map.class);
 
-            MappingsDescriptor.MappingEntity info = new MappingsDescriptor.MappingEntity();
-
             List<Map<String, Object>> dispatchServlets = readDict(valueMap,
                 "mappings", "dispatcherServlets", "dispatcherServlet");
-            info.getDispatcherServlet().addAll(parseDispatchServlet(
-                Optional.ofNullable(dispatchServlets).orElse(new ArrayList<>())));
-
             List<Map<String, Object>> servletFilters = readDict(valueMap,
                 "mappings", "servletFilters");
-            info.getServletFilters().addAll(parseServletFilter(
-                Optional.ofNullable(servletFilters).orElse(new ArrayList<>())));
-
             List<Map<String, Object>> servlets = readDict(valueMap,
                 "mappings", "servlets");
-            info.getServlets().addAll(parseServletInfo(
-                Optional.ofNullable(servlets).orElse(new ArrayList<>())));
 
-            result.put(key, info);
+            result.put(key, MappingsDescriptor.MappingEntity.unmodifiable(
+                parseServletInfo(servlets), parseServletFilter(servletFilters),
+                parseDispatchServlet(dispatchServlets)));
         });
-
-        MappingsDescriptor descriptor = new MappingsDescriptor();
-        descriptor.getMappings().putAll(result);
-        return descriptor;
+        return MappingsDescriptor.unmodifiable(result);
     }
 
     /**
@@ -94,42 +132,31 @@ public class ActuatorMappingsDimension implements ApplicationDimension<MappingsD
      * @return Handler Mapping Info list
      */
     private List<MappingsDescriptor.HandlerMappingInfo> parseDispatchServlet(
-        @NonNull List<Map<String, Object>> data
+        @Nullable List<Map<String, Object>> data
     ) {
-        return data.stream().map(map -> {
+        if (data == null) {
+            return Collections.emptyList();
+        }
+        List<MappingsDescriptor.HandlerMappingInfo> result = new ArrayList<>(data.size());
+        for (Map<String, Object> map : data) {
             // Read meta info from map
             String handler = readDict(map, "handler");
             String predicate = readDict(map, "predicate");
-            List<String> methods = readDict(map,
-                "details", "requestMappingConditions", "methods");
-            List<Map<String, Object>> paramsType = readDict(map,
-                "details", "requestMappingConditions", "consumes");
-            List<Map<String, Object>> returnType = readDict(map,
-                "details", "requestMappingConditions", "produces");
-
-            // Map to description text
-            String methodsDesc = mapToDesc(methods);
-            String paramTypeDesc = Optional.ofNullable(paramsType).orElse(new ArrayList<>())
-                .stream()
-                .map(it -> (String) it.getOrDefault("mediaType", ""))
-                .reduce((a, b) -> a + SPIT + b)
-                .orElse("");
-            String returnTypeDesc = Optional.ofNullable(returnType).orElse(new ArrayList<>())
-                .stream()
-                .map(it -> (String) it.getOrDefault("mediaType", ""))
-                .reduce((a, b) -> a + SPIT + b)
-                .orElse("");
+            Map<String, Object> conditions = readDict(map, "details", "requestMappingConditions");
+            List<String> methods = readDict(conditions, "methods");
+            List<Map<String, Object>> paramsType = readDict(conditions, "consumes");
+            List<Map<String, Object>> returnType = readDict(conditions, "produces");
 
             // Generate mapping info
             MappingsDescriptor.HandlerMappingInfo info = new MappingsDescriptor.HandlerMappingInfo();
-            info.setHandler(Optional.ofNullable(handler).orElse(""));
-            info.setPredicate(Optional.ofNullable(predicate).orElse(""));
-            info.setMethods(methodsDesc);
-            info.setParamsType(paramTypeDesc);
-            info.setResponseType(returnTypeDesc);
-            return info;
-
-        }).collect(Collectors.toList());
+            info.setHandler(handler == null ? "" : handler);
+            info.setPredicate(predicate == null ? "" : predicate);
+            info.setMethods(mapToDesc(methods));
+            info.setParamsType(mediaTypesToDesc(paramsType));
+            info.setResponseType(mediaTypesToDesc(returnType));
+            result.add(info);
+        }
+        return result;
     }
 
     /**
@@ -139,9 +166,13 @@ public class ActuatorMappingsDimension implements ApplicationDimension<MappingsD
      * @return Handler Filter info list
      */
     private List<MappingsDescriptor.HandlerFilterInfo> parseServletFilter(
-        @NonNull List<Map<String, Object>> data
+        @Nullable List<Map<String, Object>> data
     ) {
-        return data.stream().map(map -> {
+        if (data == null) {
+            return Collections.emptyList();
+        }
+        List<MappingsDescriptor.HandlerFilterInfo> result = new ArrayList<>(data.size());
+        for (Map<String, Object> map : data) {
             // Read meta info from map
             String name = readDict(map, "name");
             String className = readDict(map, "className");
@@ -150,13 +181,13 @@ public class ActuatorMappingsDimension implements ApplicationDimension<MappingsD
 
             // Generate mapping info
             MappingsDescriptor.HandlerFilterInfo info = new MappingsDescriptor.HandlerFilterInfo();
-            info.setName(Optional.ofNullable(name).orElse(""));
-            info.setClassName(Optional.ofNullable(className).orElse(""));
+            info.setName(name == null ? "" : name);
+            info.setClassName(className == null ? "" : className);
             info.setServletNameMappings(mapToDesc(servletNameMappings));
             info.setUrlPatternMappings(mapToDesc(urlPatternMappings));
-            return info;
-
-        }).collect(Collectors.toList());
+            result.add(info);
+        }
+        return result;
     }
 
     /**
@@ -166,9 +197,13 @@ public class ActuatorMappingsDimension implements ApplicationDimension<MappingsD
      * @return Servlet info list
      */
     private List<MappingsDescriptor.ServletInfo> parseServletInfo(
-        @NonNull List<Map<String, Object>> data
+        @Nullable List<Map<String, Object>> data
     ) {
-        return data.stream().map(map -> {
+        if (data == null) {
+            return Collections.emptyList();
+        }
+        List<MappingsDescriptor.ServletInfo> result = new ArrayList<>(data.size());
+        for (Map<String, Object> map : data) {
             // Read meta info from map
             List<String> mappings = readDict(map, "mappings");
             String name = readDict(map, "name");
@@ -177,11 +212,11 @@ public class ActuatorMappingsDimension implements ApplicationDimension<MappingsD
             // Generate mapping info
             MappingsDescriptor.ServletInfo info = new MappingsDescriptor.ServletInfo();
             info.setMappings(mapToDesc(mappings));
-            info.setName(Optional.ofNullable(name).orElse(""));
-            info.setClassName(Optional.ofNullable(className).orElse(""));
-            return info;
-
-        }).collect(Collectors.toList());
+            info.setName(name == null ? "" : name);
+            info.setClassName(className == null ? "" : className);
+            result.add(info);
+        }
+        return result;
     }
 
     /**
@@ -189,21 +224,19 @@ public class ActuatorMappingsDimension implements ApplicationDimension<MappingsD
      *
      * @param instance map instance
      * @param path     dict path
-     * @return path value
+     * @return path value, {@code null} if any level is missing or not a map
      */
     @Nullable
     @SuppressWarnings("unchecked")
-    private <T> T readDict(@Nullable Map<String, Object> instance, String... path) {
-        if (instance == null) {
-            return null;
-        } else if (path.length == 1) {
-            return (T) instance.get(path[0]);
+    private static <T> T readDict(@Nullable Map<String, Object> instance, String... path) {
+        Object current = instance;
+        for (String key : path) {
+            if (!(current instanceof Map)) {
+                return null;
+            }
+            current = ((Map<String, Object>) current).get(key);
         }
-
-        Object nextInstance = instance.get(path[0]);
-        String[] nextPath = Arrays.copyOfRange(path, 1, path.length);
-        return nextInstance instanceof Map ? readDict((Map<String, Object>) nextInstance, nextPath)
-            : null;
+        return (T) current;
     }
 
     /**
@@ -212,11 +245,33 @@ public class ActuatorMappingsDimension implements ApplicationDimension<MappingsD
      * @param listStr text list
      * @return mapped text
      */
-    private String mapToDesc(@Nullable Collection<?> listStr) {
-        return Optional.ofNullable(listStr).orElse(new ArrayList<>())
-            .stream()
-            .map(String::valueOf)
-            .reduce((a, b) -> a + SPIT + b)
-            .orElse("");
+    @NonNull
+    private static String mapToDesc(@Nullable Collection<?> listStr) {
+        if (listStr == null) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner(SPIT);
+        for (Object item : listStr) {
+            joiner.add(String.valueOf(item));
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * A util function to map media type expressions into text
+     *
+     * @param expressions media type expressions
+     * @return mapped text
+     */
+    @NonNull
+    private static String mediaTypesToDesc(@Nullable List<Map<String, Object>> expressions) {
+        if (expressions == null) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner(SPIT);
+        for (Map<String, Object> expression : expressions) {
+            joiner.add((String) expression.getOrDefault("mediaType", ""));
+        }
+        return joiner.toString();
     }
 }
@@ -43,4 +43,15 @@ public interface RecordImporter {
      */
     void addRecords(HostAndPort hostAndPort, List<StoreRecord> records);
 
+    /**
+     * How long records are readable from this store. Records are expected to be kept for
+     * {@link RecordMarkers#maxBaseAge(long)} longer, so that full records referred by
+     * unchanged markers inside this window are not expired yet.
+     *
+     * @return time to live in milliseconds, {@link Long#MAX_VALUE} if never expired
+     */
+    default long getRecordTtlMs() {
+        return Long.MAX_VALUE;
+    }
+
 }
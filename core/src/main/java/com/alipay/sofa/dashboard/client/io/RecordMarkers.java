@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.io;
+
+import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Unchanged markers of stored records.
+ * <p>
+ * When a sampled value equals the last full record of its dimension, a marker with
+ * {@link StoreRecord#getUnchangedSince()} pointing to that full record is stored instead of
+ * the value itself. {@link RecordExporter} implementations expand markers on read, so that
+ * callers always see full records.
+ * <p>
+ * A marker never refers to a full record older than {@link #maxBaseAge(long)}, and stores
+ * keep records for that long beyond their ttl, so that every marker inside the ttl window
+ * can be expanded.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public final class RecordMarkers {
+
+    private RecordMarkers() {
+    }
+
+    /**
+     * Create an unchanged marker
+     *
+     * @param schemeName dimension name
+     * @param timestamp  sample timestamp
+     * @param since      timestamp of the full record carrying the same value
+     * @return marker record without value
+     */
+    @NonNull
+    public static StoreRecord marker(String schemeName, long timestamp, long since) {
+        return StoreRecord.newBuilder().schemeName(schemeName).timestamp(timestamp)
+            .unchangedSince(since).build();
+    }
+
+    /**
+     * Max age of the full record a marker may refer to
+     *
+     * @param recordTtlMs ttl of store, see {@link RecordImporter#getRecordTtlMs()}
+     * @return age in milliseconds
+     */
+    public static long maxBaseAge(long recordTtlMs) {
+        return recordTtlMs / 2;
+    }
+
+    /**
+     * Whether a record is an unchanged marker
+     *
+     * @param record store record
+     * @return {@code true} if it carries no value of its own
+     */
+    public static boolean isMarker(StoreRecord record) {
+        return record.getUnchangedSince() > 0;
+    }
+
+    /**
+     * Replace markers with full records of their own timestamps.
+     * Full records inside the list are looked up first; the others are loaded once for
+     * each timestamp. Markers whose full record is gone are dropped.
+     *
+     * @param records    records of a single dimension in timestamp order
+     * @param baseLoader load full record by timestamp, returns {@code null} if not found
+     * @return full records in timestamp order
+     */
+    @NonNull
+    public static List<StoreRecord> expand(List<StoreRecord> records,
+                                           LongFunction<StoreRecord> baseLoader) {
+        Map<Long, StoreRecord> bases = null;
+        List<StoreRecord> result = new ArrayList<>(records.size());
+        for (StoreRecord record : records) {
+            if (!isMarker(record)) {
+                result.add(record);
+                continue;
+            }
+            if (bases == null) {
+                bases = new HashMap<>();
+                for (StoreRecord item : records) {
+                    if (!isMarker(item)) {
+                        bases.put(item.getTimestamp(), item);
+                    }
+                }
+            }
+            long since = record.getUnchangedSince();
+            StoreRecord base = bases.get(since);
+            if (base == null && !bases.containsKey(since)) {
+                base = baseLoader.apply(since);
+                bases.put(since, base); // Remember missing ones as well
+            }
+            if (base != null) {
+                result.add(expand(record, base));
+            }
+        }
+        return result;
+    }
+
+    private static StoreRecord expand(StoreRecord marker, StoreRecord base) {
+        return StoreRecord.newBuilder().schemeName(marker.getSchemeName())
+            .timestamp(marker.getTimestamp()).value(base.getValue()).build();
+    }
+}
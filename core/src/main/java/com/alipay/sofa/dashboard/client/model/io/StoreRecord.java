@@ -32,6 +32,12 @@ public class StoreRecord implements Serializable {
 
     private String           value;
 
+    /**
+     * Timestamp of the full record carrying the same value, {@code 0} for a full record.
+     * A record with it set is an unchanged marker without value.
+     */
+    private long             unchangedSince;
+
     public StoreRecord() {
     }
 
@@ -39,6 +45,7 @@ public class StoreRecord implements Serializable {
         setSchemeName(builder.schemeName);
         setTimestamp(builder.timestamp);
         setValue(builder.value);
+        setUnchangedSince(builder.unchangedSince);
     }
 
     public static Builder newBuilder() {
@@ -53,13 +60,14 @@ public class StoreRecord implements Serializable {
             return false;
         StoreRecord that = (StoreRecord) o;
         return getTimestamp() == that.getTimestamp()
+               && getUnchangedSince() == that.getUnchangedSince()
                && Objects.equals(getSchemeName(), that.getSchemeName())
                && Objects.equals(getValue(), that.getValue());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getSchemeName(), getTimestamp(), getValue());
+        return Objects.hash(getSchemeName(), getTimestamp(), getValue(), getUnchangedSince());
     }
 
     public String getSchemeName() {
@@ -86,10 +94,19 @@ public class StoreRecord implements Serializable {
         this.value = value;
     }
 
+    public long getUnchangedSince() {
+        return unchangedSince;
+    }
+
+    public void setUnchangedSince(long unchangedSince) {
+        this.unchangedSince = unchangedSince;
+    }
+
     public static final class Builder {
         private String schemeName;
         private long   timestamp;
         private String value;
+        private long   unchangedSince;
 
         private Builder() {
         }
@@ -109,6 +126,11 @@ public class StoreRecord implements Serializable {
             return this;
         }
 
+        public Builder unchangedSince(long unchangedSince) {
+            this.unchangedSince = unchangedSince;
+            return this;
+        }
+
         public StoreRecord build() {
             return new StoreRecord(this);
         }
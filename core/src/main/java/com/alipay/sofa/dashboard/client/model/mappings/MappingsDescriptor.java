@@ -18,6 +18,7 @@ package com.alipay.sofa.dashboard.client.model.mappings;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,7 +30,25 @@ public class MappingsDescriptor implements Serializable {
 
     private static final int                 serialVersionUID = 0x11;
 
-    private final Map<String, MappingEntity> mappings         = new HashMap<>();
+    private final Map<String, MappingEntity> mappings;
+
+    public MappingsDescriptor() {
+        this.mappings = new HashMap<>();
+    }
+
+    private MappingsDescriptor(Map<String, MappingEntity> mappings) {
+        this.mappings = mappings;
+    }
+
+    /**
+     * Create a descriptor whose mappings can not be modified, so that it can be shared
+     *
+     * @param mappings mapping entities by context id
+     * @return descriptor instance
+     */
+    public static MappingsDescriptor unmodifiable(Map<String, MappingEntity> mappings) {
+        return new MappingsDescriptor(Collections.unmodifiableMap(new HashMap<>(mappings)));
+    }
 
     public Map<String, MappingEntity> getMappings() {
         return mappings;
@@ -39,11 +58,38 @@ public class MappingsDescriptor implements Serializable {
 
         private static final int               serialVersionUID  = 0x11;
 
-        private final List<ServletInfo>        servlets          = new ArrayList<>();
+        private final List<ServletInfo>        servlets;
 
-        private final List<HandlerFilterInfo>  servletFilters    = new ArrayList<>();
+        private final List<HandlerFilterInfo>  servletFilters;
 
-        private final List<HandlerMappingInfo> dispatcherServlet = new ArrayList<>();
+        private final List<HandlerMappingInfo> dispatcherServlet;
+
+        public MappingEntity() {
+            this(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        }
+
+        private MappingEntity(List<ServletInfo> servlets, List<HandlerFilterInfo> servletFilters,
+                              List<HandlerMappingInfo> dispatcherServlet) {
+            this.servlets = servlets;
+            this.servletFilters = servletFilters;
+            this.dispatcherServlet = dispatcherServlet;
+        }
+
+        /**
+         * Create an entity whose lists can not be modified, so that it can be shared
+         *
+         * @param servlets          servlets
+         * @param servletFilters    servlet filters
+         * @param dispatcherServlet handler mappings of dispatcher servlet
+         * @return entity instance
+         */
+        public static MappingEntity unmodifiable(List<ServletInfo> servlets,
+                                                 List<HandlerFilterInfo> servletFilters,
+                                                 List<HandlerMappingInfo> dispatcherServlet) {
+            return new MappingEntity(Collections.unmodifiableList(new ArrayList<>(servlets)),
+                Collections.unmodifiableList(new ArrayList<>(servletFilters)),
+                Collections.unmodifiableList(new ArrayList<>(dispatcherServlet)));
+        }
 
         public List<ServletInfo> getServlets() {
             return servlets;
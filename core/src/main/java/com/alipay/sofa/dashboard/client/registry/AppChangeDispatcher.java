@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Coalesce instance changes and deliver them to {@link AppChangeListener}s
+ * on a dedicated thread, so that slow listeners never block registry events.
+ * <p>
+ * Changes published while a delivery is pending are merged per instance:
+ * an instance added and removed before delivery produces nothing,
+ * and multiple updates produce a single event holding the first and the last version.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public final class AppChangeDispatcher {
+
+    private static final Logger                 LOGGER    = LoggerFactory
+                                                              .getLogger(AppChangeDispatcher.class);
+
+    private final List<AppChangeListener>       listeners = new CopyOnWriteArrayList<>();
+
+    private final Object                        lock      = new Object();
+
+    private final ExecutorService               executor;
+
+    /**
+     * Pending changes keyed by instance identity, guarded by {@link #lock}
+     */
+    private Map<Application, PendingChange>     pending   = new LinkedHashMap<>();
+
+    /**
+     * Whether a delivery task is submitted, guarded by {@link #lock}
+     */
+    private boolean                             scheduled = false;
+
+    public AppChangeDispatcher(String name) {
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void addListener(AppChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeListener(AppChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Publish a change of single instance.
+     *
+     * @param previous instance before change, {@code null} if it is new
+     * @param current  instance after change, {@code null} if it is removed
+     */
+    public void publish(@Nullable Application previous, @Nullable Application current) {
+        Application key = current != null ? current : previous;
+        if (key == null || listeners.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            PendingChange change = pending.get(key);
+            if (change == null) {
+                pending.put(key, new PendingChange(previous, current));
+            } else {
+                change.current = current;
+            }
+            scheduleIfNecessary();
+        }
+    }
+
+    /**
+     * Publish changes.
+     *
+     * @param events change list
+     */
+    public void publish(List<AppChangeEvent> events) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        for (AppChangeEvent event : events) {
+            publish(event.getPrevious(), event.getCurrent());
+        }
+    }
+
+    /**
+     * Stop delivering, pending changes are dropped.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void scheduleIfNecessary() {
+        if (scheduled) {
+            return;
+        }
+        try {
+            executor.execute(this::deliver);
+            scheduled = true;
+        } catch (RejectedExecutionException ignore) {
+            pending.clear(); // Already shutdown
+        }
+    }
+
+    private void deliver() {
+        Map<Application, PendingChange> changes;
+        synchronized (lock) {
+            changes = pending;
+            pending = new LinkedHashMap<>();
+            scheduled = false;
+        }
+
+        List<AppChangeEvent> events = new ArrayList<>(changes.size());
+        for (PendingChange change : changes.values()) {
+            AppChangeEvent event = change.toEvent();
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<AppChangeEvent> readonlyEvents = Collections.unmodifiableList(events);
+        for (AppChangeListener listener : listeners) {
+            try {
+                listener.onChanged(readonlyEvents);
+            } catch (Throwable e) {
+                LOGGER.warn("Unexpected AppChangeListener error.", e);
+            }
+        }
+    }
+
+    private static final class PendingChange {
+
+        private final Application previous;
+
+        private Application       current;
+
+        private PendingChange(Application previous, Application current) {
+            this.previous = previous;
+            this.current = current;
+        }
+
+        @Nullable
+        private AppChangeEvent toEvent() {
+            if (previous == null && current == null) {
+                return null;
+            } else if (previous == null) {
+                return new AppChangeEvent(AppChangeEvent.Type.ADDED, null, current);
+            } else if (current == null) {
+                return new AppChangeEvent(AppChangeEvent.Type.REMOVED, previous, null);
+            } else if (!AppChangeEvent.isSameRecord(previous, current)) {
+                return new AppChangeEvent(AppChangeEvent.Type.STATE_CHANGED, previous, current);
+            }
+            return null; // Changed and changed back
+        }
+    }
+}
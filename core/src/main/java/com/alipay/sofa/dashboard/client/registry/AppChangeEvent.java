@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A change of single application instance observed by {@link AppSubscriber}.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public final class AppChangeEvent {
+
+    private final Type        type;
+
+    private final Application previous;
+
+    private final Application current;
+
+    public AppChangeEvent(Type type, @Nullable Application previous,
+                          @Nullable Application current) {
+        this.type = type;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Instance before change, {@code null} for {@link Type#ADDED}
+     *
+     * @return previous instance
+     */
+    @Nullable
+    public Application getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Instance after change, {@code null} for {@link Type#REMOVED}
+     *
+     * @return current instance
+     */
+    @Nullable
+    public Application getCurrent() {
+        return current;
+    }
+
+    /**
+     * The instance this event is about, latest known version
+     *
+     * @return application instance
+     */
+    @NonNull
+    public Application getInstance() {
+        return current != null ? current : previous;
+    }
+
+    /**
+     * Compute changes between two versions of one application group.
+     *
+     * @param before instances before change
+     * @param after  instances after change
+     * @return change list, empty if nothing changed
+     */
+    @NonNull
+    public static List<AppChangeEvent> diff(Collection<Application> before,
+                                            Collection<Application> after) {
+        if (before.isEmpty() && after.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Application, Application> removed = new HashMap<>(before.size() * 2);
+        before.forEach(it -> removed.put(it, it));
+        List<AppChangeEvent> events = new ArrayList<>();
+        for (Application current : after) {
+            Application previous = removed.remove(current);
+            if (previous == null) {
+                events.add(new AppChangeEvent(Type.ADDED, null, current));
+            } else if (!isSameRecord(previous, current)) {
+                events.add(new AppChangeEvent(Type.STATE_CHANGED, previous, current));
+            }
+        }
+        removed.values().forEach(it -> events.add(new AppChangeEvent(Type.REMOVED, it, null)));
+        return events;
+    }
+
+    /**
+     * Whether two instances with same identity carry same state and session information
+     *
+     * @param a instance
+     * @param b instance
+     * @return {@code true} if nothing changed
+     */
+    public static boolean isSameRecord(Application a, Application b) {
+        return Objects.equals(a.getAppState(), b.getAppState())
+               && a.getStartTime() == b.getStartTime() && a.getLastRecover() == b.getLastRecover();
+    }
+
+    @Override
+    public String toString() {
+        return type + ":" + getInstance();
+    }
+
+    public enum Type {
+
+        /**
+         * A new instance is registered
+         */
+        ADDED,
+
+        /**
+         * An instance is offline
+         */
+        REMOVED,
+
+        /**
+         * An instance is still online, but its state or session information
+         * (start time, last recover time) is changed
+         */
+        STATE_CHANGED
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry;
+
+import java.util.List;
+
+/**
+ * Listener of application instance changes.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+@FunctionalInterface
+public interface AppChangeListener {
+
+    /**
+     * Receive a batch of changes. Changes of the same instance arrived before delivery
+     * are coalesced into a single event, and events are delivered in their arrival order.
+     *
+     * @param events readonly change list, never empty
+     */
+    void onChanged(List<AppChangeEvent> events);
+}
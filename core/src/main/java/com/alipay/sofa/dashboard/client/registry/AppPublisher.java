@@ -18,6 +18,9 @@ package com.alipay.sofa.dashboard.client.registry;
 
 import com.alipay.sofa.dashboard.client.model.common.Application;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Application instance registry.
  *
@@ -62,4 +65,50 @@ public interface AppPublisher {
      */
     void unRegister() throws Exception;
 
+    /**
+     * Publish instance onto registry central without blocking the caller.
+     * <p>
+     * Default implementation runs {@link #register()} on the common pool, implementations
+     * should override it with non-blocking api of registry client.
+     *
+     * @return future completed once instance is published, or completed exceptionally
+     */
+    default CompletableFuture<Void> registerAsync() {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                register();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Remove instance from registry central without blocking the caller.
+     *
+     * @return future completed once instance is removed, or completed exceptionally
+     * @see #registerAsync()
+     */
+    default CompletableFuture<Void> unRegisterAsync() {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                unRegister();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Publish a new state of this instance, e.g. UP or DOWN, without blocking the caller.
+     * <p>
+     * Default implementation re-registers the instance with new state.
+     *
+     * @param appState new app state
+     * @return future completed once the state is published, or completed exceptionally
+     */
+    default CompletableFuture<Void> updateStateAsync(String appState) {
+        getApplication().setAppState(appState);
+        return registerAsync();
+    }
 }
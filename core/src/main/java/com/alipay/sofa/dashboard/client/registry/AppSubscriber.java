@@ -18,8 +18,11 @@ package com.alipay.sofa.dashboard.client.registry;
 
 import com.alipay.sofa.dashboard.client.model.common.Application;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author chen.pengzhi (chpengzh@foxmail.com)
@@ -41,7 +44,7 @@ public interface AppSubscriber {
     /**
      * Get all application instances.
      *
-     * @return application instance list
+     * @return application instance list, a copy owned by caller
      */
     List<Application> getAll();
 
@@ -49,22 +52,137 @@ public interface AppSubscriber {
      * Get application instances by name.
      *
      * @param appName application service name
-     * @return application instance list
+     * @return application instance list, a copy owned by caller
      */
     List<Application> getByName(String appName);
 
     /**
      * Get all application names
      *
-     * @return application names list
+     * @return application names list, a copy owned by caller
      */
     List<String> getAllNames();
 
     /**
      * Count all instance group by service name
      *
-     * @return count result
+     * @return count result, a copy owned by caller
      */
     Map<String, Integer> summaryCounts();
 
+    /**
+     * Get a page of application instances by name, in {@link ApplicationSnapshot#INSTANCE_ORDER}.
+     *
+     * @param appName application service name
+     * @param offset  index of first instance
+     * @param limit   max instance count
+     * @return page of readonly application instances
+     */
+    default Page<Application> getByName(String appName, int offset, int limit) {
+        List<Application> sorted = new ArrayList<>(getByName(appName));
+        sorted.sort(ApplicationSnapshot.INSTANCE_ORDER);
+        return Page.slice(Collections.unmodifiableList(sorted), offset, limit);
+    }
+
+    /**
+     * Instance count of an application
+     *
+     * @param appName application service name
+     * @return instance count, {@code 0} if not found
+     */
+    default int getInstanceCount(String appName) {
+        return getByName(appName).size();
+    }
+
+    /**
+     * Find sorted application names starting with given prefix
+     *
+     * @param prefix name prefix, case sensitive
+     * @param offset index of first name
+     * @param limit  max name count
+     * @return page of sorted names
+     */
+    default Page<String> findNamesByPrefix(String prefix, int offset, int limit) {
+        return ApplicationSnapshot.scanNames(getAllNames(), name -> name.startsWith(prefix),
+            offset, limit);
+    }
+
+    /**
+     * Find sorted application names containing given keyword
+     *
+     * @param keyword name keyword, case sensitive
+     * @param offset  index of first name
+     * @param limit   max name count
+     * @return page of sorted names
+     */
+    default Page<String> findNamesContaining(String keyword, int offset, int limit) {
+        return ApplicationSnapshot.scanNames(getAllNames(), name -> name.contains(keyword),
+            offset, limit);
+    }
+
+    /**
+     * Get all instances running on a host.
+     *
+     * @param hostName instance host name
+     * @return readonly application instance list
+     */
+    default List<Application> getByHost(String hostName) {
+        return InstanceHostIndex.scan(getAll(), hostName, Application::getHostName);
+    }
+
+    /**
+     * Get all instances with given internal host.
+     *
+     * @param internalHost instance internal host
+     * @return readonly application instance list
+     */
+    default List<Application> getByInternalHost(String internalHost) {
+        return InstanceHostIndex.scan(getAll(), internalHost, Application::getInternalHost);
+    }
+
+    /**
+     * Whether query results are served from a local copy not yet confirmed by registry,
+     * e.g. a snapshot file loaded while starting.
+     *
+     * @return {@code true} if results may be out of date
+     */
+    default boolean isStale() {
+        return false;
+    }
+
+    /**
+     * Completed once the first full view of registry is loaded after started. Query results
+     * before that may be empty, or served from a stale local copy (see {@link #isStale()}).
+     * <p>
+     * Subscribers loading everything within {@link #start()} are always ready.
+     *
+     * @return readiness future, never completed exceptionally
+     */
+    default CompletableFuture<Void> whenReady() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Subscribe instance changes. Changes are coalesced and delivered on
+     * a dedicated thread of this subscriber.
+     * <p>
+     * Subscribers not supporting change events keep this default, which rejects the listener.
+     *
+     * @param listener change listener
+     * @throws UnsupportedOperationException if change events are not supported
+     */
+    default void addListener(AppChangeListener listener) {
+        throw new UnsupportedOperationException(getClass().getName()
+                                                + " does not support change listeners");
+    }
+
+    /**
+     * Cancel subscription of instance changes. Does nothing by default, since no listener
+     * can be added to a subscriber not supporting change events.
+     *
+     * @param listener change listener
+     */
+    default void removeListener(AppChangeListener listener) {
+    }
+
 }
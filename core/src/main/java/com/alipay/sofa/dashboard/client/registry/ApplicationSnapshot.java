@@ -0,0 +1,445 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * An immutable, versioned view of registered application instances.
+ * <p>
+ * Subscribers publish a new snapshot every time the registry changes, so that all queries
+ * can be served from a single volatile read without locking or copying.
+ * <p>
+ * Application names are kept sorted for prefix search and paging, and instances of each
+ * application are sorted by {@link #INSTANCE_ORDER}.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public final class ApplicationSnapshot {
+
+    /**
+     * Snapshot with no application registered
+     */
+    public static final ApplicationSnapshot      EMPTY          = new ApplicationSnapshot(0L,
+                                                                    Collections.emptyMap(),
+                                                                    new String[0],
+                                                                    Collections.emptyMap(), 0,
+                                                                    false);
+
+    /**
+     * Order of instances inside an application group
+     */
+    public static final Comparator<Application>  INSTANCE_ORDER = ApplicationSnapshot::compareInstance;
+
+    private final long                           version;
+
+    private final Map<String, List<Application>> groups;
+
+    /**
+     * Sorted application names, never modified after published
+     */
+    private final String[]                       sortedNames;
+
+    private final List<String>                   names;
+
+    private final Map<String, Integer>           counts;
+
+    private final int                            instanceCount;
+
+    private final boolean                        stale;
+
+    /**
+     * Flat instance list, computed on first access since a snapshot may be replaced
+     * before anyone asks for it.
+     */
+    private volatile List<Application>           all;
+
+    private ApplicationSnapshot(long version, Map<String, List<Application>> groups,
+                                String[] sortedNames, Map<String, Integer> counts,
+                                int instanceCount, boolean stale) {
+        this(version, groups, sortedNames,
+            Collections.unmodifiableList(Arrays.asList(sortedNames)), counts, instanceCount,
+            stale);
+    }
+
+    private ApplicationSnapshot(long version, Map<String, List<Application>> groups,
+                                String[] sortedNames, List<String> names,
+                                Map<String, Integer> counts, int instanceCount,
+                                boolean stale) {
+        this.version = version;
+        this.groups = groups;
+        this.sortedNames = sortedNames;
+        this.names = names;
+        this.counts = counts;
+        this.instanceCount = instanceCount;
+        this.stale = stale;
+    }
+
+    /**
+     * Build a snapshot from application groups.
+     *
+     * @param version snapshot version
+     * @param source  application instances group by service name
+     * @return snapshot instance
+     */
+    @NonNull
+    public static ApplicationSnapshot of(long version,
+                                         Map<String, ? extends Collection<Application>> source) {
+        Map<String, List<Application>> groups = new HashMap<>(source.size() * 2);
+        Map<String, Integer> counts = new HashMap<>(source.size() * 2);
+        int instanceCount = 0;
+        for (Map.Entry<String, ? extends Collection<Application>> entry : source.entrySet()) {
+            List<Application> group = toReadonlyList(entry.getValue());
+            groups.put(entry.getKey(), group);
+            counts.put(entry.getKey(), group.size());
+            instanceCount += group.size();
+        }
+        String[] sortedNames = groups.keySet().toArray(new String[0]);
+        Arrays.sort(sortedNames);
+        return new ApplicationSnapshot(version, Collections.unmodifiableMap(groups), sortedNames,
+            Collections.unmodifiableMap(counts), instanceCount, false);
+    }
+
+    /**
+     * Create a new snapshot with a single application group replaced.
+     * Other groups are shared with current snapshot.
+     *
+     * @param appName application service name
+     * @param group   new instances of this application, {@code null} to remove the application
+     * @return next version of snapshot
+     */
+    @NonNull
+    public ApplicationSnapshot withGroup(String appName, @Nullable Collection<Application> group) {
+        return withGroups(Collections.singletonMap(appName, group));
+    }
+
+    /**
+     * Create a new snapshot without an application, its name and count are removed as well.
+     *
+     * @param appName application service name
+     * @return next version of snapshot
+     */
+    @NonNull
+    public ApplicationSnapshot withoutGroup(String appName) {
+        return withGroup(appName, null);
+    }
+
+    /**
+     * Create a new snapshot with multiple application groups replaced at once.
+     * Other groups are shared with current snapshot. An application mapped to {@code null}
+     * is removed, while an empty group keeps the application with no instance.
+     *
+     * @param changes new instances group by service name
+     * @return next version of snapshot
+     */
+    @NonNull
+    public ApplicationSnapshot withGroups(Map<String, ? extends Collection<Application>> changes) {
+        Map<String, List<Application>> nextGroups = new HashMap<>(groups);
+        Map<String, Integer> nextCounts = new HashMap<>(counts);
+        int nextInstanceCount = instanceCount;
+        List<String> newNames = null;
+        Set<String> removedNames = null;
+        for (Map.Entry<String, ? extends Collection<Application>> entry : changes.entrySet()) {
+            if (entry.getValue() == null) {
+                List<Application> oldGroup = nextGroups.remove(entry.getKey());
+                nextCounts.remove(entry.getKey());
+                if (oldGroup != null) {
+                    nextInstanceCount -= oldGroup.size();
+                    removedNames = removedNames == null ? new HashSet<>() : removedNames;
+                    removedNames.add(entry.getKey());
+                }
+                continue;
+            }
+            List<Application> newGroup = toReadonlyList(entry.getValue());
+            List<Application> oldGroup = nextGroups.put(entry.getKey(), newGroup);
+            nextCounts.put(entry.getKey(), newGroup.size());
+            nextInstanceCount += newGroup.size() - (oldGroup == null ? 0 : oldGroup.size());
+            if (oldGroup == null) {
+                newNames = newNames == null ? new ArrayList<>() : newNames;
+                newNames.add(entry.getKey());
+            }
+        }
+
+        if (newNames == null && removedNames == null) {
+            // Name index only changes while an application shows up or is removed
+            return new ApplicationSnapshot(version + 1, Collections.unmodifiableMap(nextGroups),
+                sortedNames, names, Collections.unmodifiableMap(nextCounts), nextInstanceCount,
+                stale);
+        }
+        String[] retained = sortedNames;
+        if (removedNames != null) {
+            retained = new String[sortedNames.length - removedNames.size()];
+            int size = 0;
+            for (String appName : sortedNames) {
+                if (!removedNames.contains(appName)) {
+                    retained[size++] = appName;
+                }
+            }
+        }
+        return new ApplicationSnapshot(version + 1, Collections.unmodifiableMap(nextGroups),
+            insertNames(retained, newNames), Collections.unmodifiableMap(nextCounts),
+            nextInstanceCount, stale);
+    }
+
+    /**
+     * Mark this snapshot as stale, e.g. loaded from local file rather than registry.
+     *
+     * @return stale copy of this snapshot
+     */
+    @NonNull
+    public ApplicationSnapshot asStale() {
+        return new ApplicationSnapshot(version, groups, sortedNames, names, counts,
+            instanceCount, true);
+    }
+
+    /**
+     * Whether this snapshot is not confirmed by registry yet.
+     * Incremental changes keep this flag, until a full rebuild replaces the snapshot.
+     *
+     * @return {@code true} if stale
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Snapshot version, increased on every registry change
+     *
+     * @return version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get all application instances.
+     *
+     * @return readonly application instance list
+     */
+    @NonNull
+    public List<Application> getAll() {
+        List<Application> result = all;
+        if (result == null) {
+            List<Application> collector = new ArrayList<>(instanceCount);
+            groups.values().forEach(collector::addAll);
+            // Racing readers may flatten twice, but they always get the same content
+            result = Collections.unmodifiableList(collector);
+            all = result;
+        }
+        return result;
+    }
+
+    /**
+     * Get application instances by name.
+     *
+     * @param appName application service name
+     * @return readonly application instance list
+     */
+    @NonNull
+    public List<Application> getByName(@Nullable String appName) {
+        List<Application> group = appName == null ? null : groups.get(appName);
+        return group == null ? Collections.emptyList() : group;
+    }
+
+    /**
+     * Get application instances by name, in {@link #INSTANCE_ORDER}.
+     *
+     * @param appName application service name
+     * @param offset  index of first instance
+     * @param limit   max instance count
+     * @return page of readonly application instances
+     */
+    @NonNull
+    public Page<Application> getByName(@Nullable String appName, int offset, int limit) {
+        return Page.slice(getByName(appName), offset, limit);
+    }
+
+    /**
+     * Instance count of an application
+     *
+     * @param appName application service name
+     * @return instance count, {@code 0} if not found
+     */
+    public int getInstanceCount(@Nullable String appName) {
+        return getByName(appName).size();
+    }
+
+    /**
+     * Get all application names
+     *
+     * @return readonly sorted application names list
+     */
+    @NonNull
+    public List<String> getAllNames() {
+        return names;
+    }
+
+    /**
+     * Find application names starting with given prefix, with binary search on sorted names.
+     *
+     * @param prefix name prefix, case sensitive
+     * @param offset index of first name
+     * @param limit  max name count
+     * @return page of sorted names
+     */
+    @NonNull
+    public Page<String> findNamesByPrefix(String prefix, int offset, int limit) {
+        Page.checkRange(offset, limit);
+        int from = lowerBound(prefix);
+        int to = from;
+        int high = sortedNames.length;
+        while (to < high) { // First name not starting with prefix
+            int mid = (to + high) >>> 1;
+            if (sortedNames[mid].startsWith(prefix)) {
+                to = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return Page.slice(names.subList(from, to), offset, limit);
+    }
+
+    /**
+     * Find application names containing given keyword. Only names of requested page are collected.
+     *
+     * @param keyword name keyword, case sensitive
+     * @param offset  index of first name
+     * @param limit   max name count
+     * @return page of sorted names
+     */
+    @NonNull
+    public Page<String> findNamesContaining(String keyword, int offset, int limit) {
+        Page.checkRange(offset, limit);
+        List<String> items = new ArrayList<>(Math.min(limit, 64));
+        int total = 0;
+        for (String name : sortedNames) {
+            if (name.contains(keyword)) {
+                if (total >= offset && items.size() < limit) {
+                    items.add(name);
+                }
+                total++;
+            }
+        }
+        return Page.of(Collections.unmodifiableList(items), total);
+    }
+
+    /**
+     * Count all instance group by service name
+     *
+     * @return readonly count result
+     */
+    @NonNull
+    public Map<String, Integer> getCounts() {
+        return counts;
+    }
+
+    /**
+     * Total instance count
+     *
+     * @return instance count
+     */
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    /**
+     * Fallback of name searching for subscribers without a snapshot, which scans and sorts
+     * all names.
+     *
+     * @param names  all application names
+     * @param filter name filter
+     * @param offset index of first name
+     * @param limit  max name count
+     * @return page of sorted names
+     */
+    static Page<String> scanNames(Collection<String> names, Predicate<String> filter,
+                                  int offset, int limit) {
+        List<String> matched = new ArrayList<>();
+        for (String name : names) {
+            if (filter.test(name)) {
+                matched.add(name);
+            }
+        }
+        Collections.sort(matched);
+        return Page.slice(Collections.unmodifiableList(matched), offset, limit);
+    }
+
+    private static int compareInstance(Application a, Application b) {
+        int result = compareNullable(a.getHostName(), b.getHostName());
+        if (result == 0) {
+            result = Integer.compare(a.getPort(), b.getPort());
+        }
+        return result != 0 ? result : compareNullable(a.getInternalHost(), b.getInternalHost());
+    }
+
+    private static int compareNullable(@Nullable String a, @Nullable String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private int lowerBound(String name) {
+        int index = Arrays.binarySearch(sortedNames, name);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static String[] insertNames(String[] sorted, @Nullable List<String> newNames) {
+        if (newNames == null) {
+            return sorted;
+        }
+        String[] nextNames;
+        if (newNames.size() == 1) {
+            String appName = newNames.get(0);
+            int insertAt = -Arrays.binarySearch(sorted, appName) - 1;
+            nextNames = new String[sorted.length + 1];
+            System.arraycopy(sorted, 0, nextNames, 0, insertAt);
+            nextNames[insertAt] = appName;
+            System.arraycopy(sorted, insertAt, nextNames, insertAt + 1, sorted.length - insertAt);
+        } else {
+            nextNames = Arrays.copyOf(sorted, sorted.length + newNames.size());
+            for (int i = 0; i < newNames.size(); i++) {
+                nextNames[sorted.length + i] = newNames.get(i);
+            }
+            Arrays.sort(nextNames);
+        }
+        return nextNames;
+    }
+
+    private static List<Application> toReadonlyList(@Nullable Collection<Application> group) {
+        if (group == null || group.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Application> list = new ArrayList<>(group);
+        list.sort(INSTANCE_ORDER);
+        return Collections.unmodifiableList(list);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Reverse index from {@code hostName} and {@code internalHost} to application instances.
+ * <p>
+ * Writers should be serialized by caller, while readers may query at any time.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public final class InstanceHostIndex {
+
+    private volatile Map<String, Map<Application, Application>> byHost         = new ConcurrentHashMap<>();
+
+    private volatile Map<String, Map<Application, Application>> byInternalHost = new ConcurrentHashMap<>();
+
+    /**
+     * Add an instance, or replace the indexed one with same identity.
+     *
+     * @param app application instance
+     */
+    public void put(Application app) {
+        put(byHost, app.getHostName(), app);
+        put(byInternalHost, app.getInternalHost(), app);
+    }
+
+    /**
+     * Remove an instance.
+     *
+     * @param app application instance
+     */
+    public void remove(Application app) {
+        remove(byHost, app.getHostName(), app);
+        remove(byInternalHost, app.getInternalHost(), app);
+    }
+
+    /**
+     * Apply changes of instances.
+     *
+     * @param events change list
+     */
+    public void apply(List<AppChangeEvent> events) {
+        for (AppChangeEvent event : events) {
+            if (event.getType() == AppChangeEvent.Type.REMOVED) {
+                remove(event.getInstance());
+            } else {
+                put(event.getInstance());
+            }
+        }
+    }
+
+    /**
+     * Replace whole index with all instances.
+     *
+     * @param groups application instances group by name
+     */
+    public void rebuild(Map<String, ? extends Collection<Application>> groups) {
+        Map<String, Map<Application, Application>> nextByHost = new ConcurrentHashMap<>();
+        Map<String, Map<Application, Application>> nextByInternalHost = new ConcurrentHashMap<>();
+        for (Collection<Application> group : groups.values()) {
+            for (Application app : group) {
+                put(nextByHost, app.getHostName(), app);
+                put(nextByInternalHost, app.getInternalHost(), app);
+            }
+        }
+        byHost = nextByHost;
+        byInternalHost = nextByInternalHost;
+    }
+
+    /**
+     * Get instances by host name
+     *
+     * @param hostName host name
+     * @return readonly instance list
+     */
+    @NonNull
+    public List<Application> getByHost(@Nullable String hostName) {
+        return query(byHost, hostName);
+    }
+
+    /**
+     * Get instances by internal host
+     *
+     * @param internalHost internal host
+     * @return readonly instance list
+     */
+    @NonNull
+    public List<Application> getByInternalHost(@Nullable String internalHost) {
+        return query(byInternalHost, internalHost);
+    }
+
+    /**
+     * Fallback lookup which scans all instances
+     *
+     * @param all      all instances
+     * @param host     host value
+     * @param selector host field selector
+     * @return readonly instance list
+     */
+    @NonNull
+    public static List<Application> scan(Collection<Application> all, @Nullable String host,
+                                         Function<Application, String> selector) {
+        if (host == null) {
+            return Collections.emptyList();
+        }
+        List<Application> result = new ArrayList<>();
+        for (Application app : all) {
+            if (host.equals(selector.apply(app))) {
+                result.add(app);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static List<Application> query(Map<String, Map<Application, Application>> index,
+                                           @Nullable String host) {
+        Map<Application, Application> result = host == null ? null : index.get(host);
+        if (result == null || result.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(result.values()));
+    }
+
+    private static void put(Map<String, Map<Application, Application>> index, @Nullable String host,
+                            Application app) {
+        if (host == null) {
+            return;
+        }
+        // Keyed by instance identity, so that a stale record is replaced atomically
+        index.computeIfAbsent(host, key -> new ConcurrentHashMap<>()).put(app, app);
+    }
+
+    private static void remove(Map<String, Map<Application, Application>> index, @Nullable String host,
+                               Application app) {
+        if (host == null) {
+            return;
+        }
+        index.computeIfPresent(host, (key, value) -> {
+            value.remove(app);
+            return value.isEmpty() ? null : value;
+        });
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry;
+
+import org.springframework.lang.NonNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of query result
+ *
+ * @param <T> item type
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public final class Page<T> {
+
+    private static final Page<?> EMPTY = new Page<>(Collections.emptyList(), 0);
+
+    private final List<T>        items;
+
+    private final int            total;
+
+    private Page(List<T> items, int total) {
+        this.items = items;
+        this.total = total;
+    }
+
+    /**
+     * Create a page
+     *
+     * @param items readonly items of this page
+     * @param total total matched count of all pages
+     * @param <T>   item type
+     * @return page instance
+     */
+    @NonNull
+    public static <T> Page<T> of(List<T> items, int total) {
+        return new Page<>(items, total);
+    }
+
+    @SuppressWarnings("unchecked")
+    @NonNull
+    public static <T> Page<T> empty() {
+        return (Page<T>) EMPTY;
+    }
+
+    /**
+     * Slice a page out of a sorted list, without copying.
+     *
+     * @param source sorted readonly list
+     * @param offset index of first item
+     * @param limit  max item count
+     * @param <T>    item type
+     * @return page instance
+     */
+    @NonNull
+    public static <T> Page<T> slice(List<T> source, int offset, int limit) {
+        checkRange(offset, limit);
+        int size = source.size();
+        if (offset >= size || limit == 0) {
+            return new Page<>(Collections.emptyList(), size);
+        }
+        return new Page<>(source.subList(offset, (int) Math.min(size, (long) offset + limit)),
+            size);
+    }
+
+    /**
+     * Validate paging parameters
+     *
+     * @param offset index of first item
+     * @param limit  max item count
+     */
+    public static void checkRange(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Illegal page range, offset = %d, limit = %d", offset, limit));
+        }
+    }
+
+    /**
+     * Items of this page
+     *
+     * @return readonly item list
+     */
+    @NonNull
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Total matched count of all pages
+     *
+     * @return total count
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{total=" + total + ", items=" + items + '}';
+    }
+}
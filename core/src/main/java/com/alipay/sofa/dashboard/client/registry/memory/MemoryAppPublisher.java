@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.memory;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.AppPublisher;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publish application instance into a {@link MemoryRegistry}.
+ * <p>
+ * Registering with an expired session opens a new one, as a zookeeper client does after its
+ * session is expired. Operations are ignored unless started and not shutdown.
+ * <p>
+ * All operations finish in calling thread, so that asynchronous variants simply return
+ * completed futures.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class MemoryAppPublisher implements AppPublisher {
+
+    private final MemoryRegistry            registry;
+
+    private final Application               application;
+
+    private final AtomicBoolean             started  = new AtomicBoolean(false);
+
+    private final AtomicBoolean             shutdown = new AtomicBoolean(false);
+
+    private volatile MemoryRegistry.Session session;
+
+    public MemoryAppPublisher(Application application, MemoryRegistry registry) {
+        this.application = application;
+        this.registry = registry;
+    }
+
+    @Override
+    public Application getApplication() {
+        return application;
+    }
+
+    @Override
+    public boolean start() {
+        if (!started.compareAndSet(false, true)) {
+            return false;
+        }
+        session = registry.openSession();
+        return true;
+    }
+
+    @Override
+    public void shutdown() {
+        MemoryRegistry.Session current = session;
+        if (shutdown.compareAndSet(false, true) && current != null) {
+            current.close();
+        }
+    }
+
+    @Override
+    public synchronized void register() {
+        if (!isRunning()) {
+            return;
+        }
+        Application app = getApplication();
+        app.setLastRecover(System.currentTimeMillis());
+        registry.put(currentSession(), app);
+    }
+
+    @Override
+    public synchronized void unRegister() {
+        if (!isRunning()) {
+            return;
+        }
+        registry.remove(currentSession(), getApplication());
+    }
+
+    @Override
+    public CompletableFuture<Void> registerAsync() {
+        return run(this::register);
+    }
+
+    @Override
+    public CompletableFuture<Void> unRegisterAsync() {
+        return run(this::unRegister);
+    }
+
+    /**
+     * Get current session, e.g. to simulate a disconnection or an expiry
+     *
+     * @return current session, {@code null} if not started
+     */
+    public MemoryRegistry.Session getSession() {
+        return session;
+    }
+
+    public boolean isRunning() {
+        return started.get() && !shutdown.get();
+    }
+
+    private MemoryRegistry.Session currentSession() {
+        MemoryRegistry.Session current = session;
+        if (current.isExpired()) {
+            current = registry.openSession();
+            session = current;
+        }
+        return current;
+    }
+
+    private static CompletableFuture<Void> run(Runnable operation) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            operation.run();
+            future.complete(null);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.memory;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.AppChangeDispatcher;
+import com.alipay.sofa.dashboard.client.registry.AppChangeListener;
+import com.alipay.sofa.dashboard.client.registry.AppSubscriber;
+import com.alipay.sofa.dashboard.client.registry.ApplicationSnapshot;
+import com.alipay.sofa.dashboard.client.registry.InstanceHostIndex;
+import com.alipay.sofa.dashboard.client.registry.Page;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Subscribe application instances of a {@link MemoryRegistry}.
+ * <p>
+ * Queries are served from an {@link ApplicationSnapshot} and a {@link InstanceHostIndex}, the
+ * same way {@code ZookeeperAppSubscriber} does, so that dashboard code paths can be measured
+ * without a zookeeper server.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class MemoryAppSubscriber implements AppSubscriber {
+
+    private final MemoryRegistry         registry;
+
+    private final AppChangeDispatcher    dispatcher = new AppChangeDispatcher(
+                                                        "MemoryAppSubscriberDispatcher");
+
+    private final InstanceHostIndex      hostIndex  = new InstanceHostIndex();
+
+    private final AtomicBoolean          started    = new AtomicBoolean(false);
+
+    private final MemoryRegistry.Watcher watcher    = this::onChanged;
+
+    private volatile ApplicationSnapshot snapshot   = ApplicationSnapshot.EMPTY;
+
+    public MemoryAppSubscriber(MemoryRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean start() {
+        if (!started.compareAndSet(false, true)) {
+            return false;
+        }
+        // Installed under registry lock, before any change reaches the watcher
+        registry.watch(watcher, groups -> {
+            synchronized (this) {
+                hostIndex.rebuild(groups);
+                snapshot = ApplicationSnapshot.of(snapshot.getVersion() + 1, groups);
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public void shutdown() {
+        registry.unwatch(watcher);
+        dispatcher.shutdown();
+    }
+
+    @Override
+    public List<Application> getAll() {
+        return new ArrayList<>(snapshot.getAll());
+    }
+
+    @Override
+    public List<Application> getByName(@Nullable String appName) {
+        return new ArrayList<>(snapshot.getByName(appName));
+    }
+
+    @Override
+    public List<String> getAllNames() {
+        return new ArrayList<>(snapshot.getAllNames());
+    }
+
+    @Override
+    public Map<String, Integer> summaryCounts() {
+        return new HashMap<>(snapshot.getCounts());
+    }
+
+    @Override
+    public Page<Application> getByName(@Nullable String appName, int offset, int limit) {
+        return snapshot.getByName(appName, offset, limit);
+    }
+
+    @Override
+    public int getInstanceCount(@Nullable String appName) {
+        return snapshot.getInstanceCount(appName);
+    }
+
+    @Override
+    public Page<String> findNamesByPrefix(String prefix, int offset, int limit) {
+        return snapshot.findNamesByPrefix(prefix, offset, limit);
+    }
+
+    @Override
+    public Page<String> findNamesContaining(String keyword, int offset, int limit) {
+        return snapshot.findNamesContaining(keyword, offset, limit);
+    }
+
+    @Override
+    public List<Application> getByHost(@Nullable String hostName) {
+        return hostIndex.getByHost(hostName);
+    }
+
+    @Override
+    public List<Application> getByInternalHost(@Nullable String internalHost) {
+        return hostIndex.getByInternalHost(internalHost);
+    }
+
+    @Override
+    public void addListener(AppChangeListener listener) {
+        dispatcher.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(AppChangeListener listener) {
+        dispatcher.removeListener(listener);
+    }
+
+    /**
+     * Get current readonly snapshot of registry.
+     *
+     * @return registry snapshot
+     */
+    public ApplicationSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Apply a single change, registry calls it in modification order
+     */
+    private synchronized void onChanged(String appName, List<Application> group,
+                                        @Nullable Application previous,
+                                        @Nullable Application current) {
+        // Registry drops an application with its last instance
+        snapshot = group.isEmpty() ? snapshot.withoutGroup(appName) : snapshot.withGroup(appName,
+            group);
+        if (current == null) {
+            hostIndex.remove(previous);
+        } else {
+            hostIndex.put(current);
+        }
+        dispatcher.publish(previous, current);
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.memory;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * An in-process registry central, shared by {@link MemoryAppPublisher}s and
+ * {@link MemoryAppSubscriber}s of the same process.
+ * <p>
+ * Instances are ephemeral as zookeeper session nodes are: each of them is owned by a
+ * {@link Session}, and removed once the session is closed or expired. A session expires if it
+ * stays disconnected for longer than session timeout, see {@link Session#disconnect()}.
+ * <p>
+ * Stored instances are copies of the published ones, so that publishers never modify them
+ * without registering again. All modifications are serialized and watchers are notified in
+ * modification order.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class MemoryRegistry implements Closeable {
+
+    private static final Logger                         LOGGER        = LoggerFactory
+                                                                          .getLogger(MemoryRegistry.class);
+
+    private final long                                  sessionTimeoutMs;
+
+    private final Object                                lock          = new Object();
+
+    /**
+     * Instances group by app name, guarded by {@link #lock}
+     */
+    private final Map<String, Map<Application, Record>> groups        = new HashMap<>();
+
+    private final Map<Long, Session>                    sessions      = new ConcurrentHashMap<>();
+
+    private final List<Watcher>                         watchers      = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong                            nextSessionId = new AtomicLong();
+
+    /**
+     * Expire disconnected sessions
+     */
+    private final ScheduledExecutorService              reaper;
+
+    public MemoryRegistry() {
+        this(6000L);
+    }
+
+    /**
+     * @param sessionTimeoutMs how long a disconnected session lives
+     */
+    public MemoryRegistry(long sessionTimeoutMs) {
+        this.sessionTimeoutMs = sessionTimeoutMs;
+        this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "MemoryRegistryReaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(10L, sessionTimeoutMs / 4);
+        reaper.scheduleWithFixedDelay(this::expireDisconnected, period, period,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Open a new session for a publisher
+     *
+     * @return connected session
+     */
+    public Session openSession() {
+        Session session = new Session(nextSessionId.incrementAndGet());
+        sessions.put(session.id, session);
+        return session;
+    }
+
+    /**
+     * Publish an instance owned by given session, or replace the stored one with same identity.
+     *
+     * @param session owner session
+     * @param app     application instance
+     * @throws IllegalStateException if session is closed or expired
+     */
+    public void put(Session session, Application app) {
+        Application copy = copyOf(app);
+        synchronized (lock) {
+            checkAlive(session);
+            Map<Application, Record> group = groups.computeIfAbsent(copy.getAppName(),
+                key -> new LinkedHashMap<>());
+            Record previous = group.put(copy, new Record(copy, session));
+            if (previous != null && previous.owner != session) {
+                previous.owner.owned.remove(previous.app);
+            }
+            session.owned.add(copy);
+            notifyWatchers(copy.getAppName(), group, previous == null ? null : previous.app,
+                copy);
+        }
+    }
+
+    /**
+     * Remove an instance owned by given session.
+     *
+     * @param session owner session
+     * @param app     application instance
+     * @return {@code false} if nothing removed
+     * @throws IllegalStateException if session is closed or expired
+     */
+    public boolean remove(Session session, Application app) {
+        synchronized (lock) {
+            checkAlive(session);
+            Map<Application, Record> group = groups.get(app.getAppName());
+            Record record = group == null ? null : group.get(app);
+            if (record == null || record.owner != session) {
+                return false;
+            }
+            removeRecord(group, record);
+            return true;
+        }
+    }
+
+    /**
+     * Expire a session at once, e.g. to simulate a session timeout in tests.
+     * All instances owned by it are removed.
+     *
+     * @param session session to expire
+     */
+    public void expire(Session session) {
+        synchronized (lock) {
+            if (session.expired) {
+                return;
+            }
+            sessions.remove(session.id);
+            for (Application app : new ArrayList<>(session.owned)) {
+                Map<Application, Record> group = groups.get(app.getAppName());
+                Record record = group == null ? null : group.get(app);
+                if (record != null && record.owner == session) {
+                    removeRecord(group, record);
+                }
+            }
+            session.owned.clear();
+            // Published last, an expired session never has instances left
+            session.expired = true;
+        }
+    }
+
+    /**
+     * Watch all instance changes, and read current instances in the same critical section,
+     * so that no change is missed or seen twice.
+     *
+     * @param watcher change watcher
+     * @return current instances group by app name
+     */
+    public Map<String, List<Application>> watch(Watcher watcher) {
+        Map<String, List<Application>> result = new HashMap<>();
+        watch(watcher, result::putAll);
+        return result;
+    }
+
+    /**
+     * Watch all instance changes, and hand current instances to an initializer before any
+     * change is delivered. The initializer runs while modification lock is held, so that
+     * watcher state can be installed before a concurrent change reaches it.
+     *
+     * @param watcher     change watcher
+     * @param initializer accept current instances group by app name
+     */
+    public void watch(Watcher watcher, Consumer<Map<String, List<Application>>> initializer) {
+        Objects.requireNonNull(watcher);
+        synchronized (lock) {
+            Map<String, List<Application>> current = new HashMap<>(groups.size() * 2);
+            groups.forEach((appName, group) -> current.put(appName, instancesOf(group)));
+            initializer.accept(current);
+            watchers.add(watcher);
+        }
+    }
+
+    public void unwatch(Watcher watcher) {
+        watchers.remove(watcher);
+    }
+
+    /**
+     * Instances of an application as stored
+     *
+     * @param appName application name
+     * @return copied instance list
+     */
+    public List<Application> getByName(String appName) {
+        synchronized (lock) {
+            Map<Application, Record> group = groups.get(appName);
+            return group == null ? Collections.emptyList() : instancesOf(group);
+        }
+    }
+
+    public long getSessionTimeoutMs() {
+        return sessionTimeoutMs;
+    }
+
+    @Override
+    public void close() {
+        reaper.shutdownNow();
+    }
+
+    private void removeRecord(Map<Application, Record> group, Record record) {
+        group.remove(record.app);
+        record.owner.owned.remove(record.app);
+        String appName = record.app.getAppName();
+        if (group.isEmpty()) {
+            groups.remove(appName);
+        }
+        notifyWatchers(appName, group, record.app, null);
+    }
+
+    private void notifyWatchers(String appName, Map<Application, Record> group,
+                                @Nullable Application previous, @Nullable Application current) {
+        if (watchers.isEmpty()) {
+            return;
+        }
+        List<Application> instances = Collections.unmodifiableList(instancesOf(group));
+        for (Watcher watcher : watchers) {
+            try {
+                watcher.onChanged(appName, instances, previous, current);
+            } catch (Throwable e) {
+                LOGGER.warn("Unexpected registry watcher error.", e);
+            }
+        }
+    }
+
+    private void expireDisconnected() {
+        long now = System.currentTimeMillis();
+        for (Session session : sessions.values()) {
+            long disconnectedAt = session.disconnectedAt;
+            if (disconnectedAt > 0 && now - disconnectedAt >= sessionTimeoutMs) {
+                LOGGER.info("Session {} expired", session.id);
+                expire(session);
+            }
+        }
+    }
+
+    /**
+     * Stored instances of a group. Keys are not used since map keeps the first key of an
+     * identity while its record is replaced.
+     */
+    private static List<Application> instancesOf(Map<Application, Record> group) {
+        List<Application> result = new ArrayList<>(group.size());
+        for (Record record : group.values()) {
+            result.add(record.app);
+        }
+        return result;
+    }
+
+    private static void checkAlive(Session session) {
+        if (session.expired) {
+            throw new IllegalStateException("Session " + session.id + " is expired");
+        }
+    }
+
+    private static Application copyOf(Application app) {
+        return Application.newBuilder().appName(app.getAppName()).hostName(app.getHostName())
+            .internalHost(app.getInternalHost()).port(app.getPort()).appState(app.getAppState())
+            .startTime(app.getStartTime()).lastRecover(app.getLastRecover()).build();
+    }
+
+    /**
+     * Receive instance changes, called in modification order while modification lock is held
+     */
+    @FunctionalInterface
+    public interface Watcher {
+
+        /**
+         * An instance is added, updated or removed
+         *
+         * @param appName  application name
+         * @param group    all instances of this application after change, empty if the
+         *                 application is removed with its last instance
+         * @param previous instance before change, {@code null} if added
+         * @param current  instance after change, {@code null} if removed
+         */
+        void onChanged(String appName, List<Application> group, @Nullable Application previous,
+                       @Nullable Application current);
+    }
+
+    /**
+     * A publisher session, owning ephemeral instances
+     */
+    public final class Session {
+
+        private final long                          id;
+
+        /**
+         * Owned instances, guarded by registry lock
+         */
+        private final Set<Application> owned = new HashSet<>();
+
+        /**
+         * Written while registry lock is held
+         */
+        private volatile boolean                    expired;
+
+        /**
+         * {@link System#currentTimeMillis()} when disconnected, {@code 0} if connected
+         */
+        private volatile long                       disconnectedAt;
+
+        private Session(long id) {
+            this.id = id;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public boolean isExpired() {
+            return expired;
+        }
+
+        /**
+         * Simulate a lost connection, session expires if not reconnected within timeout
+         */
+        public void disconnect() {
+            disconnectedAt = System.currentTimeMillis();
+        }
+
+        /**
+         * Reconnect with this session
+         *
+         * @return {@code false} if already expired, a new session should be opened
+         */
+        public boolean reconnect() {
+            disconnectedAt = 0L;
+            return !expired;
+        }
+
+        /**
+         * Close this session, all owned instances are removed at once
+         */
+        public void close() {
+            expire(this);
+        }
+    }
+
+    private static final class Record {
+
+        private final Application app;
+
+        private final Session     owner;
+
+        private Record(Application app, Session owner) {
+            this.app = app;
+            this.owner = owner;
+        }
+    }
+}
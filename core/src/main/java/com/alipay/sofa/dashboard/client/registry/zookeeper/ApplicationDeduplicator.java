@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.AppChangeEvent;
+import com.alipay.sofa.dashboard.client.utils.StringPool;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+
+/**
+ * Keep cached instances small, since every change of an application parses all its session
+ * nodes again.
+ * <ul>
+ * <li>An instance equal to its cached copy with the same record reuses the cached object,
+ * so that unchanged instances never hold new strings.</li>
+ * <li>Application names and states are shared through a {@link StringPool}.</li>
+ * <li>Internal host shares the host name string if they are equal.</li>
+ * </ul>
+ * Host names are not pooled, as most of them are distinct and a pool entry costs more than
+ * the string itself.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+final class ApplicationDeduplicator {
+
+    private static final int MAX_POOLED_STRINGS = 1 << 14;
+
+    private final StringPool pool               = new StringPool(MAX_POOLED_STRINGS);
+
+    /**
+     * Share strings of a newly parsed instance, it is modified in place.
+     *
+     * @param app parsed instance
+     * @return the same instance
+     */
+    Application dedup(Application app) {
+        app.setAppName(pool.intern(app.getAppName()));
+        app.setAppState(pool.intern(app.getAppState()));
+        if (app.getInternalHost() != null && app.getInternalHost().equals(app.getHostName())) {
+            app.setInternalHost(app.getHostName());
+        }
+        return app;
+    }
+
+    /**
+     * Reuse cached instance if nothing changed, or share strings of the parsed one.
+     *
+     * @param cachedGroup cached instances of the same application, {@code null} if none
+     * @param parsed      parsed instance
+     * @return instance to cache
+     */
+    Application reuse(@Nullable InstanceGroup cachedGroup, Application parsed) {
+        Application cached = cachedGroup == null ? null : cachedGroup.get(parsed);
+        if (cached != null && AppChangeEvent.isSameRecord(cached, parsed)) {
+            return cached;
+        }
+        return dedup(parsed);
+    }
+
+    /**
+     * Reuse cached instances of a rebuilt group
+     *
+     * @param cachedGroup cached instances of the same application, {@code null} if none
+     * @param rebuilt     rebuilt instances
+     * @return group holding reused instances
+     */
+    InstanceGroup reuseAll(@Nullable InstanceGroup cachedGroup, Collection<Application> rebuilt) {
+        InstanceGroup group = new InstanceGroup(rebuilt.size());
+        for (Application app : rebuilt) {
+            group.add(reuse(cachedGroup, app));
+        }
+        return group;
+    }
+}
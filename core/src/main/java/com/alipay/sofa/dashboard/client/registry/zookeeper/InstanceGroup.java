@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.ApplicationSnapshot;
+import org.springframework.lang.Nullable;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Instances of one application, hashed by a precomputed key of instance identity.
+ * <p>
+ * Unlike a sorted set ordered by {@link Application#compareTo(Application)}, upsert and
+ * removal cost O(1) and never depend on comparator consistency. The group is not ordered,
+ * ordered views are built by {@link ApplicationSnapshot} only for changed groups.
+ * <p>
+ * All instances are expected to share the same app name, which is not part of the key.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+final class InstanceGroup extends AbstractSet<Application> {
+
+    private final Map<Key, Application> instances;
+
+    InstanceGroup() {
+        this.instances = new ConcurrentHashMap<>();
+    }
+
+    InstanceGroup(int expectedSize) {
+        this.instances = new ConcurrentHashMap<>(Math.max(16, expectedSize * 4 / 3 + 1));
+    }
+
+    /**
+     * Add an instance if absent, as {@link java.util.Set#add(Object)} does
+     *
+     * @param app application instance
+     * @return {@code true} if added
+     */
+    @Override
+    public boolean add(Application app) {
+        return instances.putIfAbsent(Key.of(app), app) == null;
+    }
+
+    /**
+     * Add an instance, or replace the one with same identity
+     *
+     * @param app application instance
+     * @return replaced instance, {@code null} if added
+     */
+    @Nullable
+    Application put(Application app) {
+        return instances.put(Key.of(app), app);
+    }
+
+    /**
+     * Find the instance with same identity
+     *
+     * @param app application instance
+     * @return grouped instance, {@code null} if not found
+     */
+    @Nullable
+    Application get(Application app) {
+        return instances.get(Key.of(app));
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Application && instances.remove(Key.of((Application) o)) != null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Application && instances.containsKey(Key.of((Application) o));
+    }
+
+    @Override
+    public Iterator<Application> iterator() {
+        return instances.values().iterator();
+    }
+
+    @Override
+    public int size() {
+        return instances.size();
+    }
+
+    /**
+     * Identity of an instance inside its application, with hash code computed once
+     */
+    private static final class Key {
+
+        private final String hostName;
+
+        private final int    port;
+
+        private final String internalHost;
+
+        private final int    hash;
+
+        private Key(String hostName, int port, String internalHost) {
+            this.hostName = hostName;
+            this.port = port;
+            this.internalHost = internalHost;
+            this.hash = (Objects.hashCode(hostName) * 31 + port) * 31
+                        + Objects.hashCode(internalHost);
+        }
+
+        private static Key of(Application app) {
+            return new Key(app.getHostName(), app.getPort(), app.getInternalHost());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hash == that.hash && port == that.port
+                   && Objects.equals(hostName, that.hostName)
+                   && Objects.equals(internalHost, that.internalHost);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+/**
+ * Receive timing samples of {@link ZookeeperAppPublisher}, so that it has no dependency on
+ * any metrics library.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public interface PublisherMetricsRecorder {
+
+    /**
+     * Recorder doing nothing
+     */
+    PublisherMetricsRecorder NOOP = new PublisherMetricsRecorder() {
+    };
+
+    /**
+     * A register operation is finished
+     *
+     * @param costNanos time from submitted to finished in nanoseconds
+     * @param success   whether session node is published
+     */
+    default void recordRegister(long costNanos, boolean success) {
+    }
+
+    /**
+     * An unregister operation is finished
+     *
+     * @param costNanos time from submitted to finished in nanoseconds
+     * @param success   whether session node is removed
+     */
+    default void recordUnRegister(long costNanos, boolean success) {
+    }
+
+    /**
+     * A state update is finished
+     *
+     * @param costNanos time from submitted to finished in nanoseconds
+     * @param success   whether new state is published
+     */
+    default void recordUpdate(long costNanos, boolean success) {
+    }
+
+    /**
+     * A recovery after reconnected is finished
+     *
+     * @param costNanos time from started to finished in nanoseconds, excluding scheduled delay
+     * @param success   whether session node is confirmed or recreated
+     * @param recreated whether session node is recreated rather than survived
+     */
+    default void recordRecover(long costNanos, boolean success, boolean recreated) {
+    }
+}
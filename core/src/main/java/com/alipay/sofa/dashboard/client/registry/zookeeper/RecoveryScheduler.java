@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Pace session recoveries after zookeeper comes back.
+ * <p>
+ * Each recovery waits for a random delay first, so that instances reconnected in the same
+ * second spread their writes over the jitter window. It then takes a permit from a local
+ * token bucket holding at most one permit, which bounds the recovery rate of all publishers
+ * sharing this scheduler, e.g. multiple biz in one ark container, or a flapping connection.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class RecoveryScheduler implements Closeable {
+
+    private static final Logger      LOGGER = LoggerFactory.getLogger(RecoveryScheduler.class);
+
+    private final long               maxJitterMs;
+
+    /**
+     * Nanoseconds between two permits, {@code 0} if not limited
+     */
+    private final long               permitIntervalNanos;
+
+    private final Object             lock   = new Object();
+
+    /**
+     * Time the next permit is available, guarded by {@link #lock}
+     */
+    private long                     nextPermitNanos;
+
+    /**
+     * Created on first recovery, guarded by {@link #lock}
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * Guarded by {@link #lock}
+     */
+    private boolean                  closed = false;
+
+    /**
+     * @param maxJitterMs      upper bound of random delay, no delay if not positive
+     * @param permitsPerSecond max recoveries per second, not limited if not positive
+     */
+    public RecoveryScheduler(long maxJitterMs, double permitsPerSecond) {
+        this.maxJitterMs = Math.max(0L, maxJitterMs);
+        this.permitIntervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1)
+                                                                 / permitsPerSecond) : 0L;
+        this.nextPermitNanos = System.nanoTime();
+    }
+
+    /**
+     * Run a recovery after a random delay and a permit.
+     *
+     * @param recovery recovery operation
+     * @return future completed with the recovery
+     */
+    public CompletableFuture<Void> schedule(Supplier<CompletableFuture<Void>> recovery) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        long jitter = maxJitterMs > 0 ? ThreadLocalRandom.current().nextLong(maxJitterMs + 1)
+            : 0L;
+        submit(() -> {
+            long wait = reservePermit();
+            submit(() -> recovery.get().whenComplete((ignore, err) -> {
+                if (err != null) {
+                    result.completeExceptionally(err);
+                } else {
+                    result.complete(null);
+                }
+            }), wait, TimeUnit.NANOSECONDS, result);
+        }, jitter, TimeUnit.MILLISECONDS, result);
+        return result;
+    }
+
+    /**
+     * Take next permit, it may be in the future.
+     *
+     * @return nanoseconds to wait until the permit is available
+     */
+    long reservePermit() {
+        if (permitIntervalNanos <= 0) {
+            return 0L;
+        }
+        synchronized (lock) {
+            long now = System.nanoTime();
+            // Unused permits are not accumulated, so that there is never a burst
+            long permitAt = Math.max(now, nextPermitNanos);
+            nextPermitNanos = permitAt + permitIntervalNanos;
+            return permitAt - now;
+        }
+    }
+
+    private void submit(Runnable task, long delay, TimeUnit unit, CompletableFuture<Void> result) {
+        try {
+            getExecutor().schedule(() -> {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }, delay, unit);
+        } catch (RejectedExecutionException e) {
+            LOGGER.info("Recovery scheduler is closed, discard pending recovery");
+            result.completeExceptionally(e);
+        }
+    }
+
+    private ScheduledExecutorService getExecutor() {
+        synchronized (lock) {
+            if (closed) {
+                throw new RejectedExecutionException("Recovery scheduler is closed");
+            }
+            if (executor == null) {
+                executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "AppPublisherRecovery");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return executor;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Run tasks on a fixed number of single thread stripes chosen by key, so that tasks of
+ * the same key run one after another in submission order, while tasks of different keys
+ * may run in parallel.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+final class StripedExecutor {
+
+    private static final Logger     LOGGER = LoggerFactory.getLogger(StripedExecutor.class);
+
+    private final ExecutorService[] stripes;
+
+    /**
+     * @param name    thread name prefix
+     * @param stripes stripe count, CPU core count if not positive
+     */
+    StripedExecutor(String name, int stripes) {
+        int count = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.stripes = new ExecutorService[count];
+        for (int i = 0; i < count; i++) {
+            String threadName = name + "-" + i;
+            this.stripes[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Run a task after all tasks submitted earlier with the same key.
+     *
+     * @param key  ordering key
+     * @param task task to run
+     */
+    void execute(Object key, Runnable task) {
+        try {
+            stripes[indexOf(key)].execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Striped executor is shutdown, discard task of {}", key);
+        }
+    }
+
+    /**
+     * Wait for tasks submitted so far.
+     *
+     * @return future completed once every stripe has run all tasks submitted before,
+     * or completed exceptionally if shutdown
+     */
+    CompletableFuture<Void> drain() {
+        CompletableFuture<?>[] barriers = new CompletableFuture<?>[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            CompletableFuture<Void> barrier = new CompletableFuture<>();
+            barriers[i] = barrier;
+            try {
+                stripes[i].execute(() -> barrier.complete(null));
+            } catch (RejectedExecutionException e) {
+                barrier.completeExceptionally(e);
+            }
+        }
+        return CompletableFuture.allOf(barriers);
+    }
+
+    int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Stop all stripes, pending tasks are dropped.
+     */
+    void shutdown() {
+        for (ExecutorService stripe : stripes) {
+            stripe.shutdownNow();
+        }
+    }
+
+    private int indexOf(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16; // Same as HashMap, let high bits take part in
+        return (hash & Integer.MAX_VALUE) % stripes.length;
+    }
+}
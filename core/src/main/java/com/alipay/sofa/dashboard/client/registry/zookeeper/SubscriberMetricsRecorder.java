@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+/**
+ * Receive timing samples of {@link ZookeeperAppSubscriber}, so that it has no dependency on
+ * any metrics library.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public interface SubscriberMetricsRecorder {
+
+    /**
+     * Recorder doing nothing
+     */
+    SubscriberMetricsRecorder NOOP = new SubscriberMetricsRecorder() {
+    };
+
+    /**
+     * A full rebuild is finished
+     *
+     * @param costNanos time cost in nanoseconds
+     * @param success   whether local cache is replaced
+     */
+    default void recordRebuild(long costNanos, boolean success) {
+    }
+
+    /**
+     * A batch of changes is applied to local cache
+     *
+     * @param latencyNanos time from the first event of this batch received to applied
+     * @param appCount     changed application count
+     */
+    default void recordApply(long latencyNanos, int appCount) {
+    }
+}
@@ -21,30 +21,86 @@ import com.alipay.sofa.dashboard.client.registry.AppPublisher;
 import com.alipay.sofa.dashboard.client.utils.JsonUtils;
 import com.alipay.sofa.dashboard.client.zookeeper.LifecycleHandler;
 import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperClient;
+import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperConfig;
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
 import org.apache.curator.framework.state.ConnectionState;
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
+ * Publish application instance as an ephemeral session node.
+ * <p>
+ * All operations are sent with curator background api and run one after another in calling
+ * order. Blocking variants simply wait for the asynchronous ones, so they must not be called
+ * from zookeeper event thread.
+ * <p>
+ * Session node is recovered through a {@link RecoveryScheduler} after reconnected, so that a
+ * recovering ensemble is not flooded by all instances at once. Recovery is skipped if the
+ * ephemeral node survives, i.e. it is still owned by current session.
+ *
  * @author chen.pengzhi (chpengzh@foxmail.com)
  */
 public class ZookeeperAppPublisher implements AppPublisher {
 
-    private static final Logger   LOGGER = LoggerFactory.getLogger(ZookeeperAppPublisher.class);
+    private static final Logger               LOGGER              = LoggerFactory
+                                                                      .getLogger(ZookeeperAppPublisher.class);
+
+    /**
+     * Max attempts of a state update while version conflicts
+     */
+    private static final int                  MAX_UPDATE_ATTEMPTS = 3;
+
+    private final ZookeeperClient             client;
+
+    private final Application                 application;
+
+    private final Object                      sequenceLock        = new Object();
+
+    /**
+     * Last submitted operation, guarded by {@link #sequenceLock}
+     */
+    private CompletableFuture<Void>           tail                = CompletableFuture
+                                                                      .completedFuture(null);
 
-    private final ZookeeperClient client;
+    private volatile String                   currentSession;
 
-    private final Application     application;
+    /**
+     * Data version of {@link #currentSession}, for optimistic state updates
+     */
+    private volatile int                      sessionVersion;
 
-    private final ReentrantLock   lock   = new ReentrantLock(true);
+    /**
+     * Whether the persistent root node is known to exist, it is never removed once created
+     */
+    private volatile boolean                  rootReady;
 
-    private volatile String       currentSession;
+    /**
+     * Whether session node should exist, i.e. registered and not unregistered since then
+     */
+    private volatile boolean                  expectRegistered;
+
+    private final AtomicBoolean               recoveryPending     = new AtomicBoolean(false);
+
+    private volatile RecoveryScheduler        recoveryScheduler;
+
+    /**
+     * Whether {@link #recoveryScheduler} is created by this publisher and closed with it
+     */
+    private volatile boolean                  ownsScheduler;
+
+    private volatile PublisherMetricsRecorder recorder            = PublisherMetricsRecorder.NOOP;
 
     public ZookeeperAppPublisher(Application application, ZookeeperClient client) {
         this.application = application;
@@ -58,6 +114,12 @@ public class ZookeeperAppPublisher implements AppPublisher {
 
     @Override
     public boolean start() {
+        if (recoveryScheduler == null) {
+            ZookeeperConfig config = client.getConfig();
+            recoveryScheduler = new RecoveryScheduler(config.getRecoverJitterMs(),
+                config.getRecoverPermitsPerSecond());
+            ownsScheduler = true;
+        }
         client.addLifecycleHandler(new AppPublisherLifecycleHandler());
         return client.start();
     }
@@ -65,60 +127,348 @@ public class ZookeeperAppPublisher implements AppPublisher {
     @Override
     public void shutdown() {
         client.shutdown();
+        if (ownsScheduler) {
+            recoveryScheduler.close();
+        }
     }
 
     @Override
     public void register() throws Exception {
-        lock.lock();
-        try {
-            Application app = getApplication();
-            app.setLastRecover(System.currentTimeMillis());
+        await(registerAsync());
+    }
+
+    @Override
+    public void unRegister() throws Exception {
+        await(unRegisterAsync());
+    }
+
+    /**
+     * Publish instance with its latest recover time.
+     * <p>
+     * Re-registration replaces the previous session node in a single transaction, so that
+     * subscribers never see the instance missing in between.
+     *
+     * @return future completed once session node is created
+     */
+    @Override
+    public CompletableFuture<Void> registerAsync() {
+        return submit(Operation.REGISTER, () -> {
+            expectRegistered = true;
+            return doRegister();
+        });
+    }
 
+    /**
+     * Remove current session node, it is fine if the node has already gone.
+     *
+     * @return future completed once session node is removed
+     */
+    @Override
+    public CompletableFuture<Void> unRegisterAsync() {
+        return submit(Operation.UNREGISTER, () -> {
+            expectRegistered = false;
+            return doUnRegister();
+        });
+    }
+
+    /**
+     * Publish a new app state.
+     * <p>
+     * With {@link ZookeeperConfig#isMutableState()}, state is written into data of current
+     * session node with its last known version, so subscribers see an in-place update rather
+     * than the instance removed and added again. Otherwise the session node is replaced as
+     * re-registration does.
+     *
+     * @param appState new app state
+     * @return future completed once the state is published
+     */
+    @Override
+    public CompletableFuture<Void> updateStateAsync(String appState) {
+        return submit(Operation.UPDATE, () -> {
+            getApplication().setAppState(appState);
+            expectRegistered = true;
+            if (!client.getConfig().isMutableState() || !isRegistered()) {
+                return doRegister();
+            }
             if (!client.isRunning()) {
-                return;
+                return CompletableFuture.completedFuture(null);
             }
+            return writeState(client.getCuratorClient(), currentSession, MAX_UPDATE_ATTEMPTS);
+        });
+    }
 
-            if (!StringUtils.isEmpty(currentSession)) {
-                try {
-                    client.getCuratorClient().delete().forPath(currentSession);
-                    currentSession = null;
-                } catch (Exception e) {
-                    LOGGER.warn("Error while recycle old session node {}", currentSession, e);
-                }
+    /**
+     * Whether a session node is published by this publisher
+     *
+     * @return {@code true} if registered
+     */
+    public boolean isRegistered() {
+        return !StringUtils.isEmpty(currentSession);
+    }
+
+    public ZookeeperClient getClient() {
+        return client;
+    }
+
+    /**
+     * Share a recovery scheduler with other publishers, so that they are limited together.
+     * It must be set before {@link #start()}, and is not closed by this publisher.
+     *
+     * @param recoveryScheduler shared scheduler
+     */
+    public void setRecoveryScheduler(RecoveryScheduler recoveryScheduler) {
+        this.recoveryScheduler = recoveryScheduler;
+        this.ownsScheduler = false;
+    }
+
+    public void setMetricsRecorder(PublisherMetricsRecorder recorder) {
+        this.recorder = recorder == null ? PublisherMetricsRecorder.NOOP : recorder;
+    }
+
+    private CompletableFuture<Void> submit(Operation type,
+                                           Supplier<CompletableFuture<Void>> operation) {
+        final long begin = System.nanoTime();
+        CompletableFuture<Void> result;
+        synchronized (sequenceLock) {
+            // Start after previous operation, no matter it succeeds or not
+            result = tail.handle((ignore, err) -> null).thenCompose(ignore -> operation.get());
+            tail = result;
+        }
+        result.whenComplete((ignore, err) -> {
+            long cost = System.nanoTime() - begin;
+            switch (type) {
+                case REGISTER:
+                    recorder.recordRegister(cost, err == null);
+                    break;
+                case UNREGISTER:
+                    recorder.recordUnRegister(cost, err == null);
+                    break;
+                case RECOVER:
+                    break; // Recorded with its outcome by doRecover
+                default:
+                    recorder.recordUpdate(cost, err == null);
             }
+        });
+        return result;
+    }
+
+    private CompletableFuture<Void> doRegister() {
+        Application app = getApplication();
+        app.setLastRecover(System.currentTimeMillis());
 
-            Stat stat = client.getCuratorClient().checkExists()
-                .forPath(ZookeeperConstants.SOFA_BOOT_CLIENT_ROOT);
-            if (stat == null) {
-                client.getCuratorClient().create().creatingParentContainersIfNeeded()
-                    .withMode(CreateMode.PERSISTENT)
-                    .forPath(ZookeeperConstants.SOFA_BOOT_CLIENT_ROOT);
+        if (!client.isRunning()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CuratorFramework curator = client.getCuratorClient();
+        CompletableFuture<Void> root = CompletableFuture.completedFuture(null);
+        if (!rootReady) {
+            root = inBackground(callback -> curator.create().creatingParentContainersIfNeeded()
+                .withMode(CreateMode.PERSISTENT).inBackground(callback)
+                .forPath(ZookeeperConstants.SOFA_BOOT_CLIENT_ROOT)).thenAccept(event -> {
+                // Created by other instances if node exists
+                checkResult(event, KeeperException.Code.NODEEXISTS);
+                rootReady = true;
+            });
+        }
+
+        byte[] bytes = JsonUtils.toJsonBytes(app);
+        String sessionNode = toSessionNode(app);
+        String previous = currentSession;
+        if (StringUtils.isEmpty(previous)) {
+            return root.thenCompose(ignore -> createSession(curator, sessionNode, bytes));
+        }
+        return root.thenCompose(ignore -> inBackground(callback -> curator.transaction()
+            .inBackground(callback).forOperations(
+                curator.transactionOp().delete().forPath(previous),
+                curator.transactionOp().create().withMode(CreateMode.EPHEMERAL)
+                    .forPath(sessionNode, bytes)))).thenCompose(event -> {
+            if (KeeperException.Code.get(event.getResultCode()) == KeeperException.Code.NONODE) {
+                // Previous node has gone with an expired session, or the app container is
+                // recycled with it. Either way there is nothing left to delete.
+                LOGGER.info("Session node {} not found, create a new one", previous);
+                return createSession(curator, sessionNode, bytes);
             }
-            byte[] bytes = JsonUtils.toJsonBytes(app);
-            String sessionNode = ZookeeperRegistryUtils.toSessionNode(app);
-            currentSession = client.getCuratorClient().create().creatingParentContainersIfNeeded()
-                .withMode(CreateMode.EPHEMERAL).forPath(sessionNode, bytes);
+            checkResult(event, KeeperException.Code.OK);
+            currentSession = sessionNode;
+            sessionVersion = 0;
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private CompletableFuture<Void> createSession(CuratorFramework curator, String sessionNode,
+                                                  byte[] bytes) {
+        return inBackground(callback -> curator.create().creatingParentContainersIfNeeded()
+            .withMode(CreateMode.EPHEMERAL).inBackground(callback).forPath(sessionNode, bytes))
+            .thenAccept(event -> {
+                checkResult(event, KeeperException.Code.OK);
+                currentSession = sessionNode;
+                sessionVersion = 0;
+            });
+    }
+
+    /**
+     * Write current instance into session node data, expecting its last known version.
+     *
+     * @param curator     curator client
+     * @param sessionNode current session node
+     * @param attempts    attempts left on version conflicts
+     * @return future completed once written
+     */
+    private CompletableFuture<Void> writeState(CuratorFramework curator, String sessionNode,
+                                               int attempts) {
+        byte[] bytes = JsonUtils.toJsonBytes(getApplication());
+        return inBackground(callback -> curator.setData().withVersion(sessionVersion)
+            .inBackground(callback).forPath(sessionNode, bytes)).thenCompose(event -> {
+            KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+            if (code == KeeperException.Code.OK) {
+                sessionVersion = event.getStat().getVersion();
+                return CompletableFuture.completedFuture(null);
+            } else if (code == KeeperException.Code.NONODE) {
+                LOGGER.info("Session node {} not found, register again", sessionNode);
+                currentSession = null;
+                return doRegister();
+            } else if (code == KeeperException.Code.BADVERSION && attempts > 1) {
+                // Modified by someone else, take its version and write again
+                return inBackground(callback -> curator.checkExists().inBackground(callback)
+                    .forPath(sessionNode)).thenCompose(exists -> {
+                    if (exists.getStat() != null) {
+                        sessionVersion = exists.getStat().getVersion();
+                    }
+                    return writeState(curator, sessionNode, attempts - 1);
+                });
+            }
+            checkResult(event, KeeperException.Code.OK);
+            return CompletableFuture.completedFuture(null);
+        });
+    }
 
-        } finally {
-            lock.unlock();
+    private CompletableFuture<Void> doUnRegister() {
+        if (!client.isRunning()) {
+            return CompletableFuture.completedFuture(null);
         }
+        String session = currentSession;
+        String sessionNode = StringUtils.isEmpty(session) ? toSessionNode(getApplication())
+            : session;
+        CuratorFramework curator = client.getCuratorClient();
+        return inBackground(callback -> curator.delete().inBackground(callback)
+            .forPath(sessionNode)).thenAccept(event -> {
+            checkResult(event, KeeperException.Code.NONODE);
+            currentSession = null;
+        });
     }
 
-    @Override
-    public void unRegister() throws Exception {
-        lock.lock();
-        try {
-            Application app = getApplication();
+    /**
+     * Session node name of the instance, state is left out of the name in mutable state mode.
+     */
+    private String toSessionNode(Application app) {
+        return ZookeeperRegistryUtils.toSessionNode(app, !client.getConfig().isMutableState());
+    }
+
+    /**
+     * Schedule a recovery after (re)connected, unless one is pending already.
+     */
+    private void scheduleRecovery() {
+        if (!recoveryPending.compareAndSet(false, true)) {
+            return;
+        }
+        recoveryScheduler.schedule(() -> submit(Operation.RECOVER, this::doRecover))
+            .whenComplete((ignore, err) -> {
+                recoveryPending.set(false);
+                if (err != null) {
+                    LOGGER.error("Recover session error", err);
+                }
+            });
+    }
 
-            if (client.isRunning()) {
-                String sessionNode = ZookeeperRegistryUtils.toSessionNode(app);
-                client.getCuratorClient().delete().forPath(sessionNode);
+    private CompletableFuture<Void> doRecover() {
+        final long begin = System.nanoTime();
+        CompletableFuture<Boolean> result;
+        if (!expectRegistered || !client.isRunning()) {
+            result = CompletableFuture.completedFuture(false);
+        } else if (!isRegistered()) {
+            result = doRegister().thenApply(ignore -> true);
+        } else {
+            result = checkSurvived(client.getCuratorClient(), currentSession).thenCompose(
+                survived -> survived ? CompletableFuture.completedFuture(false) : doRegister()
+                    .thenApply(ignore -> true));
+        }
+        return result.whenComplete((recreated, err) -> recorder.recordRecover(System.nanoTime()
+            - begin, err == null, Boolean.TRUE.equals(recreated))).thenApply(ignore -> null);
+    }
+
+    /**
+     * Whether session node is still owned by current zookeeper session
+     *
+     * @param curator     curator client
+     * @param sessionNode current session node
+     * @return future of the result
+     */
+    private CompletableFuture<Boolean> checkSurvived(CuratorFramework curator, String sessionNode) {
+        long sessionId;
+        try {
+            sessionId = curator.getZookeeperClient().getZooKeeper().getSessionId();
+        } catch (Exception e) {
+            CompletableFuture<Boolean> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return inBackground(callback -> curator.checkExists().inBackground(callback)
+            .forPath(sessionNode)).thenApply(event -> {
+            Stat stat = event.getStat();
+            if (stat != null && stat.getEphemeralOwner() == sessionId) {
+                LOGGER.info("Session node {} survived reconnection, skip recovery", sessionNode);
+                return true;
             }
-        } finally {
-            lock.unlock();
+            return false;
+        });
+    }
+
+    private enum Operation {
+        REGISTER, UNREGISTER, UPDATE, RECOVER
+    }
+
+    /**
+     * Throw if background operation is neither succeeded nor in an acceptable result
+     *
+     * @param event      background event
+     * @param acceptable result code treated as success besides {@code OK}
+     */
+    private static void checkResult(CuratorEvent event, KeeperException.Code acceptable) {
+        KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+        if (code != KeeperException.Code.OK && code != acceptable) {
+            throw new CompletionException(KeeperException.create(code, event.getPath()));
+        }
+    }
+
+    private static CompletableFuture<CuratorEvent> inBackground(BackgroundRequest request) {
+        CompletableFuture<CuratorEvent> future = new CompletableFuture<>();
+        try {
+            request.send((cli, event) -> future.complete(event));
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static void await(CompletableFuture<Void> future) throws Exception {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
         }
     }
 
+    /**
+     * Send a curator background request with given callback
+     */
+    @FunctionalInterface
+    private interface BackgroundRequest {
+
+        void send(BackgroundCallback callback) throws Exception;
+    }
+
     private class AppPublisherLifecycleHandler implements LifecycleHandler {
 
         @Override
@@ -131,11 +481,12 @@ public class ZookeeperAppPublisher implements AppPublisher {
             client.getConnectionStateListenable().addListener((cli, newState) -> {
                 if (newState == ConnectionState.RECONNECTED) {
                     LOGGER.info("Try to recover session node while reconnected");
-                    try {
-                        register();
-                    } catch (Exception e) {
-                        LOGGER.error("Recover session error", e);
-                    }
+                    scheduleRecovery();
+                } else if (newState == ConnectionState.CONNECTED && expectRegistered) {
+                    // Registered while registry was unreachable at boot, which never ends
+                    // up as RECONNECTED. Recovery runs after the pending registration.
+                    LOGGER.info("Try to recover session node while connected");
+                    scheduleRecovery();
                 }
             });
         }
@@ -17,50 +17,207 @@
 package com.alipay.sofa.dashboard.client.registry.zookeeper;
 
 import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.AppChangeDispatcher;
+import com.alipay.sofa.dashboard.client.registry.AppChangeEvent;
+import com.alipay.sofa.dashboard.client.registry.AppChangeListener;
 import com.alipay.sofa.dashboard.client.registry.AppSubscriber;
+import com.alipay.sofa.dashboard.client.registry.ApplicationSnapshot;
+import com.alipay.sofa.dashboard.client.registry.InstanceHostIndex;
+import com.alipay.sofa.dashboard.client.registry.Page;
 import com.alipay.sofa.dashboard.client.utils.JsonUtils;
 import com.alipay.sofa.dashboard.client.zookeeper.LifecycleHandler;
 import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperClient;
+import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperConfig;
 import org.apache.curator.framework.CuratorFramework;
-import org.apache.curator.framework.recipes.cache.ChildData;
-import org.apache.curator.framework.recipes.cache.TreeCache;
-import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
-import org.apache.curator.framework.recipes.cache.TreeCacheListener;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.zookeeper.KeeperException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListSet;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author chen.pengzhi (chpengzh@foxmail.com)
  */
 public class ZookeeperAppSubscriber implements AppSubscriber {
 
-    private static final Logger                    LOGGER       = LoggerFactory
-                                                                    .getLogger(ZookeeperAppSubscriber.class);
+    private static final Logger                         LOGGER         = LoggerFactory
+                                                                           .getLogger(ZookeeperAppSubscriber.class);
 
     /**
      * In-memory copy of zookeeper session information
      */
-    private volatile Map<String, Set<Application>> applications = new ConcurrentHashMap<>();
+    private volatile Map<String, InstanceGroup>         applications   = new ConcurrentHashMap<>();
 
-    private final ZookeeperClient                  client;
+    /**
+     * Readonly view of {@link #applications}, republished on every change
+     */
+    private volatile ApplicationSnapshot                snapshot       = ApplicationSnapshot.EMPTY;
+
+    /**
+     * Reverse index on host fields, updated along with {@link #snapshot}
+     */
+    private final InstanceHostIndex                     hostIndex      = new InstanceHostIndex();
+
+    /**
+     * Serialize modifications between cache events and cache rebuilding
+     */
+    private final ReentrantLock                         writeLock      = new ReentrantLock();
+
+    private final AppChangeDispatcher                   dispatcher     = new AppChangeDispatcher(
+                                                                           "AppSubscriberDispatcher");
+
+    /**
+     * Parsed app changes to be applied in next batch, guarded by {@link #pendingLock}.
+     * A removed app is mapped to {@code null}.
+     */
+    private Map<String, InstanceGroup>                  pendingChanges = new HashMap<>();
+
+    private final Object                                pendingLock    = new Object();
+
+    /**
+     * Whether changes are held until the initial population of watcher ends,
+     * guarded by {@link #pendingLock}
+     */
+    private boolean                                     initializing   = false;
+
+    /**
+     * {@link System#nanoTime()} when the initialization begins
+     */
+    private volatile long                               initBegin;
+
+    /**
+     * Completed once the first full view of registry is applied
+     */
+    private final CompletableFuture<Void>               ready          = new CompletableFuture<>();
+
+    /**
+     * Parse changes of each app, events of one app are handled in order
+     */
+    private final StripedExecutor                       eventExecutor;
+
+    /**
+     * Run full rebuilds, so that neither zookeeper event thread nor change batches wait for them
+     */
+    private final ExecutorService                       rebuilder;
+
+    /**
+     * Apps changed by events while a rebuild is in flight, guarded by {@link #writeLock},
+     * {@code null} if no rebuild is running
+     */
+    private Set<String>                                 touchedApps;
+
+    /**
+     * Whether a rebuild for the first full view is queued or running
+     */
+    private final AtomicBoolean                         rebuildPending = new AtomicBoolean(false);
+
+    /**
+     * Run batched changes and local snapshot saving
+     */
+    private final ScheduledExecutorService              worker;
+
+    /**
+     * Version of snapshot last saved into local file
+     */
+    private volatile long                               savedVersion   = -1L;
+
+    private final AtomicBoolean                         started        = new AtomicBoolean(false);
+
+    private final AtomicLong                            receivedEvents = new AtomicLong();
+
+    private final AtomicLong                            appliedBatches = new AtomicLong();
+
+    /**
+     * {@link System#nanoTime()} when the first pending change arrived,
+     * guarded by {@link #pendingLock}
+     */
+    private long                                        pendingSince;
+
+    /**
+     * Count of instance changes by type, never modified after constructed
+     */
+    private final Map<AppChangeEvent.Type, LongAdder>   changeCounts   = new EnumMap<>(
+                                                                           AppChangeEvent.Type.class);
+
+    private volatile SubscriberMetricsRecorder          recorder       = SubscriberMetricsRecorder.NOOP;
+
+    /**
+     * Latest data of mutable session nodes, by app name and then session node name
+     */
+    private final Map<String, Map<String, Application>> payloads       = new ConcurrentHashMap<>();
+
+    /**
+     * Listed mutable session nodes whose data is not read yet, by app name
+     */
+    private final Map<String, Set<String>>              awaitingData   = new ConcurrentHashMap<>();
+
+    private volatile ZookeeperInstanceWatcher           watcher;
+
+    /**
+     * Share objects and strings between cached instances
+     */
+    private final ApplicationDeduplicator               deduplicator   = new ApplicationDeduplicator();
+
+    private final ZookeeperClient                       client;
 
     public ZookeeperAppSubscriber(ZookeeperClient client) {
         this.client = client;
+        for (AppChangeEvent.Type type : AppChangeEvent.Type.values()) {
+            this.changeCounts.put(type, new LongAdder());
+        }
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "AppSubscriberWorker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rebuilder = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "AppSubscriberRebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.eventExecutor = new StripedExecutor("AppSubscriberEvent", client.getConfig()
+            .getEventThreads());
     }
 
     @Override
     public boolean start() {
+        if (!started.compareAndSet(false, true)) {
+            return false;
+        }
+        Path snapshotFile = getSnapshotFile();
+        if (snapshotFile != null) {
+            loadLocalSnapshot(snapshotFile);
+            long period = Math.max(1000L, client.getConfig().getSnapshotPeriodMs());
+            worker.scheduleWithFixedDelay(() -> runInSafe(() -> saveLocalSnapshot(snapshotFile)),
+                period, period, TimeUnit.MILLISECONDS);
+        }
         client.addLifecycleHandler(new AppSubscriberLifecycleHandler());
         return client.start();
     }
@@ -68,128 +225,587 @@ public class ZookeeperAppSubscriber implements AppSubscriber {
     @Override
     public void shutdown() {
         client.shutdown();
+        Path snapshotFile = getSnapshotFile();
+        if (snapshotFile != null) {
+            runInSafe(() -> saveLocalSnapshot(snapshotFile));
+        }
+        eventExecutor.shutdown();
+        rebuilder.shutdownNow();
+        worker.shutdownNow();
+        dispatcher.shutdown();
     }
 
     @Override
     public List<Application> getAll() {
-        // Get a readonly copy
-        Map<String, Set<Application>> copy = Collections.unmodifiableMap(this.applications);
-
-        Set<Application> apps = copy.values().stream().reduce((a, b) -> {
-            Set<Application> collector = new HashSet<>(a);
-            collector.addAll(b);
-            return collector;
-        }).orElse(new HashSet<>());
-        return new ArrayList<>(apps);
+        return new ArrayList<>(snapshot.getAll());
     }
 
     @Override
     public List<Application> getByName(@Nullable String appName) {
-        // Get a readonly copy
-        Map<String, Set<Application>> copy = Collections.unmodifiableMap(this.applications);
-
-        Set<Application> apps = copy.get(appName);
-        return apps == null ? new ArrayList<>() : new ArrayList<>(apps);
+        return new ArrayList<>(snapshot.getByName(appName));
     }
 
     @Override
     public List<String> getAllNames() {
-        // Get a readonly copy
-        Set<String> copy = Collections.unmodifiableSet(this.applications.keySet());
-
-        return new ArrayList<>(copy);
+        return new ArrayList<>(snapshot.getAllNames());
     }
 
     @Override
     public Map<String, Integer> summaryCounts() {
-        // Get a readonly copy
-        Map<String, Set<Application>> copy = Collections.unmodifiableMap(this.applications);
+        return new HashMap<>(snapshot.getCounts());
+    }
+
+    @Override
+    public Page<Application> getByName(@Nullable String appName, int offset, int limit) {
+        return snapshot.getByName(appName, offset, limit);
+    }
+
+    @Override
+    public int getInstanceCount(@Nullable String appName) {
+        return snapshot.getInstanceCount(appName);
+    }
+
+    @Override
+    public Page<String> findNamesByPrefix(String prefix, int offset, int limit) {
+        return snapshot.findNamesByPrefix(prefix, offset, limit);
+    }
+
+    @Override
+    public Page<String> findNamesContaining(String keyword, int offset, int limit) {
+        return snapshot.findNamesContaining(keyword, offset, limit);
+    }
+
+    @Override
+    public List<Application> getByHost(@Nullable String hostName) {
+        return hostIndex.getByHost(hostName);
+    }
+
+    @Override
+    public List<Application> getByInternalHost(@Nullable String internalHost) {
+        return hostIndex.getByInternalHost(internalHost);
+    }
+
+    @Override
+    public void addListener(AppChangeListener listener) {
+        dispatcher.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(AppChangeListener listener) {
+        dispatcher.removeListener(listener);
+    }
+
+    /**
+     * Get current readonly snapshot of registry.
+     *
+     * @return registry snapshot
+     */
+    public ApplicationSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public boolean isStale() {
+        return snapshot.isStale();
+    }
 
-        return copy.entrySet().stream().collect(Collectors.toMap(
-            Map.Entry::getKey,
-            it -> it.getValue() == null ? 0 : it.getValue().size()));
+    @Override
+    public CompletableFuture<Void> whenReady() {
+        return ready;
+    }
+
+    /**
+     * Count of app change events received from zookeeper
+     *
+     * @return event count
+     */
+    public long getReceivedEventCount() {
+        return receivedEvents.get();
+    }
+
+    /**
+     * Count of change batches applied to local cache
+     *
+     * @return batch count
+     */
+    public long getAppliedBatchCount() {
+        return appliedBatches.get();
+    }
+
+    /**
+     * Count of instance changes observed from app change events
+     *
+     * @param type change type
+     * @return change count
+     */
+    public long getChangeCount(AppChangeEvent.Type type) {
+        return changeCounts.get(type).sum();
+    }
+
+    /**
+     * Get zookeeper client of this subscriber
+     *
+     * @return client instance
+     */
+    public ZookeeperClient getClient() {
+        return client;
     }
 
     /**
-     * Fetch all instance information from zookeeper.
+     * Replace timing recorder, e.g. to publish metrics
+     *
+     * @param recorder timing recorder, {@code null} to disable recording
      */
-    private void doRebuildCache() {
-        List<String> appNames;
+    public void setMetricsRecorder(@Nullable SubscriberMetricsRecorder recorder) {
+        this.recorder = recorder == null ? SubscriberMetricsRecorder.NOOP : recorder;
+    }
+
+    /**
+     * Read the payload stored in session node data of an instance.
+     * <p>
+     * Cached instances may be built from session node names only
+     * (see {@link ZookeeperConfig.RebuildMode#PATH_ONLY}),
+     * use this when fields not carried by node name are required.
+     *
+     * @param instance cached application instance
+     * @return payload instance, or {@code null} if it is already offline
+     * @throws Exception unexpected zookeeper error
+     */
+    @Nullable
+    public Application fetchPayload(Application instance) throws Exception {
+        CuratorFramework curator = client.getCuratorClient();
         try {
-            appNames = client.getCuratorClient().getChildren()
-                .forPath(ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE);
-            if (appNames == null || appNames.isEmpty()) {
-                return;
+            byte[] bytes = curator.getData().forPath(
+                ZookeeperRegistryUtils.toSessionNode(instance));
+            return JsonUtils.parseObject(bytes, Application.class);
+        } catch (KeeperException.NoNodeException e) {
+            // Published as a mutable session node, without state in its name
+            try {
+                byte[] bytes = curator.getData().forPath(
+                    ZookeeperRegistryUtils.toSessionNode(instance, false));
+                return JsonUtils.parseObject(bytes, Application.class);
+            } catch (KeeperException.NoNodeException ignore) {
+                return null;
             }
-        } catch (Exception ignore) {
+        }
+    }
+
+    /**
+     * Fetch all instance information from zookeeper in background.
+     * <p>
+     * Change events keep being applied while reading. Apps changed by them keep the
+     * event-driven instances once the rebuild completes, since those are read with watches
+     * set and any later change will be delivered as another event.
+     *
+     * @return future completed with {@code true} if the rebuild is applied
+     * @throws RejectedExecutionException subscriber is already shutdown
+     */
+    public CompletableFuture<Boolean> rebuildAsync() {
+        return CompletableFuture.supplyAsync(this::doRebuildCache, rebuilder);
+    }
+
+    /**
+     * Rebuild until the first full view is applied. A failed rebuild is retried after
+     * {@link ZookeeperConfig#getBaseSleepTimeMs()}, and once connected or reconnected.
+     */
+    private void rebuildUntilReady() {
+        if (ready.isDone() || !rebuildPending.compareAndSet(false, true)) {
             return;
         }
+        CompletableFuture<Boolean> result;
+        try {
+            result = rebuildAsync();
+        } catch (RejectedExecutionException ignore) {
+            rebuildPending.set(false); // Already shutdown
+            return;
+        }
+        result.whenComplete((applied, err) -> {
+            rebuildPending.set(false);
+            if (Boolean.TRUE.equals(applied)) {
+                return;
+            }
+            LOGGER.warn("Dashboard client rebuild failed, retry later.", err);
+            try {
+                worker.schedule(this::rebuildUntilReady,
+                    Math.max(100L, client.getConfig().getBaseSleepTimeMs()), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ignore) {
+                // Already shutdown
+            }
+        });
+    }
+
+    /**
+     * Fetch all instance information from zookeeper, always run by {@link #rebuilder}.
+     *
+     * @return {@code true} if the rebuild is applied
+     */
+    private boolean doRebuildCache() {
+        long begin = System.nanoTime();
+        writeLock.lock();
+        try {
+            touchedApps = new HashSet<>();
+        } finally {
+            writeLock.unlock();
+        }
 
-        final Map<String, Set<Application>> newCacheInstance = new ConcurrentHashMap<>();
-        appNames.forEach((item) -> {
-            String instancePath = String.format("%s/%s",
-                ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE, item);
+        ZookeeperRegistryReader reader = new ZookeeperRegistryReader(client.getCuratorClient(),
+            client.getConfig());
+        Map<String, InstanceGroup> newCacheInstance = reader.readAll();
+        if (newCacheInstance == null) {
+            writeLock.lock();
             try {
-                Set<Application> instanceList = new ConcurrentSkipListSet<>();
+                touchedApps = null;
+            } finally {
+                writeLock.unlock();
+            }
+            recorder.recordRebuild(System.nanoTime() - begin, false);
+            return false;
+        }
+        Map<String, InstanceGroup> cached = applications;
+        newCacheInstance.replaceAll((appName, group) -> deduplicator.reuseAll(
+            cached.get(appName), group));
+
+        int reconciled;
+        writeLock.lock();
+        try {
+            reconciled = touchedApps.size();
+            for (String appName : touchedApps) {
+                // Changed during rebuild, the event-driven group is at least as new
+                InstanceGroup current = applications.get(appName);
+                if (current == null) {
+                    newCacheInstance.remove(appName);
+                } else {
+                    newCacheInstance.put(appName, current);
+                }
+            }
+            touchedApps = null;
+            replaceCache(newCacheInstance);
+        } finally {
+            writeLock.unlock();
+        }
+        long cost = System.nanoTime() - begin;
+        recorder.recordRebuild(cost, true);
+        ready.complete(null);
+        LOGGER.info("Dashboard client init success, current app count is {}, cost {} ms, "
+                    + "{} apps changed while reading", newCacheInstance.size(),
+            TimeUnit.NANOSECONDS.toMillis(cost), reconciled);
+        return true;
+    }
+
+    /**
+     * The initial population of watcher is complete, apply all held changes as the full view
+     * of registry. Run after all events received before are parsed.
+     */
+    private void finishInit() {
+        Map<String, InstanceGroup> initial;
+        synchronized (pendingLock) {
+            initial = pendingChanges;
+            pendingChanges = new HashMap<>();
+            initializing = false;
+        }
+        initial.values().removeIf(Objects::isNull); // Removed before initialized
+        writeLock.lock();
+        try {
+            replaceCache(new ConcurrentHashMap<>(initial));
+        } finally {
+            writeLock.unlock();
+        }
+        long cost = System.nanoTime() - initBegin;
+        recorder.recordRebuild(cost, true);
+        ready.complete(null);
+        LOGGER.info("Dashboard client init success, current app count is {}, cost {} ms",
+            initial.size(), TimeUnit.NANOSECONDS.toMillis(cost));
+    }
 
-                List<String> instances = client.getCuratorClient().getChildren()
-                    .forPath(instancePath);
-                instances.forEach(instance -> {
-                    String appInstance = String.format("%s/%s", instancePath, instance);
+    /**
+     * Replace the whole cache, should be called with {@link #writeLock} held.
+     * Apps only known by a stale local snapshot are evicted, and the published snapshot
+     * is no longer stale.
+     *
+     * @param newCache instances group by application name
+     */
+    private void replaceCache(Map<String, InstanceGroup> newCache) {
+        publishDiff(snapshot, newCache);
+        this.applications = newCache;
+        this.hostIndex.rebuild(newCache);
+        this.snapshot = ApplicationSnapshot.of(snapshot.getVersion() + 1, newCache);
+    }
+
+    /**
+     * Accept latest session nodes of an application, always run by the stripe of this app
+     * in {@link #eventExecutor}. Changes arrived in {@link ZookeeperConfig#getCoalesceWindowMs()}
+     * are merged and applied as a single batch.
+     *
+     * @param appName   application name
+     * @param instances session node names
+     */
+    private void submitChange(String appName, List<String> instances) {
+        receivedEvents.incrementAndGet();
+        submitGroup(appName, parseGroup(appName, instances));
+    }
+
+    /**
+     * Apply latest instances of an application, in the same way as {@link #submitChange}.
+     *
+     * @param appName application name
+     * @param group   latest instances, {@code null} if the app node is removed
+     */
+    private void submitGroup(String appName, @Nullable InstanceGroup group) {
+        int window = client.getConfig().getCoalesceWindowMs();
+        synchronized (pendingLock) {
+            if (initializing) {
+                pendingChanges.put(appName, group); // Held until the initial population ends
+                return;
+            }
+            if (window > 0) {
+                boolean first = pendingChanges.isEmpty();
+                pendingChanges.put(appName, group); // Later children list covers earlier one
+                if (first) {
+                    pendingSince = System.nanoTime();
                     try {
-                        byte[] bytes = client.getCuratorClient().getData().forPath(appInstance);
-                        Application application = JsonUtils.parseObject(bytes, Application.class);
-                        instanceList.add(application);
-                    } catch (Throwable e) {
-                        LOGGER.error("Error to get app instance from Zookeeper.", e);
+                        worker.schedule(this::flushChanges, window, TimeUnit.MILLISECONDS);
+                    } catch (RejectedExecutionException ignore) {
+                        pendingChanges.clear(); // Already shutdown
                     }
-                });
-                newCacheInstance.put(item, instanceList);
+                }
+                return;
+            }
+        }
+        doApplyChanges(Collections.singletonMap(appName, group), System.nanoTime());
+    }
+
+    private void flushChanges() {
+        Map<String, InstanceGroup> batch;
+        long receivedAt;
+        synchronized (pendingLock) {
+            batch = pendingChanges;
+            receivedAt = pendingSince;
+            pendingChanges = new HashMap<>();
+        }
+        if (!batch.isEmpty()) {
+            runInSafe(() -> doApplyChanges(batch, receivedAt));
+        }
+    }
 
-            } catch (Throwable e) {
-                LOGGER.error("Error to get instances from Zookeeper.", e);
+    /**
+     * Replace cached instances of applications with latest parsed groups,
+     * and publish a single snapshot for all of them.
+     *
+     * @param groups     parsed instances group by application name
+     * @param receivedAt {@link System#nanoTime()} when the first change of batch is received
+     */
+    private void doApplyChanges(Map<String, InstanceGroup> groups, long receivedAt) {
+        writeLock.lock();
+        try {
+            if (touchedApps != null) {
+                touchedApps.addAll(groups.keySet());
             }
-        });
-        this.applications = newCacheInstance;
-        LOGGER.info("Dashboard client init success, current app count is {}",
-            newCacheInstance.size());
+            for (Map.Entry<String, InstanceGroup> entry : groups.entrySet()) {
+                InstanceGroup group = entry.getValue();
+                List<AppChangeEvent> events = AppChangeEvent.diff(
+                    snapshot.getByName(entry.getKey()),
+                    group == null ? Collections.emptySet() : group);
+                if (group == null) {
+                    applications.remove(entry.getKey());
+                } else {
+                    applications.put(entry.getKey(), group);
+                }
+                hostIndex.apply(events);
+                dispatcher.publish(events);
+                events.forEach(event -> changeCounts.get(event.getType()).increment());
+            }
+            snapshot = snapshot.withGroups(groups);
+        } finally {
+            writeLock.unlock();
+        }
+        appliedBatches.incrementAndGet();
+        recorder.recordApply(System.nanoTime() - receivedAt, groups.size());
+
+        LOGGER.info("Dashboard client apply {} app changes, current instance count is {}",
+            groups.size(), snapshot.getInstanceCount());
+        if (LOGGER.isDebugEnabled()) {
+            groups.forEach((appName, group) -> LOGGER.debug(
+                "Dashboard client app changed, app = {}, instance count = {}", appName,
+                group == null ? 0 : group.size()));
+        }
+    }
+
+    private InstanceGroup parseGroup(String appName, List<String> instances) {
+        String prefix = toInstancePrefix(appName);
+        InstanceGroup cachedGroup = getLatestGroup(appName);
+        Map<String, Application> appPayloads = payloads.get(appName);
+        Set<String> awaiting = awaitingData.get(appName);
+        if ((appPayloads != null && !appPayloads.isEmpty())
+            || (awaiting != null && !awaiting.isEmpty())) {
+            Set<String> listed = new HashSet<>(instances); // Forget removed nodes
+            if (appPayloads != null) {
+                appPayloads.keySet().retainAll(listed);
+            }
+            if (awaiting != null) {
+                awaiting.retainAll(listed);
+            }
+        }
+
+        InstanceGroup group = new InstanceGroup(instances.size());
+        for (String instance : instances) {
+            Application app = ZookeeperRegistryUtils.parseSessionNode(prefix + instance);
+            if (app == null) {
+                continue;
+            }
+            if (ZookeeperRegistryUtils.isMutableSessionNode(instance)) {
+                // State is carried by node data, keep cached one until the data is read
+                Application payload = appPayloads == null ? null : appPayloads.get(instance);
+                Application known = payload != null ? payload : cachedGroup == null ? null
+                    : cachedGroup.get(app);
+                if (known == null) {
+                    awaitingData.computeIfAbsent(appName, key -> ConcurrentHashMap.newKeySet())
+                        .add(instance);
+                    watchData(appName, instance);
+                    continue; // Added once its data is read
+                }
+                if (payload == null) {
+                    watchData(appName, instance);
+                }
+                app.setAppState(known.getAppState());
+            }
+            group.add(deduplicator.reuse(cachedGroup, app));
+        }
+        return group;
     }
 
     /**
-     * Update cached application instance according to zookeeper node event.
+     * Latest instances of an application, either parsed but not applied yet or cached.
      *
-     * @param event zookeeper node changed event
-     */
-    private void doCreateOrUpdateApplications(TreeCacheEvent event) {
-        ChildData chileData = event.getData();
-        Application app = ZookeeperRegistryUtils.parseSessionNode(chileData.getPath());
-        if (app != null) {
-            applications.compute(app.getAppName(), (key, value) -> {
-                Set<Application> group = value == null ? new ConcurrentSkipListSet<>() : value;
-                group.remove(app); // remove if exists
-                group.add(app);
-                return group;
-            });
+     * @param appName application name
+     * @return instance group, {@code null} if none
+     */
+    @Nullable
+    private InstanceGroup getLatestGroup(String appName) {
+        synchronized (pendingLock) {
+            if (pendingChanges.containsKey(appName)) {
+                return pendingChanges.get(appName); // Parsed but not applied yet
+            }
+        }
+        return applications.get(appName);
+    }
+
+    private static String toInstancePrefix(String appName) {
+        return ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE + ZookeeperConstants.SEPARATOR
+               + appName + ZookeeperConstants.SEPARATOR;
+    }
+
+    private void watchData(String appName, String instance) {
+        ZookeeperInstanceWatcher current = watcher;
+        if (current != null) {
+            current.watchData(appName, instance);
         }
     }
 
     /**
-     * Remove cached application instance according to zookeeper node event.
+     * Data of a mutable session node is read, apply its state to that instance only, which
+     * ends up as an in-place {@link AppChangeEvent.Type#STATE_CHANGED}. Children of the app
+     * are not read again, an instance waiting for its data is added instead.
      *
-     * @param event zookeeper node changed event
+     * @param appName  application name
+     * @param instance session node name
+     * @param data     node data
      */
-    private void doRemoveApplications(TreeCacheEvent event) {
-        ChildData chileData = event.getData();
-        if (chileData == null) {
-            return; // Maybe null if session is timeout
+    private void onPayloadChanged(String appName, String instance, byte[] data) {
+        Application payload = JsonUtils.parseObject(data, Application.class);
+        if (payload == null) {
+            return;
         }
+        payloads.computeIfAbsent(appName, key -> new ConcurrentHashMap<>()).put(instance, payload);
+        Application app = ZookeeperRegistryUtils.parseSessionNode(toInstancePrefix(appName)
+                                                                  + instance);
+        if (app == null) {
+            return;
+        }
+        app.setAppState(payload.getAppState());
 
-        Application app = ZookeeperRegistryUtils.parseSessionNode(chileData.getPath());
-        if (app != null) {
-            applications.computeIfPresent(app.getAppName(), (key, value) -> {
-                value.remove(app); // Always remove whatever if it's exists
-                return value;
-            });
+        InstanceGroup cachedGroup = getLatestGroup(appName);
+        Application known = cachedGroup == null ? null : cachedGroup.get(app);
+        if (known == null) {
+            Set<String> awaiting = awaitingData.get(appName);
+            if (awaiting == null || !awaiting.remove(instance)) {
+                return; // Removed from children already
+            }
+        } else if (Objects.equals(known.getAppState(), app.getAppState())) {
+            return;
+        }
+        receivedEvents.incrementAndGet();
+        InstanceGroup group = new InstanceGroup(cachedGroup == null ? 1 : cachedGroup.size() + 1);
+        if (cachedGroup != null) {
+            group.addAll(cachedGroup);
+        }
+        group.put(deduplicator.reuse(cachedGroup, app));
+        submitGroup(appName, group);
+    }
+
+    @Nullable
+    private Path getSnapshotFile() {
+        String file = client.getConfig().getSnapshotFile();
+        return StringUtils.isEmpty(file) ? null : Paths.get(file);
+    }
+
+    /**
+     * Serve instances of local snapshot file as stale, until live rebuild replaces them.
+     *
+     * @param file snapshot file
+     */
+    private void loadLocalSnapshot(Path file) {
+        long begin = System.currentTimeMillis();
+        Map<String, InstanceGroup> loaded = ZookeeperSnapshotFile.read(file, client.getConfig()
+            .getSnapshotMaxAgeMs());
+        if (loaded == null) {
+            return;
+        }
+        loaded.replaceAll((appName, group) -> deduplicator.reuseAll(null, group));
+        writeLock.lock();
+        try {
+            if (snapshot.getVersion() != 0L) {
+                return; // Something live is already there
+            }
+            applications = new ConcurrentHashMap<>(loaded);
+            hostIndex.rebuild(loaded);
+            snapshot = ApplicationSnapshot.of(1L, loaded).asStale();
+        } finally {
+            writeLock.unlock();
+        }
+        LOGGER.info("Dashboard client load local snapshot, app count is {}, cost {} ms",
+            loaded.size(), System.currentTimeMillis() - begin);
+    }
+
+    /**
+     * Save current snapshot if it's changed and confirmed by registry.
+     *
+     * @param file snapshot file
+     * @throws IOException error while writing
+     */
+    private void saveLocalSnapshot(Path file) throws IOException {
+        ApplicationSnapshot current = snapshot;
+        if (current.isStale() || current.getVersion() == savedVersion) {
+            return;
+        }
+        ZookeeperSnapshotFile.write(file, current);
+        savedVersion = current.getVersion();
+    }
+
+    /**
+     * Count and publish changes between current snapshot and a rebuilt cache.
+     *
+     * @param before  current snapshot
+     * @param rebuilt rebuilt application groups
+     */
+    private void publishDiff(ApplicationSnapshot before, Map<String, InstanceGroup> rebuilt) {
+        Set<String> appNames = new HashSet<>(before.getAllNames());
+        appNames.addAll(rebuilt.keySet());
+        for (String appName : appNames) {
+            InstanceGroup after = rebuilt.get(appName);
+            List<AppChangeEvent> events = AppChangeEvent.diff(before.getByName(appName),
+                after == null ? Collections.emptySet() : after);
+            events.forEach(event -> changeCounts.get(event.getType()).increment());
+            dispatcher.publish(events);
         }
     }
 
@@ -201,42 +817,75 @@ public class ZookeeperAppSubscriber implements AppSubscriber {
         }
 
         @Override
-        public void beforeStart(CuratorFramework client) {
-            // Add listeners to manage local cache
-            TreeCache cache = new TreeCache(client,
-                ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE);
-            TreeCacheListener listener = (cli, event) -> {
-                String dataPath = event.getData() == null ? null : event.getData().getPath();
-                LOGGER
-                    .info("Dashboard client event type = {}, path= {}", event.getType(),
-                        dataPath);
-                switch (event.getType()) {
-                    case NODE_ADDED:
-                    case NODE_UPDATED:
-                        runInSafe(() -> doCreateOrUpdateApplications(event));
-                        break;
-                    case NODE_REMOVED:
-                    case CONNECTION_LOST:
-                        runInSafe(() -> doRemoveApplications(event));
-                        break;
-                    case CONNECTION_RECONNECTED: // Try to recover data while reconnected
-                        doRebuildCache();
-                        break;
-                    default:
-                        break;
+        public void afterStarted(CuratorFramework curator) {
+            ZookeeperConfig config = client.getConfig();
+            // Session node names carry everything of path only mode, so that the initial
+            // population of watcher is the full view, no need to read the whole tree again
+            boolean pathOnly = config.getRebuildMode() == ZookeeperConfig.RebuildMode.PATH_ONLY;
+            initBegin = System.nanoTime();
+            synchronized (pendingLock) {
+                initializing = pathOnly;
+            }
+            watcher = new ZookeeperInstanceWatcher(curator, new ZookeeperInstanceWatcher.Listener() {
+                @Override
+                public void onChildrenChanged(String appName, List<String> instances) {
+                    eventExecutor.execute(appName,
+                        () -> runInSafe(() -> submitChange(appName, instances)));
+                }
+
+                @Override
+                public void onAppRemoved(String appName) {
+                    eventExecutor.execute(appName, () -> runInSafe(() -> {
+                        payloads.remove(appName);
+                        awaitingData.remove(appName);
+                        receivedEvents.incrementAndGet();
+                        submitGroup(appName, null); // Dropped from names and counts as well
+                    }));
                 }
-            };
-            cache.getListenable().addListener(listener);
+
+                @Override
+                public void onDataChanged(String appName, String instance, byte[] data) {
+                    eventExecutor.execute(appName,
+                        () -> runInSafe(() -> onPayloadChanged(appName, instance, data)));
+                }
+
+                @Override
+                public void onInitialized() {
+                    if (pathOnly) {
+                        eventExecutor.drain().thenRun(() -> runInSafe(() -> finishInit()));
+                    }
+                }
+            });
+            watcher.start();
+            if (!pathOnly) {
+                rebuildUntilReady(); // Instance data is only read by rebuilding
+                curator.getConnectionStateListenable().addListener((cli, newState) -> {
+                    if (newState == ConnectionState.CONNECTED
+                        || newState == ConnectionState.RECONNECTED) {
+                        rebuildUntilReady(); // Registry may be unreachable while starting
+                    }
+                });
+            }
+
+            // Instances registered before started are expected once start returns,
+            // unless registry is unreachable, then they are loaded in background
             try {
-                cache.start();
-            } catch (Exception e) {
-                LOGGER.error("Start cache error.", e);
+                if (curator.blockUntilConnected(config.getConnectionTimeoutMs(),
+                    TimeUnit.MILLISECONDS)) {
+                    ready.get(config.getRebuildTimeoutMs(), TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                LOGGER.warn("Dashboard client is not ready in time, keep loading in background.");
             }
         }
 
         @Override
-        public void afterStarted(CuratorFramework client) {
-            doRebuildCache();
+        public void beforeShutdown(CuratorFramework client) {
+            if (watcher != null) {
+                watcher.close();
+            }
         }
     }
 
@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorEventType;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Watch children of {@link ZookeeperConstants#SOFA_BOOT_CLIENT_INSTANCE} and its app nodes.
+ * <p>
+ * Unlike {@code TreeCache}, nothing but the watched app names is kept here: node stat and data
+ * are never read, and every children list is handed to {@link Listener} straight away, so that
+ * subscriber index is the only copy of instance information. The only exception is mutable
+ * session nodes, whose data is watched on demand (see {@link #watchData(String, String)}).
+ * <p>
+ * Watches are one-shot and re-armed by every read. Callbacks run on zookeeper event thread.
+ * <p>
+ * Once every app listed by the first root read has been read,
+ * {@link Listener#onInitialized()} is fired, so that the initial population of
+ * {@link Listener#onChildrenChanged(String, List)} can be taken as a full view of registry.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+final class ZookeeperInstanceWatcher {
+
+    private static final Logger           LOGGER       = LoggerFactory
+                                                           .getLogger(ZookeeperInstanceWatcher.class);
+
+    private static final String           ROOT         = ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE;
+
+    private final CuratorFramework        client;
+
+    private final Listener                listener;
+
+    /**
+     * App names with children watch registered
+     */
+    private final Set<String>             watchedApps  = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Session node paths with data watch registered
+     */
+    private final Set<String>             watchedNodes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Apps listed by the first root read but not read yet
+     */
+    private final Set<String>             initialApps  = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean           rootListed   = new AtomicBoolean(false);
+
+    private final AtomicBoolean           initialized  = new AtomicBoolean(false);
+
+    private final Watcher                 watcher      = this::process;
+
+    private final BackgroundCallback      callback     = this::onResponse;
+
+    private final ConnectionStateListener connectionListener;
+
+    private volatile boolean              closed       = false;
+
+    ZookeeperInstanceWatcher(CuratorFramework client, Listener listener) {
+        this.client = client;
+        this.listener = listener;
+        this.connectionListener = (cli, state) -> {
+            // Watches are lost with an expired session, read all again to re-arm them
+            if (state == ConnectionState.RECONNECTED) {
+                refreshAll();
+            } else if (state == ConnectionState.CONNECTED && !rootListed.get()) {
+                refreshRoot(); // First read failed before connected
+            }
+        };
+    }
+
+    /**
+     * Start watching, the client should be started.
+     */
+    void start() {
+        client.getConnectionStateListenable().addListener(connectionListener);
+        refreshRoot();
+    }
+
+    void close() {
+        closed = true;
+        client.getConnectionStateListenable().removeListener(connectionListener);
+        watchedApps.clear();
+        watchedNodes.clear();
+    }
+
+    /**
+     * Whether every app listed by the first root read has been read once
+     *
+     * @return {@code true} if initialized
+     */
+    boolean isInitialized() {
+        return initialized.get();
+    }
+
+    /**
+     * Read all watched nodes again.
+     */
+    void refreshAll() {
+        refreshRoot();
+        for (String appName : watchedApps) {
+            refreshApp(appName);
+        }
+        for (String path : watchedNodes) {
+            readData(path);
+        }
+    }
+
+    /**
+     * Watch data of a session node, until it is removed. Data is handed to
+     * {@link Listener#onDataChanged(String, String, byte[])} after read and on every change.
+     *
+     * @param appName  application name
+     * @param instance session node name
+     */
+    void watchData(String appName, String instance) {
+        String path = ROOT + ZookeeperConstants.SEPARATOR + appName + ZookeeperConstants.SEPARATOR
+                      + instance;
+        if (watchedNodes.add(path)) {
+            readData(path);
+        }
+    }
+
+    private void refreshRoot() {
+        if (closed) {
+            return;
+        }
+        try {
+            client.getChildren().usingWatcher(watcher).inBackground(callback).forPath(ROOT);
+        } catch (Exception e) {
+            LOGGER.error("Error to watch {} from Zookeeper.", ROOT, e);
+        }
+    }
+
+    /**
+     * Read children of an app node again.
+     *
+     * @param appName application name
+     */
+    void refreshApp(String appName) {
+        if (closed) {
+            return;
+        }
+        try {
+            client.getChildren().usingWatcher(watcher).inBackground(callback, appName)
+                .forPath(ROOT + ZookeeperConstants.SEPARATOR + appName);
+        } catch (Exception e) {
+            LOGGER.error("Error to watch app {} from Zookeeper.", appName, e);
+        }
+    }
+
+    private void readData(String path) {
+        if (closed) {
+            return;
+        }
+        try {
+            client.getData().usingWatcher(watcher).inBackground(callback).forPath(path);
+        } catch (Exception e) {
+            LOGGER.error("Error to watch data of {} from Zookeeper.", path, e);
+        }
+    }
+
+    private void process(WatchedEvent event) {
+        String path = event.getPath();
+        if (closed || path == null || event.getType() == Watcher.Event.EventType.None) {
+            return;
+        }
+        if (watchedNodes.contains(path)) {
+            if (event.getType() == Watcher.Event.EventType.NodeDeleted) {
+                watchedNodes.remove(path);
+            } else if (event.getType() == Watcher.Event.EventType.NodeDataChanged) {
+                readData(path);
+            }
+        } else if (ROOT.equals(path)) {
+            refreshRoot();
+        } else if (path.startsWith(ROOT + ZookeeperConstants.SEPARATOR)) {
+            String appName = path.substring(ROOT.length() + 1);
+            if (!appName.contains(ZookeeperConstants.SEPARATOR)
+                && watchedApps.contains(appName)) {
+                refreshApp(appName);
+            }
+        }
+    }
+
+    private void onResponse(CuratorFramework cli, CuratorEvent event) {
+        if (closed) {
+            return;
+        }
+        KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+        String appName = (String) event.getContext();
+        if (event.getType() == CuratorEventType.EXISTS) {
+            if (code == KeeperException.Code.OK) {
+                refreshRoot(); // Root is created before the watch is set
+            }
+        } else if (event.getType() == CuratorEventType.GET_DATA) {
+            onData(code, event.getPath(), event.getData());
+        } else if (appName == null) {
+            onRootChildren(code, event.getChildren());
+        } else if (code == KeeperException.Code.OK) {
+            listener.onChildrenChanged(appName, event.getChildren());
+            onInitialRead(appName);
+        } else if (code == KeeperException.Code.NONODE) {
+            if (watchedApps.remove(appName)) {
+                listener.onAppRemoved(appName);
+            }
+            onInitialRead(appName);
+        } else {
+            LOGGER.warn("Error to read app {} from Zookeeper, code = {}", appName, code);
+            onInitialRead(appName); // Left to later events, rather than blocking initialization
+        }
+    }
+
+    private void onInitialRead(String appName) {
+        if (initialApps.remove(appName) && initialApps.isEmpty()) {
+            fireInitialized();
+        }
+    }
+
+    private void fireInitialized() {
+        if (initialized.compareAndSet(false, true)) {
+            listener.onInitialized();
+        }
+    }
+
+    private void onData(KeeperException.Code code, String path, byte[] data) {
+        if (code == KeeperException.Code.NONODE) {
+            watchedNodes.remove(path);
+            return;
+        } else if (code != KeeperException.Code.OK) {
+            LOGGER.warn("Error to read data of {} from Zookeeper, code = {}", path, code);
+            return;
+        }
+        int appEnd = path.indexOf(ZookeeperConstants.SEPARATOR, ROOT.length() + 1);
+        if (appEnd > 0 && watchedNodes.contains(path)) {
+            listener.onDataChanged(path.substring(ROOT.length() + 1, appEnd),
+                path.substring(appEnd + 1), data);
+        }
+    }
+
+    private void onRootChildren(KeeperException.Code code, List<String> appNames) {
+        if (code == KeeperException.Code.NONODE) {
+            // Nothing registered yet, wait for root node
+            appNames = null;
+            try {
+                client.checkExists().usingWatcher(watcher).inBackground(callback).forPath(ROOT);
+            } catch (Exception e) {
+                LOGGER.error("Error to watch {} from Zookeeper.", ROOT, e);
+            }
+        } else if (code != KeeperException.Code.OK) {
+            LOGGER.warn("Error to read {} from Zookeeper, code = {}", ROOT, code);
+            return;
+        }
+
+        Set<String> current = appNames == null ? new HashSet<>() : new HashSet<>(appNames);
+        for (String appName : watchedApps) {
+            if (!current.contains(appName) && watchedApps.remove(appName)) {
+                listener.onAppRemoved(appName);
+            }
+        }
+        if (rootListed.compareAndSet(false, true)) {
+            // All names are collected before any read, or the first response may end it early
+            initialApps.addAll(current);
+            if (initialApps.isEmpty()) {
+                fireInitialized();
+            }
+        }
+        for (String appName : current) {
+            if (watchedApps.add(appName)) {
+                refreshApp(appName);
+            }
+        }
+    }
+
+    /**
+     * Receive changes of app nodes, always called on zookeeper event thread.
+     */
+    interface Listener {
+
+        /**
+         * Instance list of an app is read.
+         *
+         * @param appName   application name
+         * @param instances all session node names of this app
+         */
+        void onChildrenChanged(String appName, List<String> instances);
+
+        /**
+         * App node is removed.
+         *
+         * @param appName application name
+         */
+        void onAppRemoved(String appName);
+
+        /**
+         * Data of a watched session node is read.
+         *
+         * @param appName  application name
+         * @param instance session node name
+         * @param data     node data
+         */
+        default void onDataChanged(String appName, String instance, byte[] data) {
+        }
+
+        /**
+         * Every app listed by the first root read has been read once, fired only once.
+         */
+        default void onInitialized() {
+        }
+    }
+}
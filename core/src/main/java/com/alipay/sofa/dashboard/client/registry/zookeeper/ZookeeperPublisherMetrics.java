@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publish {@link ZookeeperAppPublisher} and its {@link ZookeeperClient} as micrometer meters.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ZookeeperPublisherMetrics implements MeterBinder {
+
+    private static final String         PREFIX = "sofa.dashboard.publisher";
+
+    private final ZookeeperAppPublisher publisher;
+
+    public ZookeeperPublisherMetrics(ZookeeperAppPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(PREFIX + ".registered", publisher, it -> it.isRegistered() ? 1 : 0)
+            .description("Whether instance is published onto registry").register(registry);
+        ZookeeperSubscriberMetrics.bindClient(registry, PREFIX, publisher.getClient());
+
+        Timer registerSuccess = operationTimer(registry, "register", "success");
+        Timer registerFailure = operationTimer(registry, "register", "failure");
+        Timer unRegisterSuccess = operationTimer(registry, "unregister", "success");
+        Timer unRegisterFailure = operationTimer(registry, "unregister", "failure");
+        Timer updateSuccess = operationTimer(registry, "update", "success");
+        Timer updateFailure = operationTimer(registry, "update", "failure");
+        Timer recoverRecreated = operationTimer(registry, "recover", "recreated");
+        Timer recoverSkipped = operationTimer(registry, "recover", "skipped");
+        Timer recoverFailure = operationTimer(registry, "recover", "failure");
+        publisher.setMetricsRecorder(new PublisherMetricsRecorder() {
+            @Override
+            public void recordRegister(long costNanos, boolean success) {
+                (success ? registerSuccess : registerFailure).record(costNanos,
+                    TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordUnRegister(long costNanos, boolean success) {
+                (success ? unRegisterSuccess : unRegisterFailure).record(costNanos,
+                    TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordUpdate(long costNanos, boolean success) {
+                (success ? updateSuccess : updateFailure).record(costNanos,
+                    TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordRecover(long costNanos, boolean success, boolean recreated) {
+                Timer timer = !success ? recoverFailure : recreated ? recoverRecreated
+                    : recoverSkipped;
+                timer.record(costNanos, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private Timer operationTimer(MeterRegistry registry, String operation, String result) {
+        return Timer.builder(PREFIX + "." + operation).tag("result", result)
+            .description("Time cost to " + operation + " instance session node")
+            .serviceLevelObjectives(Duration.ofMillis(10), Duration.ofMillis(100),
+                Duration.ofSeconds(1), Duration.ofSeconds(5)).register(registry);
+    }
+}
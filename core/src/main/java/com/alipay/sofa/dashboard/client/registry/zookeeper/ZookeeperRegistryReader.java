@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperConfig;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.zookeeper.KeeperException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read all application instances under {@link ZookeeperConstants#SOFA_BOOT_CLIENT_INSTANCE}.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+final class ZookeeperRegistryReader {
+
+    private static final Logger    LOGGER           = LoggerFactory
+                                                        .getLogger(ZookeeperRegistryReader.class);
+
+    /**
+     * Interval to check whether all in-flight requests are finished
+     */
+    private static final long      POLL_INTERVAL_MS = 10L;
+
+    private final CuratorFramework client;
+
+    private final ZookeeperConfig  config;
+
+    ZookeeperRegistryReader(CuratorFramework client, ZookeeperConfig config) {
+        this.client = client;
+        this.config = config;
+    }
+
+    /**
+     * Read all instances with configured {@link ZookeeperConfig.RebuildMode}.
+     *
+     * @return application instances group by name, empty if nothing is registered,
+     * or {@code null} if zookeeper can not be read
+     */
+    @Nullable
+    Map<String, InstanceGroup> readAll() {
+        List<String> appNames;
+        try {
+            appNames = client.getChildren().forPath(ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE);
+        } catch (KeeperException.NoNodeException e) {
+            return new ConcurrentHashMap<>(); // Nothing registered yet
+        } catch (Exception e) {
+            LOGGER.error("Error to read apps from Zookeeper.", e);
+            return null;
+        }
+        if (appNames == null || appNames.isEmpty()) {
+            return new ConcurrentHashMap<>();
+        }
+
+        if (config.getRebuildMode() == ZookeeperConfig.RebuildMode.SYNC) {
+            return readAllSync(appNames);
+        }
+        try {
+            return readAllPipelined(appNames);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while reading instances from Zookeeper.");
+            return null;
+        }
+    }
+
+    /**
+     * Read instances one after another.
+     *
+     * @param appNames application names
+     * @return application instances group by name
+     */
+    private Map<String, InstanceGroup> readAllSync(List<String> appNames) {
+        final Map<String, InstanceGroup> result = new ConcurrentHashMap<>();
+        appNames.forEach((item) -> {
+            String instancePath = toPath(ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE, item);
+            try {
+                InstanceGroup instanceList = new InstanceGroup();
+
+                List<String> instances = client.getChildren().forPath(instancePath);
+                instances.forEach(instance -> {
+                    String appInstance = toPath(instancePath, instance);
+                    try {
+                        byte[] bytes = client.getData().forPath(appInstance);
+                        Application application = JsonUtils.parseObject(bytes, Application.class);
+                        instanceList.add(application);
+                    } catch (Throwable e) {
+                        LOGGER.error("Error to get app instance from Zookeeper.", e);
+                    }
+                });
+                result.put(item, instanceList);
+
+            } catch (Throwable e) {
+                LOGGER.error("Error to get instances from Zookeeper.", e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Issue all reads with background api, keeping at most
+     * {@link ZookeeperConfig#getRebuildMaxInFlight()} requests in flight.
+     * Instance data are skipped in {@link ZookeeperConfig.RebuildMode#PATH_ONLY} mode.
+     * <p>
+     * Callbacks run on zookeeper event thread and never block; they only hand
+     * follow-up reads back to the calling thread through a queue.
+     *
+     * Apps or instances removed while reading are skipped. Any other failed read fails the
+     * whole rebuild, since a partial result would evict live instances from the cache.
+     *
+     * @param appNames application names
+     * @return application instances group by name, or {@code null} if timeout or any read fails
+     * @throws InterruptedException interrupted while waiting for responses
+     */
+    @Nullable
+    private Map<String, InstanceGroup> readAllPipelined(List<String> appNames)
+                                                                                 throws InterruptedException {
+        final Map<String, InstanceGroup> result = new ConcurrentHashMap<>();
+        final BlockingQueue<ReadTask> tasks = new LinkedBlockingQueue<>();
+        final Semaphore window = new Semaphore(Math.max(1, config.getRebuildMaxInFlight()));
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final long deadline = System.currentTimeMillis() + config.getRebuildTimeoutMs();
+
+        BackgroundCallback callback = (cli, event) -> {
+            try {
+                if (!onResponse(event, result, tasks)) {
+                    failed.set(true);
+                }
+            } catch (Throwable e) {
+                failed.set(true);
+                LOGGER.error("Error to handle instance response from Zookeeper.", e);
+            } finally {
+                // Follow-up tasks are queued before the counter drops
+                inFlight.decrementAndGet();
+                window.release();
+            }
+        };
+
+        for (String appName : appNames) {
+            tasks.add(new ReadTask(appName, null));
+        }
+        while (true) {
+            if (failed.get()) {
+                LOGGER.warn("Failed to read instances from Zookeeper, {} requests abandoned",
+                    inFlight.get() + tasks.size());
+                return null;
+            }
+            long remain = deadline - System.currentTimeMillis();
+            if (remain <= 0) {
+                LOGGER.warn("Timeout while reading instances from Zookeeper, {} requests pending",
+                    inFlight.get() + tasks.size());
+                return null;
+            }
+
+            ReadTask task = tasks.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            if (task == null) {
+                if (inFlight.get() == 0 && tasks.isEmpty()) {
+                    return result;
+                }
+                continue;
+            }
+            if (!window.tryAcquire(remain, TimeUnit.MILLISECONDS)) {
+                tasks.add(task); // Let the deadline check report it
+                continue;
+            }
+            inFlight.incrementAndGet();
+            try {
+                if (task.instance == null) {
+                    client.getChildren().inBackground(callback, task)
+                        .forPath(toPath(ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE, task.appName));
+                } else {
+                    client.getData().inBackground(callback, task).forPath(task.getInstancePath());
+                }
+            } catch (Exception e) {
+                failed.set(true);
+                inFlight.decrementAndGet();
+                window.release();
+                LOGGER.error("Error to read {} from Zookeeper.", task, e);
+            }
+        }
+    }
+
+    /**
+     * Handle a background response
+     *
+     * @param event  curator background event
+     * @param result result collector
+     * @param tasks  follow-up task queue
+     * @return {@code false} if the read fails
+     */
+    private boolean onResponse(CuratorEvent event, Map<String, InstanceGroup> result,
+                               BlockingQueue<ReadTask> tasks) {
+        ReadTask task = (ReadTask) event.getContext();
+        KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+        if (code == KeeperException.Code.NONODE) {
+            return true; // Removed while reading, just skip it
+        } else if (code != KeeperException.Code.OK) {
+            LOGGER.error("Error to read {} from Zookeeper, code = {}", task, code);
+            return false;
+        }
+
+        if (task.instance == null) {
+            // Keep the app even if it has no instance, as the sync mode does
+            InstanceGroup group = result.computeIfAbsent(task.appName,
+                key -> new InstanceGroup());
+            List<String> instances = event.getChildren();
+            if (instances == null) {
+                return true;
+            }
+            boolean pathOnly = config.getRebuildMode() == ZookeeperConfig.RebuildMode.PATH_ONLY;
+            for (String instance : instances) {
+                ReadTask next = new ReadTask(task.appName, instance);
+                if (!pathOnly || ZookeeperRegistryUtils.isMutableSessionNode(instance)) {
+                    tasks.add(next); // State of mutable session node is carried by its data
+                    continue;
+                }
+                // Session node name carries all fields of instance, no need to read its data
+                Application application = ZookeeperRegistryUtils.parseSessionNode(next
+                    .getInstancePath());
+                if (application != null) {
+                    group.add(application);
+                }
+            }
+        } else {
+            Application application = JsonUtils.parseObject(event.getData(), Application.class);
+            if (application != null) {
+                result.computeIfAbsent(task.appName, key -> new InstanceGroup()).add(
+                    application);
+            }
+        }
+        return true;
+    }
+
+    private static String toPath(String parent, String child) {
+        return parent + ZookeeperConstants.SEPARATOR + child;
+    }
+
+    /**
+     * A pending read, for app node if {@code instance} is {@code null}, otherwise for instance node
+     */
+    private static final class ReadTask {
+
+        private final String appName;
+
+        private final String instance;
+
+        private ReadTask(String appName, @Nullable String instance) {
+            this.appName = appName;
+            this.instance = instance;
+        }
+
+        private String getInstancePath() {
+            return toPath(toPath(ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE, appName), instance);
+        }
+
+        @Override
+        public String toString() {
+            return instance == null ? appName : appName + ZookeeperConstants.SEPARATOR + instance;
+        }
+    }
+}
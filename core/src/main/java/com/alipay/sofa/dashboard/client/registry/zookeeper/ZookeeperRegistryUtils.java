@@ -17,16 +17,12 @@
 package com.alipay.sofa.dashboard.client.registry.zookeeper;
 
 import java.io.UnsupportedEncodingException;
-import java.net.URI;
 import java.net.URLDecoder;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
-import org.springframework.util.StringUtils;
 
 import com.alipay.sofa.dashboard.client.model.common.Application;
 
@@ -44,8 +40,22 @@ final class ZookeeperRegistryUtils {
 
     private static final int    INSTANCE_PREFIX_LEN = INSTANCE_PREFIX.length();
 
+    private static final String NULL_VALUE          = "null";
+
+    private static final String KEY_INTERNAL_HOST   = "internalHost";
+
+    private static final String KEY_START_TIME      = "startTime";
+
+    private static final String KEY_LAST_RECOVER    = "lastRecover";
+
+    private static final String KEY_STATE           = "state";
+
+    private static final long   MAX_PORT            = 0xFFFF;
+
     /**
-     * Convert an instance definition into session node name
+     * Convert an instance definition into session node name, in format of
+     * {@code /apps/instance/{appName}/{host}:{port}?internalHost=..&startTime=..&lastRecover=..&state=..}.
+     * Values are written as is, {@code null} written as text "null".
      *
      * @param instance
      *            application instance
@@ -53,16 +63,54 @@ final class ZookeeperRegistryUtils {
      */
     @NonNull
     static String toSessionNode(Application instance) {
-        String appId = String.format("%s:%d?internalHost=%s&startTime=%d&lastRecover=%d&state=%s",
-            instance.getHostName(), instance.getPort(), instance.getInternalHost(),
-            instance.getStartTime(), instance.getLastRecover(), instance.getAppState());
-        String appName = instance.getAppName();
-        return String.format("%s/%s/%s", ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE, appName,
-            appId);
+        return toSessionNode(instance, true);
+    }
+
+    /**
+     * Convert an instance definition into session node name.
+     * <p>
+     * Without state, the node name stays the same while app state changes, and the state is
+     * carried by node data instead, see {@link #isMutableSessionNode(String)}.
+     *
+     * @param instance
+     *            application instance
+     * @param withState
+     *            whether app state is written into node name
+     * @return session node name
+     */
+    @NonNull
+    static String toSessionNode(Application instance, boolean withState) {
+        StringBuilder builder = new StringBuilder(INSTANCE_PREFIX_LEN + 160);
+        builder.append(INSTANCE_PREFIX).append(instance.getAppName()).append('/')
+            .append(instance.getHostName()).append(':').append(instance.getPort())
+            .append("?internalHost=").append(instance.getInternalHost()).append("&startTime=")
+            .append(instance.getStartTime()).append("&lastRecover=")
+            .append(instance.getLastRecover());
+        if (withState) {
+            builder.append("&state=").append(instance.getAppState());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Whether app state of this session node is carried by node data rather than node name.
+     *
+     * @param sessionNode
+     *            session node path or name
+     * @return {@code true} if no state in node name
+     */
+    static boolean isMutableSessionNode(String sessionNode) {
+        int query = sessionNode.indexOf('?');
+        return query >= 0 && !sessionNode.startsWith(KEY_STATE + "=", query + 1)
+               && !sessionNode.contains("&" + KEY_STATE + "=");
     }
 
     /**
      * Parse session node to application instance.
+     * <p>
+     * The node is scanned once without splitting, only field values are copied out. Query
+     * keys may come in any order, unknown keys are ignored and the last duplicated key wins.
+     * Values are url decoded only when they contain escaped characters.
      *
      * @param sessionNode
      *            session node path
@@ -70,53 +118,154 @@ final class ZookeeperRegistryUtils {
      */
     @Nullable
     static Application parseSessionNode(String sessionNode) {
+        if (sessionNode == null || !sessionNode.startsWith(INSTANCE_PREFIX)) {
+            return null;
+        }
         try {
-            if (sessionNode == null || !sessionNode.startsWith(INSTANCE_PREFIX)) {
-                return null;
-            }
+            return decode(sessionNode);
+        } catch (Throwable err) {
+            LOGGER.warn("Ignore parse err of path " + sessionNode, err);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Application decode(String node) throws UnsupportedEncodingException {
+        final int length = node.length();
+        final int nameEnd = node.indexOf('/', INSTANCE_PREFIX_LEN);
+        if (nameEnd < 0 || node.indexOf('/', nameEnd + 1) >= 0) {
+            return null; // Exactly two segments are expected: {appName}/{instance}
+        }
+        final int queryStart = node.indexOf('?', nameEnd + 1);
+        if (queryStart < 0 || node.indexOf(':', nameEnd + 1) < 0) {
+            return null;
+        }
 
-            String nameAndIns = sessionNode.substring(INSTANCE_PREFIX_LEN);
-            if (!nameAndIns.contains(ZookeeperConstants.SEPARATOR)) {
-                return null;
+        // Authority part, port is the digits after last colon
+        int portStart = node.lastIndexOf(':', queryStart - 1);
+        int port = -1;
+        int hostEnd = queryStart;
+        if (portStart > nameEnd) {
+            hostEnd = portStart;
+            if (queryStart - portStart > 1) {
+                long value = parseLong(node, portStart + 1, queryStart);
+                if (value < 0 || value > MAX_PORT) {
+                    throw new IllegalArgumentException("Illegal port " + value);
+                }
+                port = (int) value;
             }
+        }
+
+        Application application = new Application();
+        application.setAppName(node.substring(INSTANCE_PREFIX_LEN, nameEnd));
+        application.setHostName(hostEnd > nameEnd + 1 ? node.substring(nameEnd + 1, hostEnd)
+            : null);
+        application.setPort(port);
 
-            String[] segments = nameAndIns.split(ZookeeperConstants.SEPARATOR);
-            if (segments.length != 2 || !segments[1].contains(ZookeeperConstants.QUERY)
-                || !segments[1].contains(ZookeeperConstants.COLON)) {
-                return null;
+        boolean hasStartTime = false;
+        boolean hasLastRecover = false;
+        int pairStart = queryStart + 1;
+        while (pairStart <= length) {
+            int pairEnd = node.indexOf('&', pairStart);
+            pairEnd = pairEnd < 0 ? length : pairEnd;
+            if (pairEnd == pairStart) {
+                pairStart = pairEnd + 1; // Empty pair, e.g. trailing '&'
+                continue;
+            }
+            int equal = node.indexOf('=', pairStart);
+            if (equal < 0 || equal > pairEnd) {
+                throw new IllegalArgumentException("Illegal query pair at " + pairStart);
+            }
+            int keyLen = equal - pairStart;
+            int valueStart = equal + 1;
+            if (isKey(node, pairStart, keyLen, KEY_INTERNAL_HOST)) {
+                application.setInternalHost(decodeValue(node, valueStart, pairEnd));
+            } else if (isKey(node, pairStart, keyLen, KEY_STATE)) {
+                application.setAppState(decodeValue(node, valueStart, pairEnd));
+            } else if (isKey(node, pairStart, keyLen, KEY_START_TIME)) {
+                application.setStartTime(parseLong(node, valueStart, pairEnd));
+                hasStartTime = true;
+            } else if (isKey(node, pairStart, keyLen, KEY_LAST_RECOVER)) {
+                application.setLastRecover(parseLong(node, valueStart, pairEnd));
+                hasLastRecover = true;
             }
+            pairStart = pairEnd + 1;
+        }
+        if (!hasStartTime || !hasLastRecover) {
+            throw new IllegalArgumentException("Missing startTime or lastRecover");
+        }
+        return application;
+    }
 
-            String appName = segments[0];
-            String instancePart = segments[1];
-            // Use a dummy schema for uri parsing
-            URI instanceUri = URI.create("dummy://" + instancePart);
-            Map<String, String> query = splitQuery(instanceUri.getQuery());
-
-            Application application = new Application();
-            application.setAppName(appName);
-            application.setInternalHost(query.get("internalHost"));
-            application.setHostName(instanceUri.getHost());
-            application.setPort(instanceUri.getPort());
-            application.setAppState(query.get("state"));
-            application.setStartTime(Long.parseLong(query.get("startTime")));
-            application.setLastRecover(Long.parseLong(query.get("lastRecover")));
-            return application;
+    private static boolean isKey(String node, int from, int len, String key) {
+        return len == key.length() && node.regionMatches(from, key, 0, len);
+    }
 
-        } catch (Throwable err) {
-            LOGGER.warn("Ignore parse err of path " + sessionNode, err);
+    /**
+     * Copy a query value, {@link #toSessionNode(Application)} writes {@code null} as text "null"
+     *
+     * @param node session node
+     * @param from value start, inclusive
+     * @param to   value end, exclusive
+     * @return origin value
+     */
+    @Nullable
+    private static String decodeValue(String node, int from, int to)
+                                                                     throws UnsupportedEncodingException {
+        int len = to - from;
+        if (len == NULL_VALUE.length() && node.regionMatches(from, NULL_VALUE, 0, len)) {
             return null;
         }
+        for (int i = from; i < to; i++) {
+            char c = node.charAt(i);
+            if (c == '%' || c == '+') {
+                return parseNullable(URLDecoder.decode(node.substring(from, to), "UTF-8"));
+            }
+        }
+        return node.substring(from, to);
     }
 
-    private static Map<String, String> splitQuery(String query) throws UnsupportedEncodingException {
-        Map<String, String> result = new LinkedHashMap<>();
-        String[] pairs = query.split(ZookeeperConstants.AND);
-        for (String pair : pairs) {
-            int idx = pair.indexOf(ZookeeperConstants.EQUAL);
-            String key = URLDecoder.decode(pair.substring(0, idx), "UTF-8");
-            String value = URLDecoder.decode(pair.substring(idx + 1), "UTF-8");
-            result.put(key, value);
+    /**
+     * Parse decimal digits in place, the same as {@link Long#parseLong(String)} on the substring
+     *
+     * @param text text to parse
+     * @param from start index, inclusive
+     * @param to   end index, exclusive
+     * @return parsed value
+     */
+    private static long parseLong(String text, int from, int to) {
+        if (from >= to) {
+            throw new NumberFormatException("Empty number at " + from);
         }
-        return result;
+        boolean negative = false;
+        int i = from;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == to) {
+                throw new NumberFormatException("Illegal number at " + from);
+            }
+        }
+        // Accumulate negatively, as the jdk does, so that Long.MIN_VALUE fits
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiMin = limit / 10;
+        long result = 0;
+        for (; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiMin) {
+                throw new NumberFormatException("Illegal number at " + from);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw new NumberFormatException("Number overflow at " + from);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    @Nullable
+    private static String parseNullable(@Nullable String value) {
+        return NULL_VALUE.equals(value) ? null : value;
     }
 }
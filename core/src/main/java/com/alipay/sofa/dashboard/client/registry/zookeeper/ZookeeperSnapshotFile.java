@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.ApplicationSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local copy of subscriber index, so that a restarted subscriber has something
+ * to serve before zookeeper is fully read.
+ * <p>
+ * File layout, all numbers in big endian:
+ * <pre>
+ * int magic, int format version, long saved time, int app count, and for every app:
+ *   string app name, int instance count, and for every instance:
+ *     string host name, int port, string internal host, long start time,
+ *     long last recover, string state
+ * </pre>
+ * A string is an int byte length ({@code -1} for {@code null}) followed by UTF-8 bytes.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+final class ZookeeperSnapshotFile {
+
+    private static final Logger LOGGER         = LoggerFactory
+                                                   .getLogger(ZookeeperSnapshotFile.class);
+
+    private static final int    MAGIC          = 0x53444153;
+
+    private static final int    FORMAT_VERSION = 1;
+
+    /**
+     * Min bytes of an app entry, i.e. an empty name and no instance
+     */
+    private static final int    MIN_APP_BYTES  = 8;
+
+    /**
+     * Min bytes of an instance entry, i.e. all strings are {@code null}
+     */
+    private static final int    MIN_INST_BYTES = 32;
+
+    private ZookeeperSnapshotFile() {
+    }
+
+    /**
+     * Write a snapshot, the target file is replaced atomically.
+     *
+     * @param file     target file
+     * @param snapshot registry snapshot
+     * @throws IOException error while writing
+     */
+    static void write(Path file, ApplicationSnapshot snapshot) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+
+            List<String> appNames = snapshot.getAllNames();
+            out.writeInt(appNames.size());
+            for (String appName : appNames) {
+                List<Application> group = snapshot.getByName(appName);
+                writeString(out, appName);
+                out.writeInt(group.size());
+                for (Application app : group) {
+                    writeString(out, app.getHostName());
+                    out.writeInt(app.getPort());
+                    writeString(out, app.getInternalHost());
+                    out.writeLong(app.getStartTime());
+                    out.writeLong(app.getLastRecover());
+                    writeString(out, app.getAppState());
+                }
+            }
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Load a snapshot through memory mapped file, no matter how long ago it is saved.
+     *
+     * @param file snapshot file
+     * @return application instances group by name, or {@code null} if file is absent or broken
+     */
+    @Nullable
+    static Map<String, InstanceGroup> read(Path file) {
+        return read(file, 0L);
+    }
+
+    /**
+     * Load a snapshot through memory mapped file.
+     *
+     * @param file     snapshot file
+     * @param maxAgeMs snapshot saved longer ago is ignored, no limit if not positive
+     * @return application instances group by name, or {@code null} if file is absent, broken
+     *         or expired
+     */
+    @Nullable
+    static Map<String, InstanceGroup> read(Path file, long maxAgeMs) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                LOGGER.warn("Ignore unknown snapshot file {}", file);
+                return null;
+            }
+            long savedAt = buffer.getLong();
+            if (maxAgeMs > 0 && System.currentTimeMillis() - savedAt > maxAgeMs) {
+                LOGGER.warn("Ignore expired snapshot file {} saved at {}", file, savedAt);
+                return null;
+            }
+
+            // Counts are checked against the bytes left before anything is allocated
+            int appCount = checkCount(buffer, buffer.getInt(), MIN_APP_BYTES);
+            Map<String, InstanceGroup> result = new HashMap<>(appCount * 2);
+            for (int i = 0; i < appCount; i++) {
+                String appName = readString(buffer);
+                int instanceCount = checkCount(buffer, buffer.getInt(), MIN_INST_BYTES);
+                InstanceGroup group = new InstanceGroup();
+                for (int j = 0; j < instanceCount; j++) {
+                    Application app = new Application();
+                    app.setAppName(appName);
+                    app.setHostName(readString(buffer));
+                    app.setPort(buffer.getInt());
+                    app.setInternalHost(readString(buffer));
+                    app.setStartTime(buffer.getLong());
+                    app.setLastRecover(buffer.getLong());
+                    app.setAppState(readString(buffer));
+                    group.add(app);
+                }
+                result.put(appName, group);
+            }
+            LOGGER.info("Load snapshot file {} saved at {}, app count is {}", file, savedAt,
+                appCount);
+            return result;
+
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            LOGGER.warn("Ignore broken snapshot file {}", file, e);
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value)
+                                                                                throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int checkCount(ByteBuffer buffer, int count, int minBytes) {
+        if (count < 0 || count > buffer.remaining() / minBytes) {
+            throw new IllegalArgumentException("Illegal entry count " + count);
+        }
+        return count;
+    }
+
+    @Nullable
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.registry.AppChangeEvent;
+import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperClient;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.curator.framework.state.ConnectionState;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publish {@link ZookeeperAppSubscriber} and its {@link ZookeeperClient} as micrometer meters.
+ * <p>
+ * Counters and gauges only read existing statistics while scraped. Timers publish fixed
+ * service level buckets instead of percentile histograms, so that they stay cheap.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ZookeeperSubscriberMetrics implements MeterBinder {
+
+    private static final String          PREFIX = "sofa.dashboard.subscriber";
+
+    private final ZookeeperAppSubscriber subscriber;
+
+    public ZookeeperSubscriberMetrics(ZookeeperAppSubscriber subscriber) {
+        this.subscriber = subscriber;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindSubscriber(registry);
+        bindClient(registry, PREFIX, subscriber.getClient());
+
+        Timer rebuildSuccess = rebuildTimer(registry, "success");
+        Timer rebuildFailure = rebuildTimer(registry, "failure");
+        Timer applyLatency = Timer.builder(PREFIX + ".apply.latency")
+            .description("Time from a registry event received to local cache updated")
+            .serviceLevelObjectives(Duration.ofMillis(10), Duration.ofMillis(50),
+                Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofSeconds(1))
+            .register(registry);
+        subscriber.setMetricsRecorder(new SubscriberMetricsRecorder() {
+            @Override
+            public void recordRebuild(long costNanos, boolean success) {
+                (success ? rebuildSuccess : rebuildFailure).record(costNanos,
+                    TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordApply(long latencyNanos, int appCount) {
+                applyLatency.record(latencyNanos, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private void bindSubscriber(MeterRegistry registry) {
+        Gauge.builder(PREFIX + ".apps", subscriber, it -> it.getSnapshot().getAllNames().size())
+            .description("Application count in local cache").register(registry);
+        Gauge.builder(PREFIX + ".instances", subscriber,
+            it -> it.getSnapshot().getInstanceCount())
+            .description("Instance count in local cache").register(registry);
+        Gauge.builder(PREFIX + ".stale", subscriber, it -> it.isStale() ? 1 : 0)
+            .description("Whether local cache is not confirmed by registry").register(registry);
+
+        FunctionCounter
+            .builder(PREFIX + ".events", subscriber, ZookeeperAppSubscriber::getReceivedEventCount)
+            .description("App change events received from registry").register(registry);
+        FunctionCounter
+            .builder(PREFIX + ".batches", subscriber, ZookeeperAppSubscriber::getAppliedBatchCount)
+            .description("Change batches applied to local cache").register(registry);
+        for (AppChangeEvent.Type type : AppChangeEvent.Type.values()) {
+            FunctionCounter.builder(PREFIX + ".changes", subscriber, it -> it.getChangeCount(type))
+                .tag("type", type.name().toLowerCase(Locale.ROOT))
+                .description("Instance changes applied to local cache").register(registry);
+        }
+    }
+
+    /**
+     * Bind connection meters of a registry client
+     *
+     * @param registry meter registry
+     * @param prefix   meter name prefix
+     * @param client   registry client
+     */
+    static void bindClient(MeterRegistry registry, String prefix, ZookeeperClient client) {
+        Gauge.builder(prefix + ".connected", client, it -> {
+            ConnectionState state = it.getConnectionState();
+            return state != null && state.isConnected() ? 1 : 0;
+        }).description("Whether registry client is connected").register(registry);
+
+        for (ConnectionState state : ConnectionState.values()) {
+            FunctionCounter
+                .builder(prefix + ".connection.states", client,
+                    it -> it.getConnectionStateCount(state))
+                .tag("state", state.name().toLowerCase(Locale.ROOT))
+                .description("Registry connection state changes, e.g. reconnected or lost")
+                .register(registry);
+        }
+    }
+
+    private Timer rebuildTimer(MeterRegistry registry, String result) {
+        return Timer.builder(PREFIX + ".rebuild").tag("result", result)
+            .description("Time cost to read whole registry into local cache")
+            .serviceLevelObjectives(Duration.ofMillis(100), Duration.ofSeconds(1),
+                Duration.ofSeconds(5), Duration.ofSeconds(30)).register(registry);
+    }
+}
@@ -126,6 +126,28 @@ public final class JsonUtils {
         }
     }
 
+    /**
+     * 将一个对象直接转化为另一类型(如 Map), 不经过中间JSON字符串
+     *
+     * @param obj        待转化对象
+     * @param targetType 目标类型
+     * @param <T>        目标泛型
+     * @return 转化后对象
+     * @throws JsonSerializeError 转化异常
+     */
+    public static <T> T convertValue(@Nullable Object obj, Class<T> targetType)
+                                                                               throws JsonSerializeError {
+        if (obj == null) {
+            return null;
+        }
+
+        try {
+            return MAPPER.convertValue(obj, targetType);
+        } catch (IllegalArgumentException e) {
+            throw new JsonSerializeError(e);
+        }
+    }
+
     /**
      * 将一个JSON字符串转化为列表对象
      *
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.utils;
+
+import org.springframework.lang.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A bounded pool of canonical strings, like {@link String#intern()} but private to its owner.
+ * <p>
+ * Strings are weakly referenced, so that a pooled string is dropped once nobody else uses it.
+ * New strings are returned as is without pooling while the pool is full. It is meant for
+ * values of low cardinality repeated in many objects, e.g. application names and states.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public final class StringPool {
+
+    private final int                                maxSize;
+
+    /**
+     * Canonical strings keyed by themselves, values are weak too or keys are never collected
+     */
+    private final Map<String, WeakReference<String>> pool = new WeakHashMap<>();
+
+    /**
+     * @param maxSize max pooled string count
+     */
+    public StringPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get canonical instance of a string
+     *
+     * @param value string value
+     * @return pooled string equal to value, or value itself if not pooled
+     */
+    @Nullable
+    public synchronized String intern(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        WeakReference<String> ref = pool.get(value);
+        String pooled = ref == null ? null : ref.get();
+        if (pooled != null) {
+            return pooled;
+        }
+        if (pool.size() < maxSize) { // Size also expunges collected entries
+            pool.put(value, new WeakReference<>(value));
+        }
+        return value;
+    }
+
+    /**
+     * Pooled string count, including strings not yet expunged after collected
+     *
+     * @return string count
+     */
+    public synchronized int size() {
+        return pool.size();
+    }
+}
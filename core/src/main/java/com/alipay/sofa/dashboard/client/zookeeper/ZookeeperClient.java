@@ -19,13 +19,16 @@ package com.alipay.sofa.dashboard.client.zookeeper;
 import org.apache.curator.RetryPolicy;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.state.ConnectionState;
 import org.apache.curator.retry.ExponentialBackoffRetry;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Zookeeper client
@@ -34,27 +37,75 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class ZookeeperClient implements Closeable {
 
-    private final AtomicBoolean                 start    = new AtomicBoolean(false);
+    private final AtomicBoolean                   start       = new AtomicBoolean(false);
 
-    private final AtomicBoolean                 shutdown = new AtomicBoolean(false);
+    private final AtomicBoolean                   shutdown    = new AtomicBoolean(false);
 
-    private final CuratorFramework              curatorClient;
+    private final CuratorFramework                curatorClient;
 
-    private final Map<String, LifecycleHandler> handlers = new ConcurrentSkipListMap<>();
+    private final ZookeeperConfig                 config;
+
+    private final Map<String, LifecycleHandler>   handlers    = new ConcurrentSkipListMap<>();
+
+    /**
+     * Count of connection state changes, never modified after constructed
+     */
+    private final Map<ConnectionState, LongAdder> stateCounts = new EnumMap<>(
+                                                                  ConnectionState.class);
+
+    private volatile ConnectionState              state       = null;
 
     public ZookeeperClient(ZookeeperConfig config) {
+        this.config = config;
         RetryPolicy retryPolicy = new ExponentialBackoffRetry(config.getBaseSleepTimeMs(),
             config.getMaxRetries());
         // to build curatorClient
         curatorClient = CuratorFrameworkFactory.builder().connectString(config.getAddress())
             .sessionTimeoutMs(config.getSessionTimeoutMs())
             .connectionTimeoutMs(config.getConnectionTimeoutMs()).retryPolicy(retryPolicy).build();
+
+        for (ConnectionState item : ConnectionState.values()) {
+            stateCounts.put(item, new LongAdder());
+        }
+        curatorClient.getConnectionStateListenable().addListener((cli, newState) -> {
+            state = newState;
+            stateCounts.get(newState).increment();
+        });
     }
 
     public boolean isRunning() {
         return start.get() && !shutdown.get();
     }
 
+    /**
+     * Latest connection state
+     *
+     * @return connection state, {@code null} if never connected
+     */
+    public ConnectionState getConnectionState() {
+        return state;
+    }
+
+    /**
+     * How many times the connection turns into given state, e.g.
+     * {@link ConnectionState#RECONNECTED} or {@link ConnectionState#LOST}
+     *
+     * @param connectionState connection state
+     * @return count
+     */
+    public long getConnectionStateCount(ConnectionState connectionState) {
+        return stateCounts.get(connectionState).sum();
+    }
+
+    /**
+     * Get client configuration
+     *
+     * @return config instance
+     */
+    public ZookeeperConfig getConfig() {
+        return config;
+    }
+
     /**
      * Get Curator client
      *
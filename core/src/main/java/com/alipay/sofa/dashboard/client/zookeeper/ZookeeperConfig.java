@@ -26,22 +26,78 @@ public class ZookeeperConfig extends RegistryConfig {
     /**
      * Registry 客户端错误重试间隔(ms).
      */
-    private int baseSleepTimeMs     = 1000;
+    private int         baseSleepTimeMs         = 1000;
 
     /**
      * Registry 客户端最大重试次数.
      */
-    private int maxRetries          = 3;
+    private int         maxRetries              = 3;
 
     /**
      * Registry 客户端会话超时时间(ms).
      */
-    private int sessionTimeoutMs    = 6000;
+    private int         sessionTimeoutMs        = 6000;
 
     /**
      * Registry 客户端超时时间(ms).
      */
-    private int connectionTimeoutMs = 6000;
+    private int         connectionTimeoutMs     = 6000;
+
+    /**
+     * 订阅端重建本地缓存的方式.
+     */
+    private RebuildMode rebuildMode             = RebuildMode.PATH_ONLY;
+
+    /**
+     * 订阅端流水线重建缓存时最大并发请求数.
+     */
+    private int         rebuildMaxInFlight      = 512;
+
+    /**
+     * 订阅端重建缓存超时时间(ms).
+     */
+    private int         rebuildTimeoutMs        = 60000;
+
+    /**
+     * 订阅端合并变更事件的时间窗口(ms), 不大于 0 时逐个处理.
+     */
+    private int         coalesceWindowMs        = 100;
+
+    /**
+     * 订阅端处理变更事件的线程数, 同一应用的事件总在同一线程上按序处理, 不大于 0 时使用 CPU 核数.
+     */
+    private int         eventThreads            = 0;
+
+    /**
+     * 订阅端本地快照文件路径, 为空时不启用本地快照.
+     */
+    private String      snapshotFile;
+
+    /**
+     * 订阅端本地快照文件写入周期(ms).
+     */
+    private int         snapshotPeriodMs        = 60000;
+
+    /**
+     * 订阅端本地快照文件最大有效期(ms), 更早写入的快照文件不再加载, 不大于 0 时不限制.
+     */
+    private int         snapshotMaxAgeMs        = 3600000;
+
+    /**
+     * 发布端是否把应用状态写入会话节点数据, 状态变化时原地更新而不重建节点.
+     * 开启后会话节点名不再包含状态, 旧版本订阅端在 PATH_ONLY 模式下读不到应用状态.
+     */
+    private boolean     mutableState            = false;
+
+    /**
+     * 发布端重连后恢复会话节点前的最大随机延迟(ms), 不大于 0 时立即恢复.
+     */
+    private int         recoverJitterMs         = 3000;
+
+    /**
+     * 发布端每秒最多恢复的会话节点数, 共用同一个恢复调度器的发布端共享该限制, 不大于 0 时不限速.
+     */
+    private int         recoverPermitsPerSecond = 10;
 
     public int getBaseSleepTimeMs() {
         return baseSleepTimeMs;
@@ -74,4 +130,114 @@ public class ZookeeperConfig extends RegistryConfig {
     public void setConnectionTimeoutMs(int connectionTimeoutMs) {
         this.connectionTimeoutMs = connectionTimeoutMs;
     }
+
+    public RebuildMode getRebuildMode() {
+        return rebuildMode;
+    }
+
+    public void setRebuildMode(RebuildMode rebuildMode) {
+        this.rebuildMode = rebuildMode;
+    }
+
+    public int getRebuildMaxInFlight() {
+        return rebuildMaxInFlight;
+    }
+
+    public void setRebuildMaxInFlight(int rebuildMaxInFlight) {
+        this.rebuildMaxInFlight = rebuildMaxInFlight;
+    }
+
+    public int getRebuildTimeoutMs() {
+        return rebuildTimeoutMs;
+    }
+
+    public void setRebuildTimeoutMs(int rebuildTimeoutMs) {
+        this.rebuildTimeoutMs = rebuildTimeoutMs;
+    }
+
+    public int getCoalesceWindowMs() {
+        return coalesceWindowMs;
+    }
+
+    public void setCoalesceWindowMs(int coalesceWindowMs) {
+        this.coalesceWindowMs = coalesceWindowMs;
+    }
+
+    public int getEventThreads() {
+        return eventThreads;
+    }
+
+    public void setEventThreads(int eventThreads) {
+        this.eventThreads = eventThreads;
+    }
+
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public void setSnapshotFile(String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public int getSnapshotPeriodMs() {
+        return snapshotPeriodMs;
+    }
+
+    public void setSnapshotPeriodMs(int snapshotPeriodMs) {
+        this.snapshotPeriodMs = snapshotPeriodMs;
+    }
+
+    public int getSnapshotMaxAgeMs() {
+        return snapshotMaxAgeMs;
+    }
+
+    public void setSnapshotMaxAgeMs(int snapshotMaxAgeMs) {
+        this.snapshotMaxAgeMs = snapshotMaxAgeMs;
+    }
+
+    public boolean isMutableState() {
+        return mutableState;
+    }
+
+    public void setMutableState(boolean mutableState) {
+        this.mutableState = mutableState;
+    }
+
+    public int getRecoverJitterMs() {
+        return recoverJitterMs;
+    }
+
+    public void setRecoverJitterMs(int recoverJitterMs) {
+        this.recoverJitterMs = recoverJitterMs;
+    }
+
+    public int getRecoverPermitsPerSecond() {
+        return recoverPermitsPerSecond;
+    }
+
+    public void setRecoverPermitsPerSecond(int recoverPermitsPerSecond) {
+        this.recoverPermitsPerSecond = recoverPermitsPerSecond;
+    }
+
+    /**
+     * How subscriber fetches the whole registry while starting or reconnected
+     */
+    public enum RebuildMode {
+
+        /**
+         * Read app nodes and instance nodes one after another
+         */
+        SYNC,
+
+        /**
+         * Pipeline all reads with async api, bounded by {@link #rebuildMaxInFlight}
+         */
+        PIPELINED,
+
+        /**
+         * Same as {@link #PIPELINED}, but build instances from session node names only,
+         * without reading node data
+         */
+        PATH_ONLY
+    }
 }
\ No newline at end of file
@@ -27,10 +27,13 @@ import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.env.EnvironmentEndpoint;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.Map;
+
 /**
  * @author chen.pengzhi (chpengzh@foxmail.com)
  */
@@ -44,6 +47,9 @@ public class EnvironmentDimensionTest {
     @Autowired
     private ActuatorEnvironmentDimension dimension;
 
+    @Autowired
+    private EnvironmentEndpoint          endpoint;
+
     @Test
     public void basicInvokeTest() {
         Assert.assertEquals(dimension.getName(), RecordName.ENVIRONMENT);
@@ -54,4 +60,13 @@ public class EnvironmentDimensionTest {
         LOGGER.info("Fetch environment => {}", JsonUtils.toJsonString(descriptor));
     }
 
+    @Test
+    public void sameAsJsonCopy() {
+        String expect = JsonUtils.toJsonString(JsonUtils.parseObject(
+            JsonUtils.toJsonString(endpoint.environment(null)), EnvironmentDescriptor.class));
+        String actual = JsonUtils.toJsonString(dimension.currentValue());
+        Assert.assertEquals(JsonUtils.parseObject(expect, Map.class),
+            JsonUtils.parseObject(actual, Map.class));
+    }
+
 }
@@ -27,9 +27,12 @@ import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.Map;
+
 /**
  * @author chen.pengzhi (chpengzh@foxmail.com)
  */
@@ -42,6 +45,9 @@ public class HealthDimensionTest {
     @Autowired
     private ActuatorHealthDimension dimension;
 
+    @Autowired
+    private HealthEndpoint          endpoint;
+
     @Test
     public void basicInvokeTest() {
         Assert.assertEquals(dimension.getName(), RecordName.HEALTH);
@@ -51,4 +57,13 @@ public class HealthDimensionTest {
         Assert.assertNotNull(dimension.currentValue());
         LOGGER.info("Fetch environment => {}", JsonUtils.toJsonString(descriptor));
     }
+
+    @Test
+    public void sameAsJsonCopy() {
+        String expect = JsonUtils.toJsonString(JsonUtils.parseObject(
+            JsonUtils.toJsonString(endpoint.health()), HealthDescriptor.class));
+        String actual = JsonUtils.toJsonString(dimension.currentValue());
+        Assert.assertEquals(JsonUtils.parseObject(expect, Map.class),
+            JsonUtils.parseObject(actual, Map.class));
+    }
 }
@@ -28,6 +28,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.test.context.junit4.SpringRunner;
 
 /**
@@ -42,6 +44,9 @@ public class MappingsDimensionTest {
     @Autowired
     private ActuatorMappingsDimension dimension;
 
+    @Autowired
+    private ApplicationContext        context;
+
     @Test
     public void basicInvokeTest() {
         Assert.assertEquals(dimension.getName(), RecordName.MAPPINGS);
@@ -52,4 +57,23 @@ public class MappingsDimensionTest {
         LOGGER.info("Fetch mappings => {}", JsonUtils.toJsonString(descriptor));
     }
 
+    @Test
+    public void cachedUntilRefreshed() {
+        MappingsDescriptor descriptor = dimension.currentValue();
+        Assert.assertSame(descriptor, dimension.currentValue());
+        Assert.assertFalse(descriptor.getMappings().isEmpty());
+        try {
+            descriptor.getMappings().clear();
+            Assert.fail("Cached descriptor should not be modified");
+        } catch (UnsupportedOperationException expected) {
+            // Shared by all samples
+        }
+
+        dimension.onApplicationEvent(new ContextRefreshedEvent(context));
+        MappingsDescriptor refreshed = dimension.currentValue();
+        Assert.assertNotSame(descriptor, refreshed);
+        Assert.assertEquals(JsonUtils.toJsonString(descriptor),
+            JsonUtils.toJsonString(refreshed));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.dimension.actuator;
+
+import com.alipay.sofa.dashboard.client.model.health.HealthDescriptor;
+import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.boot.actuate.health.Health;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ActuatorHealthDimensionTest {
+
+    @Test
+    public void detailsAsParsedFromJson() {
+        Health health = Health.down().withDetail("disk", new DiskDetail(1024L, 16L))
+            .withDetail("nested", Collections.singletonMap("ping", "pong"))
+            .withDetail("count", 3).build();
+
+        HealthDescriptor descriptor = ActuatorHealthDimension.toDescriptor(health);
+        Assert.assertEquals("DOWN", descriptor.getStatus());
+        Assert.assertEquals(3, descriptor.getDetails().get("count"));
+        Assert.assertTrue(descriptor.getDetails().get("disk") instanceof Map);
+
+        // Stored json is the same as the previous json round trip
+        String expect = JsonUtils.toJsonString(JsonUtils.parseObject(
+            JsonUtils.toJsonString(health), HealthDescriptor.class));
+        Assert.assertEquals(JsonUtils.parseObject(expect, Map.class),
+            JsonUtils.parseObject(JsonUtils.toJsonString(descriptor), Map.class));
+    }
+
+    public static class DiskDetail {
+
+        private final long total;
+
+        private final long free;
+
+        DiskDetail(long total, long free) {
+            this.total = total;
+            this.free = free;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getFree() {
+            return free;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.dimension.actuator;
+
+import com.alipay.sofa.dashboard.client.model.env.EnvironmentDescriptor;
+import com.alipay.sofa.dashboard.client.model.health.HealthDescriptor;
+import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.actuate.env.EnvironmentEndpoint;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare direct model conversion of environment and health dimensions with the previous
+ * json round trip, on an environment with thousands of properties. Each {@code sample*}
+ * benchmark covers a whole sample, including the json string flushed to store.
+ * Not a unit test, run {@link #main(String[])} from test classpath, with {@code -prof gc}
+ * to see allocation per sample:
+ * <pre>
+ * mvn -pl core test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.alipay.sofa.dashboard.client.dimension.actuator.DimensionConvertBenchmark \
+ *     -Dexec.args="-prof gc"
+ * </pre>
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DimensionConvertBenchmark {
+
+    @Param({ "1000", "5000" })
+    private int                                       propertyCount;
+
+    private EnvironmentEndpoint.EnvironmentDescriptor environment;
+
+    private Health                                    health;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> properties = new HashMap<>();
+        for (int i = 0; i < propertyCount; i++) {
+            properties.put("sofa.dashboard.sample.property-" + i, i % 4 == 0 ? i : "value-" + i);
+        }
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        environment = new EnvironmentEndpoint(env).environment(null);
+
+        Map<String, Object> disk = new HashMap<>();
+        disk.put("total", 499963174912L);
+        disk.put("free", 91300818944L);
+        disk.put("threshold", 10485760L);
+        health = Health.up().withDetail("diskSpace", disk).withDetail("ping", "pong")
+            .withDetail("database", "H2").withDetail("validationQuery", "isValid()").build();
+    }
+
+    @Benchmark
+    public EnvironmentDescriptor environmentJsonCopy() {
+        return JsonUtils.parseObject(JsonUtils.toJsonString(environment),
+            EnvironmentDescriptor.class);
+    }
+
+    @Benchmark
+    public EnvironmentDescriptor environmentDirect() {
+        return ActuatorEnvironmentDimension.toDescriptor(environment);
+    }
+
+    @Benchmark
+    public String sampleEnvironmentJsonCopy() {
+        return JsonUtils.toJsonString(environmentJsonCopy());
+    }
+
+    @Benchmark
+    public String sampleEnvironmentDirect() {
+        return JsonUtils.toJsonString(environmentDirect());
+    }
+
+    @Benchmark
+    public HealthDescriptor healthJsonCopy() {
+        return JsonUtils.parseObject(JsonUtils.toJsonString(health), HealthDescriptor.class);
+    }
+
+    @Benchmark
+    public HealthDescriptor healthDirect() {
+        return ActuatorHealthDimension.toDescriptor(health);
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+            .include(DimensionConvertBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.io;
+
+import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class RecordMarkersTest {
+
+    @Test
+    public void expandInsideRecords() {
+        List<StoreRecord> records = Arrays.asList(newRecord(1000L, "a"),
+            RecordMarkers.marker("test", 2000L, 1000L), newRecord(3000L, "b"),
+            RecordMarkers.marker("test", 4000L, 3000L));
+
+        List<StoreRecord> result = RecordMarkers.expand(records, since -> {
+            throw new AssertionError("Should not load " + since);
+        });
+        Assert.assertEquals(Arrays.asList(newRecord(1000L, "a"), newRecord(2000L, "a"),
+            newRecord(3000L, "b"), newRecord(4000L, "b")), result);
+    }
+
+    @Test
+    public void loadBaseOnce() {
+        List<StoreRecord> records = Arrays.asList(RecordMarkers.marker("test", 2000L, 1000L),
+            RecordMarkers.marker("test", 3000L, 1000L),
+            RecordMarkers.marker("test", 4000L, 500L));
+
+        AtomicInteger loads = new AtomicInteger();
+        List<StoreRecord> result = RecordMarkers.expand(records, since -> {
+            loads.incrementAndGet();
+            return since == 1000L ? newRecord(1000L, "a") : null;
+        });
+        // Marker of an expired record is dropped
+        Assert.assertEquals(Arrays.asList(newRecord(2000L, "a"), newRecord(3000L, "a")), result);
+        Assert.assertEquals(2, loads.get());
+    }
+
+    private StoreRecord newRecord(long timestamp, String value) {
+        return StoreRecord.newBuilder().schemeName("test").timestamp(timestamp).value(value)
+            .build();
+    }
+}
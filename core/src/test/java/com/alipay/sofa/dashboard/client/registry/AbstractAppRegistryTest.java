@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Conformance and throughput suite of registry implementations. Each implementation runs it
+ * by providing its publishers and subscribers.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public abstract class AbstractAppRegistryTest {
+
+    private static final Logger       LOGGER      = LoggerFactory
+                                                      .getLogger(AbstractAppRegistryTest.class);
+
+    protected static final long       TIMEOUT_MS  = 10000L;
+
+    private final List<AppPublisher>  publishers  = new ArrayList<>();
+
+    private final List<AppSubscriber> subscribers = new ArrayList<>();
+
+    /**
+     * Create a publisher of the registry under test
+     *
+     * @param app application instance
+     * @return publisher not started
+     */
+    protected abstract AppPublisher createPublisher(Application app);
+
+    /**
+     * Create a subscriber of the registry under test
+     *
+     * @return subscriber not started
+     */
+    protected abstract AppSubscriber createSubscriber();
+
+    /**
+     * Expire the session of a publisher, as if it has been disconnected for too long
+     *
+     * @param publisher started publisher
+     * @throws Exception unexpected registry error
+     */
+    protected abstract void expireSession(AppPublisher publisher) throws Exception;
+
+    /**
+     * Instance count for throughput test
+     *
+     * @return instance count
+     */
+    protected int getPerformanceScale() {
+        return 1000;
+    }
+
+    @After
+    public void shutdownAll() throws Exception {
+        for (AppPublisher publisher : publishers) {
+            publisher.shutdown();
+        }
+        for (AppSubscriber subscriber : subscribers) {
+            subscriber.shutdown();
+        }
+    }
+
+    @Test
+    public void registerAndQuery() throws Exception {
+        Application app1 = newApp("test_app1", "10.1.1.1");
+        Application app2 = newApp("test_app1", "10.1.1.2");
+        Application app3 = newApp("test_app2", "10.1.1.1");
+        startPublisher(app1).register();
+        startPublisher(app2).register();
+        startPublisher(app3).register();
+
+        // Instances registered before subscriber started are visible at once
+        AppSubscriber subscriber = startSubscriber();
+        Assert.assertTrue(subscriber.whenReady().isDone());
+        Assert.assertEquals(3, subscriber.getAll().size());
+        Assert.assertEquals(2, subscriber.getByName("test_app1").size());
+        Assert.assertEquals(2, subscriber.getInstanceCount("test_app1"));
+        Assert.assertTrue(subscriber.getByName("no_such_app").isEmpty());
+        Assert.assertEquals(Integer.valueOf(1), subscriber.summaryCounts().get("test_app2"));
+        Assert.assertTrue(subscriber.getAllNames().contains("test_app2"));
+        Assert.assertEquals(2, subscriber.getByHost("10.1.1.1").size());
+        Assert.assertEquals(2, subscriber.findNamesByPrefix("test_", 0, 10).getTotal());
+
+        Application found = subscriber.getByName("test_app2").get(0);
+        Assert.assertEquals(app3, found);
+        Assert.assertEquals("UP", found.getAppState());
+    }
+
+    @Test
+    public void publishChanges() throws Exception {
+        AppSubscriber subscriber = startSubscriber();
+        BlockingQueue<AppChangeEvent> events = new LinkedBlockingQueue<>();
+        subscriber.addListener(events::addAll);
+
+        Application app = newApp("test_app", "10.1.1.1");
+        AppPublisher publisher = startPublisher(app);
+        publisher.registerAsync().get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        await(() -> subscriber.getByName("test_app").size() == 1);
+        AppChangeEvent added = events.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        Assert.assertNotNull(added);
+        Assert.assertEquals(AppChangeEvent.Type.ADDED, added.getType());
+
+        publisher.updateStateAsync("DOWN").get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        await(() -> "DOWN".equals(firstState(subscriber, "test_app")));
+        AppChangeEvent changed = events.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        Assert.assertNotNull(changed);
+        Assert.assertEquals(AppChangeEvent.Type.STATE_CHANGED, changed.getType());
+        Assert.assertEquals("DOWN", changed.getCurrent().getAppState());
+
+        publisher.unRegisterAsync().get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        await(() -> subscriber.getByName("test_app").isEmpty());
+        AppChangeEvent removed = events.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        Assert.assertNotNull(removed);
+        Assert.assertEquals(AppChangeEvent.Type.REMOVED, removed.getType());
+        Assert.assertTrue(subscriber.getByHost("10.1.1.1").isEmpty());
+    }
+
+    @Test
+    public void removeOnShutdown() throws Exception {
+        AppSubscriber subscriber = startSubscriber();
+        AppPublisher publisher = startPublisher(newApp("test_app", "10.1.1.1"));
+        publisher.register();
+        await(() -> subscriber.getByName("test_app").size() == 1);
+
+        publisher.shutdown();
+        await(() -> subscriber.getByName("test_app").isEmpty());
+    }
+
+    @Test
+    public void removeOnSessionExpired() throws Exception {
+        AppSubscriber subscriber = startSubscriber();
+        AppPublisher publisher = startPublisher(newApp("test_app", "10.1.1.1"));
+        AppPublisher another = startPublisher(newApp("test_app", "10.1.1.2"));
+        publisher.register();
+        another.register();
+        await(() -> subscriber.getByName("test_app").size() == 2);
+
+        expireSession(publisher);
+        await(() -> subscriber.getByName("test_app").size() == 1);
+        Assert.assertEquals("10.1.1.2", subscriber.getByName("test_app").get(0).getHostName());
+
+        // Registered again with a new session
+        publisher.register();
+        await(() -> subscriber.getByName("test_app").size() == 2);
+    }
+
+    @Test
+    public void throughput() throws Exception {
+        int scale = getPerformanceScale();
+        AppSubscriber subscriber = startSubscriber();
+        AppRegistryPerformanceKit kit = new AppRegistryPerformanceKit(this::createPublisher,
+            subscriber, Math.max(1, scale / 20), scale);
+        AppRegistryPerformanceKit.Report report = kit.run(10000, TIMEOUT_MS * 6);
+        LOGGER.info("{}: {}", getClass().getSimpleName(), report);
+        Assert.assertTrue(report.getRegisterRate() > 0);
+
+        // All publishers are shutdown by the kit
+        await(() -> subscriber.getAll().isEmpty());
+    }
+
+    protected AppPublisher startPublisher(Application app) throws Exception {
+        AppPublisher publisher = createPublisher(app);
+        publishers.add(publisher);
+        publisher.start();
+        return publisher;
+    }
+
+    protected AppSubscriber startSubscriber() {
+        AppSubscriber subscriber = createSubscriber();
+        subscribers.add(subscriber);
+        subscriber.start();
+        return subscriber;
+    }
+
+    protected static Application newApp(String appName, String hostName) {
+        return Application.newBuilder().appName(appName).hostName(hostName)
+            .internalHost(hostName).port(8080).startTime(System.currentTimeMillis())
+            .lastRecover(System.currentTimeMillis()).appState("UP").build();
+    }
+
+    protected static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("Timeout waiting for registry",
+                System.currentTimeMillis() < deadline);
+            Thread.sleep(10L);
+        }
+    }
+
+    private static String firstState(AppSubscriber subscriber, String appName) {
+        List<Application> group = subscriber.getByName(appName);
+        return group.isEmpty() ? null : group.get(0).getAppState();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class AppChangeDispatcherTest {
+
+    private AppChangeDispatcher                dispatcher;
+
+    private BlockingQueue<List<AppChangeEvent>> batches;
+
+    @Before
+    public void setUp() {
+        dispatcher = new AppChangeDispatcher("AppChangeDispatcherTest");
+        batches = new LinkedBlockingQueue<>();
+    }
+
+    @After
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void coalesceWhileDelivering() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        dispatcher.addListener(events -> {
+            batches.add(events);
+            awaitQuietly(blocker);
+        });
+
+        Application app1 = newApp("10.1.1.1", "UP", 1L);
+        Application app2 = newApp("10.1.1.2", "UP", 1L);
+        Application app3 = newApp("10.1.1.3", "UP", 1L);
+        dispatcher.publish(null, app1);
+        Assert.assertEquals(1, poll().size()); // First batch, blocking the dispatcher now
+
+        dispatcher.publish(null, app2); // added and removed before delivery
+        dispatcher.publish(app2, null);
+        dispatcher.publish(app1, newApp("10.1.1.1", "DOWN", 1L));
+        dispatcher.publish(app1, newApp("10.1.1.1", "UP", 2L));
+        dispatcher.publish(null, app3);
+        blocker.countDown();
+
+        List<AppChangeEvent> events = poll();
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals(AppChangeEvent.Type.STATE_CHANGED, events.get(0).getType());
+        Assert.assertEquals(app1, events.get(0).getPrevious());
+        Assert.assertEquals(2L, events.get(0).getCurrent().getLastRecover());
+        Assert.assertEquals(AppChangeEvent.Type.ADDED, events.get(1).getType());
+        Assert.assertEquals(app3, events.get(1).getInstance());
+    }
+
+    @Test
+    public void noListenerNoDelivery() throws Exception {
+        dispatcher.publish(null, newApp("10.1.1.1", "UP", 1L));
+        dispatcher.addListener(batches::add);
+        Assert.assertNull(batches.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    private List<AppChangeEvent> poll() throws InterruptedException {
+        List<AppChangeEvent> events = batches.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(events);
+        return events;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Application newApp(String hostName, String state, long lastRecover) {
+        return Application.newBuilder().appName("test_app").hostName(hostName).port(8080)
+            .startTime(1L).lastRecover(lastRecover).appState(state).build();
+    }
+}
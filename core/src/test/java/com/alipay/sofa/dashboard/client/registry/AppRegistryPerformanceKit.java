@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measure a registry implementation through {@link AppPublisher} and {@link AppSubscriber}
+ * only, so that every implementation is measured the same way.
+ * <p>
+ * Figures are rough and only comparable on the same machine, they are meant to spot
+ * regressions of dashboard code paths rather than to be exact benchmarks.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public final class AppRegistryPerformanceKit {
+
+    private final Function<Application, AppPublisher> publisherFactory;
+
+    private final AppSubscriber                       subscriber;
+
+    private final int                                 appCount;
+
+    private final int                                 instanceCount;
+
+    /**
+     * @param publisherFactory create a publisher for an instance
+     * @param subscriber       started subscriber of the same registry
+     * @param appCount         application count
+     * @param instanceCount    total instance count, spread over all applications
+     */
+    public AppRegistryPerformanceKit(Function<Application, AppPublisher> publisherFactory,
+                                     AppSubscriber subscriber, int appCount, int instanceCount) {
+        this.publisherFactory = publisherFactory;
+        this.subscriber = subscriber;
+        this.appCount = appCount;
+        this.instanceCount = instanceCount;
+    }
+
+    /**
+     * Register all instances, wait until subscriber sees them, query them and shutdown
+     * all publishers.
+     *
+     * @param queryCount query count for latency sampling
+     * @param timeoutMs  max time waiting for subscriber to see all instances
+     * @return measurement result
+     * @throws Exception unexpected registry error
+     */
+    public Report run(int queryCount, long timeoutMs) throws Exception {
+        Report report = new Report();
+        report.instanceCount = instanceCount;
+        long heapBefore = usedHeap();
+
+        List<AppPublisher> publishers = new ArrayList<>(instanceCount);
+        for (int i = 0; i < instanceCount; i++) {
+            AppPublisher publisher = publisherFactory.apply(newInstance(i));
+            publisher.start();
+            publishers.add(publisher);
+        }
+
+        long begin = System.nanoTime();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[instanceCount];
+        for (int i = 0; i < instanceCount; i++) {
+            futures[i] = publishers.get(i).registerAsync();
+        }
+        CompletableFuture.allOf(futures).get(timeoutMs, TimeUnit.MILLISECONDS);
+        report.registerNanos = System.nanoTime() - begin;
+
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (subscriber.getAll().size() < instanceCount) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Only " + subscriber.getAll().size() + " of "
+                                                + instanceCount + " instances are seen");
+            }
+            Thread.sleep(1L);
+        }
+        report.visibleNanos = System.nanoTime() - begin;
+        report.bytesPerInstance = (usedHeap() - heapBefore) / instanceCount;
+
+        long[] samples = new long[queryCount];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < queryCount; i++) {
+            String appName = appName(random.nextInt(appCount));
+            long queryBegin = System.nanoTime();
+            subscriber.getByName(appName).size();
+            subscriber.getByHost(hostName(random.nextInt(instanceCount))).size();
+            samples[i] = System.nanoTime() - queryBegin;
+        }
+        Arrays.sort(samples);
+        report.queryP50Nanos = percentile(samples, 0.50);
+        report.queryP99Nanos = percentile(samples, 0.99);
+
+        for (AppPublisher publisher : publishers) {
+            publisher.shutdown();
+        }
+        return report;
+    }
+
+    public static String appName(int index) {
+        return "perf_app_" + index;
+    }
+
+    private Application newInstance(int index) {
+        return Application.newBuilder().appName(appName(index % appCount))
+            .hostName(hostName(index)).internalHost(hostName(index)).port(8080)
+            .startTime(System.currentTimeMillis()).lastRecover(System.currentTimeMillis())
+            .appState("UP").build();
+    }
+
+    private static String hostName(int index) {
+        return "10." + (index >>> 16 & 0xff) + "." + (index >>> 8 & 0xff) + "." + (index & 0xff);
+    }
+
+    private static long percentile(long[] sorted, double ratio) {
+        return sorted.length == 0 ? 0L : sorted[(int) Math.min(sorted.length - 1,
+            Math.round(sorted.length * ratio))];
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Measurement result
+     */
+    public static final class Report {
+
+        private int  instanceCount;
+
+        private long registerNanos;
+
+        private long visibleNanos;
+
+        private long queryP50Nanos;
+
+        private long queryP99Nanos;
+
+        private long bytesPerInstance;
+
+        /**
+         * Registered instances per second, until all registrations are acknowledged
+         *
+         * @return register rate
+         */
+        public double getRegisterRate() {
+            return instanceCount * 1e9 / Math.max(1L, registerNanos);
+        }
+
+        /**
+         * Time until subscriber sees all instances
+         *
+         * @return time in milliseconds
+         */
+        public long getVisibleMs() {
+            return TimeUnit.NANOSECONDS.toMillis(visibleNanos);
+        }
+
+        public long getQueryP50Nanos() {
+            return queryP50Nanos;
+        }
+
+        public long getQueryP99Nanos() {
+            return queryP99Nanos;
+        }
+
+        /**
+         * Heap growth per registered instance, including publishers, registry and subscriber.
+         * Garbage collection is only requested, so it is an estimate.
+         *
+         * @return bytes per instance
+         */
+        public long getBytesPerInstance() {
+            return bytesPerInstance;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("instances=%d, register=%.0f/s, visible=%dms, "
+                                 + "query p50=%dns p99=%dns, heap=%dB/instance", instanceCount,
+                getRegisterRate(), getVisibleMs(), queryP50Nanos, queryP99Nanos, bytesPerInstance);
+        }
+    }
+}
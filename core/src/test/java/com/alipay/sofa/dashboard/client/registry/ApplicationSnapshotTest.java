@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ApplicationSnapshotTest {
+
+    @Test
+    public void emptySnapshot() {
+        ApplicationSnapshot snapshot = ApplicationSnapshot.EMPTY;
+        Assert.assertTrue(snapshot.getAll().isEmpty());
+        Assert.assertTrue(snapshot.getByName("no_such_app").isEmpty());
+        Assert.assertTrue(snapshot.getByName(null).isEmpty());
+        Assert.assertTrue(snapshot.getAllNames().isEmpty());
+        Assert.assertTrue(snapshot.getCounts().isEmpty());
+    }
+
+    @Test
+    public void buildAndReplaceGroup() {
+        Application app1 = newApp("test_app1", "10.1.1.1");
+        Application app2 = newApp("test_app1", "10.1.1.2");
+        Application app3 = newApp("test_app2", "10.1.1.3");
+
+        Map<String, List<Application>> source = new HashMap<>();
+        source.put("test_app1", Arrays.asList(app1, app2));
+        source.put("test_app2", Collections.singletonList(app3));
+
+        ApplicationSnapshot snapshot = ApplicationSnapshot.of(1L, source);
+        Assert.assertEquals(1L, snapshot.getVersion());
+        Assert.assertEquals(3, snapshot.getAll().size());
+        Assert.assertEquals(3, snapshot.getInstanceCount());
+        Assert.assertEquals(2, snapshot.getAllNames().size());
+        Assert.assertEquals(Integer.valueOf(2), snapshot.getCounts().get("test_app1"));
+        Assert.assertSame(snapshot.getAll(), snapshot.getAll());
+
+        ApplicationSnapshot next = snapshot.withGroup("test_app1",
+            Collections.singletonList(app1));
+        Assert.assertEquals(2L, next.getVersion());
+        Assert.assertEquals(2, next.getAll().size());
+        Assert.assertEquals(Integer.valueOf(1), next.getCounts().get("test_app1"));
+        Assert.assertSame(snapshot.getAllNames(), next.getAllNames());
+        Assert.assertSame(snapshot.getByName("test_app2"), next.getByName("test_app2"));
+
+        // Previous snapshot is never modified
+        Assert.assertEquals(3, snapshot.getAll().size());
+
+        ApplicationSnapshot added = next.withGroup("test_app3",
+            Collections.singletonList(newApp("test_app3", "10.1.1.4")));
+        Assert.assertEquals(3, added.getAllNames().size());
+        Assert.assertEquals(3, added.getInstanceCount());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readonlyResult() {
+        Map<String, List<Application>> source = new HashMap<>();
+        source.put("test_app1", Collections.singletonList(newApp("test_app1", "10.1.1.1")));
+        ApplicationSnapshot.of(1L, source).getByName("test_app1").clear();
+    }
+
+    @Test
+    public void searchNames() {
+        Map<String, List<Application>> source = new HashMap<>();
+        for (String appName : new String[] { "order-service", "order-web", "pay-service",
+                "user-service", "order-admin" }) {
+            source.put(appName, Collections.singletonList(newApp(appName, "10.1.1.1")));
+        }
+        ApplicationSnapshot snapshot = ApplicationSnapshot.of(1L, source);
+        Assert.assertEquals(Arrays.asList("order-admin", "order-service", "order-web",
+            "pay-service", "user-service"), snapshot.getAllNames());
+
+        Page<String> prefix = snapshot.findNamesByPrefix("order-", 1, 10);
+        Assert.assertEquals(3, prefix.getTotal());
+        Assert.assertEquals(Arrays.asList("order-service", "order-web"), prefix.getItems());
+        Assert.assertEquals(0, snapshot.findNamesByPrefix("zzz", 0, 10).getTotal());
+        Assert.assertEquals(5, snapshot.findNamesByPrefix("", 0, 2).getTotal());
+
+        Page<String> contains = snapshot.findNamesContaining("service", 0, 2);
+        Assert.assertEquals(3, contains.getTotal());
+        Assert.assertEquals(Arrays.asList("order-service", "pay-service"), contains.getItems());
+
+        ApplicationSnapshot added = snapshot.withGroup("order-job",
+            Collections.singletonList(newApp("order-job", "10.1.1.2")));
+        Assert.assertEquals(Arrays.asList("order-admin", "order-job", "order-service",
+            "order-web"), added.findNamesByPrefix("order", 0, 10).getItems());
+    }
+
+    @Test
+    public void replaceGroupsInBatch() {
+        Application app1 = newApp("test_app1", "10.1.1.1");
+        ApplicationSnapshot snapshot = ApplicationSnapshot.EMPTY.withGroup("test_app1",
+            Collections.singletonList(app1));
+
+        Map<String, List<Application>> changes = new HashMap<>();
+        changes.put("test_app1", Collections.emptyList());
+        changes.put("test_app3", Collections.singletonList(newApp("test_app3", "10.1.1.3")));
+        changes.put("test_app2", Arrays.asList(newApp("test_app2", "10.1.1.2"),
+            newApp("test_app2", "10.1.1.4")));
+        ApplicationSnapshot next = snapshot.withGroups(changes);
+
+        Assert.assertEquals(snapshot.getVersion() + 1, next.getVersion());
+        Assert.assertEquals(Arrays.asList("test_app1", "test_app2", "test_app3"),
+            next.getAllNames());
+        Assert.assertEquals(3, next.getInstanceCount());
+        Assert.assertEquals(Integer.valueOf(0), next.getCounts().get("test_app1"));
+    }
+
+    @Test
+    public void removeGroup() {
+        Map<String, List<Application>> source = new HashMap<>();
+        source.put("order-service", Collections.singletonList(newApp("order-service",
+            "10.1.1.1")));
+        source.put("order-web", Arrays.asList(newApp("order-web", "10.1.1.1"),
+            newApp("order-web", "10.1.1.2")));
+        source.put("pay-service", Collections.singletonList(newApp("pay-service", "10.1.1.3")));
+        ApplicationSnapshot snapshot = ApplicationSnapshot.of(1L, source);
+
+        ApplicationSnapshot removed = snapshot.withoutGroup("order-web");
+        Assert.assertEquals(2L, removed.getVersion());
+        Assert.assertEquals(Arrays.asList("order-service", "pay-service"),
+            removed.getAllNames());
+        Assert.assertFalse(removed.getCounts().containsKey("order-web"));
+        Assert.assertEquals(2, removed.getInstanceCount());
+        Assert.assertEquals(2, removed.getAll().size());
+        Assert.assertEquals(1, removed.findNamesByPrefix("order", 0, 10).getTotal());
+        Assert.assertEquals(0, removed.findNamesContaining("web", 0, 10).getTotal());
+        Assert.assertSame(removed.getAllNames(), removed.withoutGroup("no_such_app")
+            .getAllNames());
+
+        // Removed and added in the same batch
+        Map<String, List<Application>> changes = new HashMap<>();
+        changes.put("pay-service", null);
+        changes.put("order-job", Collections.singletonList(newApp("order-job", "10.1.1.4")));
+        ApplicationSnapshot next = removed.withGroups(changes);
+        Assert.assertEquals(Arrays.asList("order-job", "order-service"), next.getAllNames());
+        Assert.assertEquals(2, next.getInstanceCount());
+    }
+
+    @Test
+    public void pageInstances() {
+        Application app1 = newApp("test_app1", "10.1.1.3");
+        Application app2 = newApp("test_app1", "10.1.1.1");
+        Application app3 = newApp("test_app1", "10.1.1.2");
+        ApplicationSnapshot snapshot = ApplicationSnapshot.EMPTY.withGroup("test_app1",
+            Arrays.asList(app1, app2, app3));
+
+        Page<Application> page = snapshot.getByName("test_app1", 1, 5);
+        Assert.assertEquals(3, page.getTotal());
+        Assert.assertEquals(Arrays.asList(app3, app1), page.getItems());
+        Assert.assertTrue(snapshot.getByName("test_app1", 3, 5).getItems().isEmpty());
+        Assert.assertEquals(3, snapshot.getInstanceCount("test_app1"));
+        Assert.assertEquals(0, snapshot.getInstanceCount("no_such_app"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalPageRange() {
+        ApplicationSnapshot.EMPTY.findNamesByPrefix("", -1, 10);
+    }
+
+    private Application newApp(String appName, String hostName) {
+        return Application.newBuilder().appName(appName).hostName(hostName).port(8080)
+            .startTime(System.currentTimeMillis()).lastRecover(System.currentTimeMillis())
+            .appState("UP").build();
+    }
+}
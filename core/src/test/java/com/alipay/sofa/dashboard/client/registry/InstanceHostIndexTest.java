@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class InstanceHostIndexTest {
+
+    @Test
+    public void updateIncrementally() {
+        Application app1 = newApp("test_app1", "10.1.1.1", "192.168.1.1", "UP");
+        Application app2 = newApp("test_app2", "10.1.1.1", "192.168.1.1", "UP");
+        Application app3 = newApp("test_app1", "10.1.1.2", null, "UP");
+
+        InstanceHostIndex index = new InstanceHostIndex();
+        index.apply(AppChangeEvent.diff(Collections.emptyList(), Arrays.asList(app1, app3)));
+        index.apply(AppChangeEvent.diff(Collections.emptyList(),
+            Collections.singletonList(app2)));
+        Assert.assertEquals(2, index.getByHost("10.1.1.1").size());
+        Assert.assertEquals(2, index.getByInternalHost("192.168.1.1").size());
+        Assert.assertEquals(1, index.getByHost("10.1.1.2").size());
+        Assert.assertTrue(index.getByInternalHost(null).isEmpty());
+
+        // State changed, indexed record is replaced
+        Application app1Down = newApp("test_app1", "10.1.1.1", "192.168.1.1", "DOWN");
+        index.apply(AppChangeEvent.diff(Arrays.asList(app1, app3),
+            Collections.singletonList(app1Down)));
+        Assert.assertTrue(index.getByHost("10.1.1.2").isEmpty());
+        List<Application> onHost = index.getByHost("10.1.1.1");
+        Assert.assertEquals(2, onHost.size());
+        for (Application app : onHost) {
+            if (app.equals(app1Down)) {
+                Assert.assertEquals("DOWN", app.getAppState());
+            }
+        }
+
+        index.remove(app2);
+        index.remove(app1Down);
+        Assert.assertTrue(index.getByHost("10.1.1.1").isEmpty());
+        Assert.assertTrue(index.getByInternalHost("192.168.1.1").isEmpty());
+    }
+
+    @Test
+    public void rebuildAndScan() {
+        Application app1 = newApp("test_app1", "10.1.1.1", null, "UP");
+        Application app2 = newApp("test_app2", "10.1.1.1", null, "UP");
+        Map<String, List<Application>> groups = new HashMap<>();
+        groups.put("test_app1", Collections.singletonList(app1));
+        groups.put("test_app2", Collections.singletonList(app2));
+
+        InstanceHostIndex index = new InstanceHostIndex();
+        index.put(newApp("test_app3", "10.1.1.3", null, "UP"));
+        index.rebuild(groups);
+        Assert.assertTrue(index.getByHost("10.1.1.3").isEmpty());
+        Assert.assertEquals(2, index.getByHost("10.1.1.1").size());
+        Assert.assertEquals(2,
+            InstanceHostIndex.scan(Arrays.asList(app1, app2), "10.1.1.1", Application::getHostName)
+                .size());
+    }
+
+    private Application newApp(String appName, String hostName, String internalHost,
+                               String state) {
+        return Application.newBuilder().appName(appName).hostName(hostName)
+            .internalHost(internalHost).port(8080).startTime(System.currentTimeMillis())
+            .lastRecover(System.currentTimeMillis()).appState(state).build();
+    }
+}
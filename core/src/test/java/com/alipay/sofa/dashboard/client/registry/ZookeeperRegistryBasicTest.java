@@ -18,6 +18,8 @@ package com.alipay.sofa.dashboard.client.registry;
 
 import com.alipay.sofa.dashboard.client.base.TestBase;
 import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.zookeeper.ZookeeperAppSubscriber;
+import org.apache.curator.framework.CuratorFramework;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -27,6 +29,9 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author chen.pengzhi (chpengzh@foxmail.com)
@@ -64,6 +69,33 @@ public class ZookeeperRegistryBasicTest extends TestBase {
         subscriber.shutdown();
     }
 
+    @Test
+    public void fetchInstancePayload() throws Exception {
+        Application app = Application.newBuilder().appName("test_app1").hostName("127.0.0.1")
+            .port(8080).startTime(System.currentTimeMillis())
+            .lastRecover(System.currentTimeMillis()).appState("UP").build();
+
+        AppPublisher publisher = newPublisher(app);
+        publisher.start();
+        publisher.register();
+
+        ZookeeperAppSubscriber subscriber = newSubscriber();
+        subscriber.start();
+
+        List<Application> query = subscriber.getByName(app.getAppName());
+        Assert.assertEquals(1, query.size());
+        Application payload = subscriber.fetchPayload(query.get(0));
+        Assert.assertNotNull(payload);
+        Assert.assertEquals(app.toString(), payload.toString());
+
+        publisher.unRegister();
+        Assert.assertNull(subscriber.fetchPayload(query.get(0)));
+
+        // -- do recycle --
+        publisher.shutdown();
+        subscriber.shutdown();
+    }
+
     @Test
     public void registerMultiAppsAndQuery() throws Exception {
         Application app1 = Application.newBuilder().appName("test_app1").hostName("127.0.0.1")
@@ -143,4 +175,85 @@ public class ZookeeperRegistryBasicTest extends TestBase {
         }
     }
 
+    @Test
+    public void subscribeInstanceChanges() throws Exception {
+        Application app = Application.newBuilder().appName("test_app_event").hostName("127.0.0.1")
+            .port(8080).startTime(System.currentTimeMillis())
+            .lastRecover(System.currentTimeMillis()).appState("UP").build();
+
+        AppSubscriber subscriber = newSubscriber();
+        BlockingQueue<AppChangeEvent> events = new LinkedBlockingQueue<>();
+        subscriber.addListener(events::addAll);
+        subscriber.start();
+
+        AppPublisher publisher = newPublisher(app);
+        publisher.start();
+        publisher.register();
+        AppChangeEvent added = pollEvent(events, app.getAppName());
+        Assert.assertEquals(AppChangeEvent.Type.ADDED, added.getType());
+        Assert.assertEquals(app, added.getInstance());
+
+        publisher.unRegister();
+        AppChangeEvent removed = pollEvent(events, app.getAppName());
+        Assert.assertEquals(AppChangeEvent.Type.REMOVED, removed.getType());
+        Assert.assertEquals(app, removed.getInstance());
+
+        // -- do recycle --
+        publisher.shutdown();
+        subscriber.shutdown();
+    }
+
+    @Test
+    public void reRegisterWithoutFlapping() throws Exception {
+        Application app = Application.newBuilder().appName("test_app_recover")
+            .hostName("127.0.0.1").port(8080).startTime(System.currentTimeMillis())
+            .lastRecover(System.currentTimeMillis()).appState("UP").build();
+        String appPath = "/apps/instance/" + app.getAppName();
+
+        ZookeeperAppSubscriber subscriber = newSubscriber();
+        BlockingQueue<AppChangeEvent> events = new LinkedBlockingQueue<>();
+        subscriber.addListener(events::addAll);
+        subscriber.start();
+        CuratorFramework curator = subscriber.getClient().getCuratorClient();
+
+        AppPublisher publisher = newPublisher(app);
+        publisher.start();
+        publisher.register();
+        Assert.assertEquals(AppChangeEvent.Type.ADDED, pollEvent(events, app.getAppName())
+            .getType());
+
+        // Old node is replaced in one transaction, instance never disappears
+        Thread.sleep(5);
+        publisher.register();
+        Assert.assertEquals(AppChangeEvent.Type.STATE_CHANGED,
+            pollEvent(events, app.getAppName()).getType());
+        Assert.assertEquals(1, curator.getChildren().forPath(appPath).size());
+        Assert.assertEquals(1, subscriber.getByName(app.getAppName()).size());
+
+        // Previous node has gone, e.g. with an expired session
+        for (String node : curator.getChildren().forPath(appPath)) {
+            curator.delete().forPath(appPath + "/" + node);
+        }
+        Assert.assertEquals(AppChangeEvent.Type.REMOVED, pollEvent(events, app.getAppName())
+            .getType());
+        publisher.register();
+        Assert.assertEquals(AppChangeEvent.Type.ADDED, pollEvent(events, app.getAppName())
+            .getType());
+        Assert.assertEquals(1, curator.getChildren().forPath(appPath).size());
+
+        // -- do recycle --
+        publisher.shutdown();
+        subscriber.shutdown();
+    }
+
+    private AppChangeEvent pollEvent(BlockingQueue<AppChangeEvent> events, String appName)
+                                                                                           throws InterruptedException {
+        while (true) {
+            AppChangeEvent event = events.poll(10, TimeUnit.SECONDS);
+            Assert.assertNotNull(event);
+            if (appName.equals(event.getInstance().getAppName())) {
+                return event;
+            }
+        }
+    }
 }
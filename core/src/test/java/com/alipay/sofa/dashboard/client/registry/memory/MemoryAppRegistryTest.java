@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.memory;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.AbstractAppRegistryTest;
+import com.alipay.sofa.dashboard.client.registry.AppPublisher;
+import com.alipay.sofa.dashboard.client.registry.AppSubscriber;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class MemoryAppRegistryTest extends AbstractAppRegistryTest {
+
+    private MemoryRegistry registry;
+
+    @Before
+    public void setupRegistry() {
+        registry = new MemoryRegistry(200L);
+    }
+
+    @After
+    public void closeRegistry() {
+        registry.close();
+    }
+
+    @Override
+    protected AppPublisher createPublisher(Application app) {
+        return new MemoryAppPublisher(app, registry);
+    }
+
+    @Override
+    protected AppSubscriber createSubscriber() {
+        return new MemoryAppSubscriber(registry);
+    }
+
+    @Override
+    protected void expireSession(AppPublisher publisher) {
+        registry.expire(((MemoryAppPublisher) publisher).getSession());
+    }
+
+    @Override
+    protected int getPerformanceScale() {
+        return 20000;
+    }
+
+    @Test
+    public void expireDisconnectedSession() throws Exception {
+        AppSubscriber subscriber = startSubscriber();
+        MemoryAppPublisher publisher = (MemoryAppPublisher) startPublisher(newApp("test_app",
+            "10.1.1.1"));
+        publisher.register();
+        Assert.assertEquals(1, subscriber.getByName("test_app").size());
+
+        // Reconnected within session timeout
+        publisher.getSession().disconnect();
+        Assert.assertTrue(publisher.getSession().reconnect());
+        Thread.sleep(400L);
+        Assert.assertEquals(1, subscriber.getByName("test_app").size());
+
+        MemoryRegistry.Session session = publisher.getSession();
+        session.disconnect();
+        await(session::isExpired);
+        Assert.assertFalse(session.reconnect());
+        Assert.assertTrue(subscriber.getByName("test_app").isEmpty());
+
+        publisher.register();
+        Assert.assertNotSame(session, publisher.getSession());
+        Assert.assertEquals(1, registry.getByName("test_app").size());
+    }
+
+    @Test
+    public void storeCopyOfInstance() throws Exception {
+        AppSubscriber subscriber = startSubscriber();
+        Application app = newApp("test_app", "10.1.1.1");
+        startPublisher(app).register();
+
+        // Not visible until registered again
+        app.setAppState("DOWN");
+        Assert.assertEquals("UP", subscriber.getByName("test_app").get(0).getAppState());
+    }
+
+    @Test
+    public void dropAppWithLastInstance() throws Exception {
+        AppSubscriber subscriber = startSubscriber();
+        AppPublisher publisher = startPublisher(newApp("test_app", "10.1.1.1"));
+        publisher.register();
+        startPublisher(newApp("another_app", "10.1.1.2")).register();
+        Assert.assertEquals(2, subscriber.getAllNames().size());
+
+        publisher.unRegister();
+        Assert.assertEquals(Collections.singletonList("another_app"), subscriber.getAllNames());
+        Assert.assertFalse(subscriber.summaryCounts().containsKey("test_app"));
+        Assert.assertEquals(0, subscriber.findNamesContaining("test", 0, 10).getTotal());
+    }
+
+    @Test
+    public void startWhileRegistering() throws Exception {
+        int count = 200;
+        MemoryRegistry.Session session = registry.openSession();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            started.countDown();
+            for (int i = 0; i < count; i++) {
+                registry.put(session, newApp("test_app", "10.1.1." + i));
+            }
+        });
+        writer.start();
+        started.await();
+
+        AppSubscriber subscriber = startSubscriber();
+        writer.join();
+
+        // Changes racing with start are neither lost nor applied to a stale state
+        Assert.assertEquals(registry.getByName("test_app").size(),
+            subscriber.getInstanceCount("test_app"));
+        Assert.assertEquals(1, subscriber.getByHost("10.1.1." + (count - 1)).size());
+        session.close();
+    }
+}
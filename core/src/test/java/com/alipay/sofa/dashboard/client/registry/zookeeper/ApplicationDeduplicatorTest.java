@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ApplicationDeduplicatorTest {
+
+    private static final Logger LOGGER         = LoggerFactory
+                                                   .getLogger(ApplicationDeduplicatorTest.class);
+
+    private static final int    INSTANCE_COUNT = 50000;
+
+    private static final int    APP_COUNT      = 500;
+
+    @Test
+    public void shareStrings() {
+        ApplicationDeduplicator deduplicator = new ApplicationDeduplicator();
+        Application app1 = deduplicator.dedup(parse(1));
+        Application app2 = deduplicator.dedup(parse(1 + APP_COUNT));
+        Assert.assertEquals(app1.getAppName(), app2.getAppName());
+        Assert.assertSame(app1.getAppName(), app2.getAppName());
+        Assert.assertSame(app1.getAppState(), app2.getAppState());
+        Assert.assertSame(app1.getHostName(), app1.getInternalHost());
+        Assert.assertNotSame(app1.getHostName(), app2.getHostName());
+    }
+
+    @Test
+    public void reuseUnchangedInstance() {
+        ApplicationDeduplicator deduplicator = new ApplicationDeduplicator();
+        InstanceGroup cachedGroup = new InstanceGroup();
+        cachedGroup.addAll(Arrays.asList(parse(0), parse(APP_COUNT), parse(APP_COUNT * 2)));
+
+        Application same = parse(APP_COUNT);
+        Application cached = cachedGroup.get(same);
+        Assert.assertNotNull(cached);
+        Assert.assertNotSame(cached, same);
+        Assert.assertSame(cached, deduplicator.reuse(cachedGroup, same));
+
+        Application changed = parse(APP_COUNT);
+        changed.setAppState("DOWN");
+        Assert.assertSame(changed, deduplicator.reuse(cachedGroup, changed));
+        Assert.assertSame(same, deduplicator.reuse(null, same));
+
+        InstanceGroup rebuilt = deduplicator.reuseAll(cachedGroup, Arrays.asList(parse(0),
+            changed));
+        Assert.assertEquals(2, rebuilt.size());
+        Assert.assertSame(cachedGroup.get(parse(0)), rebuilt.get(parse(0)));
+        Assert.assertSame(changed, rebuilt.get(changed));
+    }
+
+    @Test
+    public void reportHeapSaved() {
+        long before = usedHeap();
+        List<Application> raw = new ArrayList<>(INSTANCE_COUNT);
+        for (int i = 0; i < INSTANCE_COUNT; i++) {
+            raw.add(parse(i));
+        }
+        long rawBytes = usedHeap() - before;
+
+        before = usedHeap();
+        ApplicationDeduplicator deduplicator = new ApplicationDeduplicator();
+        List<Application> deduplicated = new ArrayList<>(INSTANCE_COUNT);
+        for (int i = 0; i < INSTANCE_COUNT; i++) {
+            deduplicated.add(deduplicator.dedup(parse(i)));
+        }
+        long deduplicatedBytes = usedHeap() - before;
+
+        LOGGER.info("Heap of {} instances: {} bytes parsed, {} bytes deduplicated, {}% saved",
+            INSTANCE_COUNT, rawBytes, deduplicatedBytes, (rawBytes - deduplicatedBytes) * 100
+                                                         / Math.max(1L, rawBytes));
+        Assert.assertEquals(raw, deduplicated);
+        Assert.assertTrue(deduplicatedBytes < rawBytes);
+    }
+
+    private static Application parse(int index) {
+        String node = ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE + "/app_" + (index % APP_COUNT)
+                      + "/10." + (index >>> 16 & 0xff) + "." + (index >>> 8 & 0xff) + "."
+                      + (index & 0xff) + ":8080?internalHost=10." + (index >>> 16 & 0xff) + "."
+                      + (index >>> 8 & 0xff) + "." + (index & 0xff)
+                      + "&startTime=1&lastRecover=2&state=UP";
+        return ZookeeperRegistryUtils.parseSessionNode(node);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
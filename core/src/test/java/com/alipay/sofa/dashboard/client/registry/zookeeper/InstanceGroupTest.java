@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class InstanceGroupTest {
+
+    @Test
+    public void upsertAndRemove() {
+        InstanceGroup group = new InstanceGroup();
+        Application app = newApp("10.1.1.1", "10.1.1.1", "UP");
+        Assert.assertTrue(group.add(app));
+        Assert.assertFalse(group.add(newApp("10.1.1.1", "10.1.1.1", "DOWN")));
+        Assert.assertEquals("UP", group.get(app).getAppState());
+
+        Application down = newApp("10.1.1.1", "10.1.1.1", "DOWN");
+        Assert.assertSame(app, group.put(down));
+        Assert.assertSame(down, group.get(app));
+        Assert.assertEquals(1, group.size());
+
+        Assert.assertTrue(group.remove(newApp("10.1.1.1", "10.1.1.1", "UP")));
+        Assert.assertTrue(group.isEmpty());
+        Assert.assertFalse(group.remove("10.1.1.1"));
+    }
+
+    @Test
+    public void mixedInternalHosts() {
+        // Compared inconsistently by Application#compareTo, distinct in group
+        Application withInternal = newApp("10.1.1.1", "192.168.1.1", "UP");
+        Application withoutInternal = newApp("10.1.1.1", null, "UP");
+        Application another = newApp("10.1.1.2", null, "UP");
+
+        InstanceGroup group = new InstanceGroup();
+        group.add(withInternal);
+        group.add(withoutInternal);
+        group.add(another);
+        Assert.assertEquals(3, group.size());
+        Assert.assertTrue(group.contains(newApp("10.1.1.1", null, "DOWN")));
+
+        group.remove(withoutInternal);
+        Assert.assertEquals(2, group.size());
+        Assert.assertTrue(group.contains(withInternal));
+        Assert.assertTrue(group.contains(another));
+    }
+
+    private Application newApp(String hostName, String internalHost, String state) {
+        return Application.newBuilder().appName("test_app").hostName(hostName)
+            .internalHost(internalHost).port(8080).startTime(1L).lastRecover(2L)
+            .appState(state).build();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Previous session node codec based on {@link String#format} and {@link URI}, kept as the
+ * reference of compatibility tests and benchmarks.
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+final class LegacySessionNodeCodec {
+
+    private static final String INSTANCE_PREFIX = ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE
+                                                  + ZookeeperConstants.SEPARATOR;
+
+    private LegacySessionNodeCodec() {
+    }
+
+    static String toSessionNode(Application instance) {
+        String appId = String.format("%s:%d?internalHost=%s&startTime=%d&lastRecover=%d&state=%s",
+            instance.getHostName(), instance.getPort(), instance.getInternalHost(),
+            instance.getStartTime(), instance.getLastRecover(), instance.getAppState());
+        String appName = instance.getAppName();
+        return String.format("%s/%s/%s", ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE, appName,
+            appId);
+    }
+
+    static Application parseSessionNode(String sessionNode) {
+        try {
+            if (sessionNode == null || !sessionNode.startsWith(INSTANCE_PREFIX)) {
+                return null;
+            }
+            String nameAndIns = sessionNode.substring(INSTANCE_PREFIX.length());
+            if (!nameAndIns.contains(ZookeeperConstants.SEPARATOR)) {
+                return null;
+            }
+            String[] segments = nameAndIns.split(ZookeeperConstants.SEPARATOR);
+            if (segments.length != 2 || !segments[1].contains(ZookeeperConstants.QUERY)
+                || !segments[1].contains(ZookeeperConstants.COLON)) {
+                return null;
+            }
+
+            URI instanceUri = URI.create("dummy://" + segments[1]);
+            Map<String, String> query = splitQuery(instanceUri.getQuery());
+
+            Application application = new Application();
+            application.setAppName(segments[0]);
+            application.setInternalHost(parseNullable(query.get("internalHost")));
+            application.setHostName(instanceUri.getHost());
+            application.setPort(instanceUri.getPort());
+            application.setAppState(parseNullable(query.get("state")));
+            application.setStartTime(Long.parseLong(query.get("startTime")));
+            application.setLastRecover(Long.parseLong(query.get("lastRecover")));
+            return application;
+        } catch (Throwable err) {
+            return null;
+        }
+    }
+
+    private static String parseNullable(String value) {
+        return "null".equals(value) ? null : value;
+    }
+
+    private static Map<String, String> splitQuery(String query) throws UnsupportedEncodingException {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String pair : query.split(ZookeeperConstants.AND)) {
+            int idx = pair.indexOf(ZookeeperConstants.EQUAL);
+            result.put(URLDecoder.decode(pair.substring(0, idx), "UTF-8"),
+                URLDecoder.decode(pair.substring(idx + 1), "UTF-8"));
+        }
+        return result;
+    }
+}
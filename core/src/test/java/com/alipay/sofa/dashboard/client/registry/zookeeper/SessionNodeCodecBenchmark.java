@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare session node codec with the previous {@link String#format} / {@link java.net.URI}
+ * based one. Not a unit test, run {@link #main(String[])} from test classpath. Arguments
+ * are passed to jmh, e.g. {@code -prof gc} to see allocation rate:
+ * <pre>
+ * mvn -pl core test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.alipay.sofa.dashboard.client.registry.zookeeper.SessionNodeCodecBenchmark \
+ *     -Dexec.args="-prof gc"
+ * </pre>
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionNodeCodecBenchmark {
+
+    private Application instance;
+
+    private String      sessionNode;
+
+    @Setup
+    public void setup() {
+        instance = Application.newBuilder().appName("sofa-dashboard-sample")
+            .hostName("10.15.232.17").internalHost("192.168.120.5").port(8080).startTime(1567000000000L)
+            .lastRecover(1567000001000L).appState("UP").build();
+        sessionNode = ZookeeperRegistryUtils.toSessionNode(instance);
+    }
+
+    @Benchmark
+    public String encode() {
+        return ZookeeperRegistryUtils.toSessionNode(instance);
+    }
+
+    @Benchmark
+    public String encodeLegacy() {
+        return LegacySessionNodeCodec.toSessionNode(instance);
+    }
+
+    @Benchmark
+    public Application decode() {
+        return ZookeeperRegistryUtils.parseSessionNode(sessionNode);
+    }
+
+    @Benchmark
+    public Application decodeLegacy() {
+        return LegacySessionNodeCodec.parseSessionNode(sessionNode);
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+            .include(SessionNodeCodecBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
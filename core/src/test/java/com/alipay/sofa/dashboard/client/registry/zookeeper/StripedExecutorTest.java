@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class StripedExecutorTest {
+
+    private StripedExecutor executor;
+
+    @Before
+    public void setupExecutor() {
+        executor = new StripedExecutor("TestStripe", 4);
+    }
+
+    @After
+    public void recycleExecutor() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void keepOrderOfSameKey() throws InterruptedException {
+        int keys = 16;
+        int tasks = 1000;
+        Map<String, List<Integer>> results = new HashMap<>();
+        CountDownLatch done = new CountDownLatch(keys * tasks);
+        for (int k = 0; k < keys; k++) {
+            results.put("app_" + k, Collections.synchronizedList(new ArrayList<>()));
+        }
+        for (int i = 0; i < tasks; i++) {
+            for (int k = 0; k < keys; k++) {
+                String key = "app_" + k;
+                int seq = i;
+                executor.execute(key, () -> {
+                    results.get(key).add(seq);
+                    done.countDown();
+                });
+            }
+        }
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (List<Integer> result : results.values()) {
+            Assert.assertEquals(tasks, result.size());
+            for (int i = 0; i < tasks; i++) {
+                Assert.assertEquals(i, result.get(i).intValue());
+            }
+        }
+    }
+
+    @Test
+    public void blockedKeyNotBlockingOthers() throws InterruptedException {
+        String blockedKey = "app_blocked";
+        String otherKey = null;
+        for (int i = 0; otherKey == null; i++) {
+            // Find a key mapped to another stripe
+            CountDownLatch probe = new CountDownLatch(1);
+            String key = "app_" + i;
+            CountDownLatch hold = new CountDownLatch(1);
+            executor.execute(blockedKey, () -> awaitQuietly(hold));
+            executor.execute(key, probe::countDown);
+            if (probe.await(1, TimeUnit.SECONDS)) {
+                otherKey = key;
+            }
+            hold.countDown();
+        }
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch other = new CountDownLatch(1);
+        executor.execute(blockedKey, () -> awaitQuietly(release));
+        executor.execute(otherKey, other::countDown);
+        Assert.assertTrue(other.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void discardAfterShutdown() {
+        Assert.assertEquals(4, executor.getStripeCount());
+        executor.shutdown();
+        executor.execute("test_app", () -> Assert.fail("Should not run"));
+        Assert.assertTrue(new StripedExecutor("TestStripe", 0).getStripeCount() > 0);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
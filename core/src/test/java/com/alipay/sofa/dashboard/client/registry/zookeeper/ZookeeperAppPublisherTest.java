@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.base.TestBase;
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.AppChangeEvent;
+import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.curator.framework.CuratorFramework;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ZookeeperAppPublisherTest extends TestBase {
+
+    private static final String APP_PATH = ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE
+                                           + "/test_app";
+
+    @Test
+    public void registerAsync() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ZookeeperAppPublisher publisher = newPublisher(newApp());
+        new ZookeeperPublisherMetrics(publisher).bindTo(registry);
+        publisher.start();
+        CuratorFramework curator = publisher.getClient().getCuratorClient();
+
+        publisher.registerAsync().get(10, TimeUnit.SECONDS);
+        Assert.assertTrue(publisher.isRegistered());
+        Assert.assertEquals(1, curator.getChildren().forPath(APP_PATH).size());
+        Assert.assertEquals(1.0, registry.get("sofa.dashboard.publisher.registered").gauge()
+            .value(), 0.0);
+        Assert.assertEquals(1L, registry.get("sofa.dashboard.publisher.register")
+            .tag("result", "success").timer().count());
+
+        publisher.unRegisterAsync().get(10, TimeUnit.SECONDS);
+        Assert.assertFalse(publisher.isRegistered());
+        Assert.assertTrue(curator.getChildren().forPath(APP_PATH).isEmpty());
+
+        // Nothing left to remove is fine
+        publisher.unRegisterAsync().get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2L, registry.get("sofa.dashboard.publisher.unregister")
+            .tag("result", "success").timer().count());
+
+        publisher.shutdown();
+    }
+
+    @Test
+    public void registerOnceRegistryComesUp() throws Exception {
+        testServer.stop();
+        ZookeeperAppPublisher publisher = newPublisher(newApp());
+        ZookeeperConfig config = publisher.getClient().getConfig();
+        config.setMaxRetries(0);
+        config.setConnectionTimeoutMs(200);
+        config.setRecoverJitterMs(0);
+        publisher.start();
+
+        // Registry is unreachable at boot, so registration fails
+        try {
+            publisher.registerAsync().get(30, TimeUnit.SECONDS);
+            Assert.fail("Registered without registry");
+        } catch (ExecutionException expected) {
+            Assert.assertFalse(publisher.isRegistered());
+        }
+
+        // First connection recovers the expected registration
+        testServer.restart();
+        long deadline = System.currentTimeMillis() + 30000;
+        while (!publisher.isRegistered() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(publisher.isRegistered());
+        CuratorFramework curator = publisher.getClient().getCuratorClient();
+        Assert.assertEquals(1, curator.getChildren().forPath(APP_PATH).size());
+
+        publisher.shutdown();
+    }
+
+    @Test
+    public void runInCallingOrder() throws Exception {
+        ZookeeperAppPublisher publisher = newPublisher(newApp());
+        publisher.start();
+        CuratorFramework curator = publisher.getClient().getCuratorClient();
+
+        CompletableFuture<Void> first = publisher.registerAsync();
+        CompletableFuture<Void> second = publisher.registerAsync();
+        CompletableFuture<Void> last = publisher.unRegisterAsync();
+        last.get(10, TimeUnit.SECONDS);
+        Assert.assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        Assert.assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        Assert.assertFalse(publisher.isRegistered());
+        Assert.assertTrue(curator.getChildren().forPath(APP_PATH).isEmpty());
+
+        // Blocking variant shares the same sequence
+        publisher.register();
+        Assert.assertEquals(1, curator.getChildren().forPath(APP_PATH).size());
+
+        publisher.shutdown();
+    }
+
+    @Test
+    public void updateStateInPlace() throws Exception {
+        ZookeeperAppSubscriber subscriber = newSubscriber();
+        BlockingQueue<AppChangeEvent> events = new LinkedBlockingQueue<>();
+        subscriber.addListener(events::addAll);
+        subscriber.start();
+
+        ZookeeperAppPublisher publisher = newPublisher(newApp());
+        publisher.getClient().getConfig().setMutableState(true);
+        publisher.start();
+        CuratorFramework curator = publisher.getClient().getCuratorClient();
+
+        publisher.registerAsync().get(10, TimeUnit.SECONDS);
+        List<String> nodes = curator.getChildren().forPath(APP_PATH);
+        Assert.assertEquals(1, nodes.size());
+        Assert.assertTrue(ZookeeperRegistryUtils.isMutableSessionNode(nodes.get(0)));
+        AppChangeEvent added = events.poll(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(added);
+        Assert.assertEquals(AppChangeEvent.Type.ADDED, added.getType());
+        Assert.assertEquals("UP", added.getCurrent().getAppState());
+
+        publisher.updateStateAsync("DOWN").get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(nodes, curator.getChildren().forPath(APP_PATH));
+        AppChangeEvent changed = events.poll(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(changed);
+        Assert.assertEquals(AppChangeEvent.Type.STATE_CHANGED, changed.getType());
+        Assert.assertEquals("DOWN", changed.getCurrent().getAppState());
+        Assert.assertEquals("DOWN", subscriber.getByName("test_app").get(0).getAppState());
+
+        // Rebuilt subscriber reads state from node data
+        ZookeeperAppSubscriber another = newSubscriber();
+        another.start();
+        Application rebuilt = another.getByName("test_app").get(0);
+        Assert.assertEquals("DOWN", rebuilt.getAppState());
+        Application payload = another.fetchPayload(rebuilt);
+        Assert.assertNotNull(payload);
+        Assert.assertEquals("DOWN", payload.getAppState());
+
+        publisher.shutdown();
+        subscriber.shutdown();
+        another.shutdown();
+    }
+
+    @Test
+    public void unRegisterUntrackedMutableSession() throws Exception {
+        Application app = newApp();
+        ZookeeperAppPublisher publisher = newPublisher(app);
+        publisher.getClient().getConfig().setMutableState(true);
+        publisher.start();
+        CuratorFramework curator = publisher.getClient().getCuratorClient();
+
+        // Left by a previous registration whose session node is no longer tracked
+        curator.create().creatingParentsIfNeeded()
+            .forPath(ZookeeperRegistryUtils.toSessionNode(app, false));
+        Assert.assertFalse(publisher.isRegistered());
+        Assert.assertEquals(1, curator.getChildren().forPath(APP_PATH).size());
+
+        publisher.unRegisterAsync().get(10, TimeUnit.SECONDS);
+        Assert.assertTrue(curator.getChildren().forPath(APP_PATH).isEmpty());
+
+        publisher.shutdown();
+    }
+
+    private Application newApp() {
+        return Application.newBuilder().appName("test_app").hostName("127.0.0.1").port(8080)
+            .startTime(System.currentTimeMillis()).lastRecover(System.currentTimeMillis())
+            .appState("UP").build();
+    }
+}
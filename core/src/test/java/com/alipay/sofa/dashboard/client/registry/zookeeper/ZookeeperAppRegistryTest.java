@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.AbstractAppRegistryTest;
+import com.alipay.sofa.dashboard.client.registry.AppPublisher;
+import com.alipay.sofa.dashboard.client.registry.AppSubscriber;
+import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperClient;
+import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperConfig;
+import org.apache.curator.test.KillSession;
+import org.apache.curator.test.TestingServer;
+import org.junit.After;
+import org.junit.Before;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ZookeeperAppRegistryTest extends AbstractAppRegistryTest {
+
+    private TestingServer     testServer;
+
+    /**
+     * Hold automatic recovery back, so that expired instances stay removed
+     */
+    private RecoveryScheduler heldRecovery;
+
+    @Before
+    public void setupZkServer() throws Exception {
+        testServer = new TestingServer(22181, true);
+        heldRecovery = new RecoveryScheduler(0L, 0.001);
+        heldRecovery.reservePermit();
+    }
+
+    @After
+    public void recycleServer() throws Exception {
+        heldRecovery.close();
+        testServer.close();
+    }
+
+    @Override
+    protected AppPublisher createPublisher(Application app) {
+        ZookeeperAppPublisher publisher = new ZookeeperAppPublisher(app, new ZookeeperClient(
+            newConfig()));
+        publisher.setRecoveryScheduler(heldRecovery);
+        return publisher;
+    }
+
+    @Override
+    protected AppSubscriber createSubscriber() {
+        return new ZookeeperAppSubscriber(new ZookeeperClient(newConfig()));
+    }
+
+    @Override
+    protected void expireSession(AppPublisher publisher) throws Exception {
+        ZookeeperClient client = ((ZookeeperAppPublisher) publisher).getClient();
+        KillSession.kill(client.getCuratorClient().getZookeeperClient().getZooKeeper(),
+            testServer.getConnectString());
+    }
+
+    @Override
+    protected int getPerformanceScale() {
+        return 50; // One connection per publisher
+    }
+
+    private ZookeeperConfig newConfig() {
+        ZookeeperConfig config = new ZookeeperConfig();
+        config.setAddress(testServer.getConnectString());
+        return config;
+    }
+}
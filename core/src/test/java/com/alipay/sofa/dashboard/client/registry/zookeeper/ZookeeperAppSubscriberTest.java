@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.base.TestBase;
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.AppChangeEvent;
+import com.alipay.sofa.dashboard.client.registry.ApplicationSnapshot;
+import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperClient;
+import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperConfig;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ZookeeperAppSubscriberTest extends TestBase {
+
+    private static final Logger LOGGER    = LoggerFactory
+                                              .getLogger(ZookeeperAppSubscriberTest.class);
+
+    private static final int    APP_COUNT = 10;
+
+    private CuratorFramework    client;
+
+    @Before
+    public void setupClient() throws Exception {
+        client = CuratorFrameworkFactory.newClient(testServer.getConnectString(),
+            new ExponentialBackoffRetry(1000, 3));
+        client.start();
+        client.blockUntilConnected(10, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void recycleClient() {
+        client.close();
+    }
+
+    @Test
+    public void coalesceChangeStorm() throws Exception {
+        ZookeeperAppSubscriber subscriber = newSubscriber();
+        subscriber.start();
+
+        int count = APP_COUNT * 100;
+        ZookeeperTestInstances.prepare(client, APP_COUNT, count);
+        awaitInstanceCount(subscriber, count);
+
+        LOGGER.info("Received {} events, applied {} batches", subscriber.getReceivedEventCount(),
+            subscriber.getAppliedBatchCount());
+        Assert.assertTrue(subscriber.getAppliedBatchCount() > 0);
+        Assert.assertTrue(subscriber.getAppliedBatchCount() <= subscriber
+            .getReceivedEventCount());
+        Assert.assertEquals(APP_COUNT, subscriber.getAllNames().size());
+
+        subscriber.shutdown();
+    }
+
+    /**
+     * Startup builds the cache from the initial population of watcher only, compared with a
+     * full rebuild which used to run along with it.
+     */
+    @Test
+    public void singlePassInit() throws Exception {
+        int count = APP_COUNT * 1000;
+        ZookeeperTestInstances.prepare(client, APP_COUNT, count);
+
+        ZookeeperAppSubscriber subscriber = newSubscriber();
+        long begin = System.nanoTime();
+        subscriber.start();
+        long initCost = System.nanoTime() - begin;
+        Assert.assertTrue(subscriber.whenReady().isDone());
+        Assert.assertFalse(subscriber.isStale());
+        Assert.assertEquals(count, subscriber.getSnapshot().getInstanceCount());
+        // Initial population is applied as a whole, rather than batch by batch
+        Assert.assertEquals(0, subscriber.getAppliedBatchCount());
+        Assert.assertEquals(APP_COUNT, subscriber.getReceivedEventCount());
+        // Changes published by replacing the whole cache are counted as well
+        Assert.assertEquals(count, subscriber.getChangeCount(AppChangeEvent.Type.ADDED));
+
+        begin = System.nanoTime();
+        Assert.assertTrue(subscriber.rebuildAsync().get(60, TimeUnit.SECONDS));
+        long rebuildCost = System.nanoTime() - begin;
+        Assert.assertEquals(count, subscriber.getSnapshot().getInstanceCount());
+
+        LOGGER.info("Startup with {} instances reads {} nodes in {} ms, "
+                    + "an extra full rebuild reads {} more nodes in {} ms", count, APP_COUNT + 1,
+            TimeUnit.NANOSECONDS.toMillis(initCost), APP_COUNT + 1,
+            TimeUnit.NANOSECONDS.toMillis(rebuildCost));
+        subscriber.shutdown();
+    }
+
+    @Test
+    public void warmStartFromLocalSnapshot() throws Exception {
+        Path file = Files.createTempFile("dashboard", ".snapshot");
+        try {
+            Map<String, List<Application>> source = new HashMap<>();
+            source.put("test_app", Collections.singletonList(Application.newBuilder()
+                .appName("test_app").hostName("10.1.1.1").port(8080).appState("UP").build()));
+            ZookeeperSnapshotFile.write(file, ApplicationSnapshot.of(1L, source));
+
+            // Registry is not reachable, loaded snapshot is served as stale
+            ZookeeperConfig config = new ZookeeperConfig();
+            config.setAddress("127.0.0.1:1");
+            config.setMaxRetries(0);
+            config.setConnectionTimeoutMs(200);
+            config.setSnapshotFile(file.toString());
+            ZookeeperAppSubscriber offline = new ZookeeperAppSubscriber(new ZookeeperClient(
+                config));
+            offline.start();
+            Assert.assertTrue(offline.isStale());
+            Assert.assertEquals(1, offline.getByName("test_app").size());
+            offline.shutdown();
+
+            // Live rebuild replaces it, and saves the live one on shutdown
+            config.setAddress(testServer.getConnectString());
+            ZookeeperAppSubscriber online = new ZookeeperAppSubscriber(new ZookeeperClient(
+                config));
+            online.start();
+            Assert.assertFalse(online.isStale());
+            Assert.assertTrue(online.getByName("test_app").isEmpty());
+            online.shutdown();
+
+            Map<String, InstanceGroup> saved = ZookeeperSnapshotFile.read(file);
+            Assert.assertNotNull(saved);
+            Assert.assertTrue(saved.isEmpty());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void rebuildOnceRegistryComesUp() throws Exception {
+        Path file = Files.createTempFile("dashboard", ".snapshot");
+        try {
+            Map<String, List<Application>> source = new HashMap<>();
+            source.put("file_only_app", Collections.singletonList(Application.newBuilder()
+                .appName("file_only_app").hostName("10.1.1.1").port(8080).appState("UP")
+                .build()));
+            ZookeeperSnapshotFile.write(file, ApplicationSnapshot.of(1L, source));
+
+            // Registry goes down before the subscriber starts
+            testServer.stop();
+            ZookeeperConfig config = new ZookeeperConfig();
+            config.setAddress(testServer.getConnectString());
+            config.setRebuildMode(ZookeeperConfig.RebuildMode.SYNC);
+            config.setMaxRetries(0);
+            config.setConnectionTimeoutMs(200);
+            config.setBaseSleepTimeMs(100);
+            config.setSnapshotFile(file.toString());
+            ZookeeperAppSubscriber subscriber = new ZookeeperAppSubscriber(new ZookeeperClient(
+                config));
+            subscriber.start();
+            Assert.assertFalse(subscriber.whenReady().isDone());
+            Assert.assertTrue(subscriber.isStale());
+            Assert.assertEquals(1, subscriber.getByName("file_only_app").size());
+
+            // The first live view replaces the loaded one once registry is reachable
+            testServer.restart();
+            ZookeeperAppPublisher publisher = newPublisher(Application.newBuilder()
+                .appName("live_app").hostName("127.0.0.1").port(8080).startTime(1L)
+                .lastRecover(1L).appState("UP").build());
+            publisher.start();
+            publisher.register();
+            subscriber.whenReady().get(30, TimeUnit.SECONDS);
+            Assert.assertFalse(subscriber.isStale());
+            Assert.assertTrue(subscriber.getByName("file_only_app").isEmpty());
+            awaitInstanceCount(subscriber, 1);
+            Assert.assertEquals(1, subscriber.getByName("live_app").size());
+            subscriber.shutdown();
+            publisher.shutdown();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void dropRemovedApp() throws Exception {
+        ZookeeperAppSubscriber subscriber = newSubscriber();
+        subscriber.start();
+        ZookeeperTestInstances.prepare(client, 2, 2);
+        awaitInstanceCount(subscriber, 2);
+
+        String appPath = ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE
+                         + ZookeeperConstants.SEPARATOR + "app_1";
+        client.delete().deletingChildrenIfNeeded().forPath(appPath);
+        awaitInstanceCount(subscriber, 1);
+
+        // Removed app node is gone from names and counts, not kept with no instance
+        long deadline = System.currentTimeMillis() + 30000;
+        while (subscriber.getAllNames().size() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(Collections.singletonList("app_0"), subscriber.getAllNames());
+        Assert.assertFalse(subscriber.summaryCounts().containsKey("app_1"));
+        Assert.assertEquals(0, subscriber.findNamesByPrefix("app_1", 0, 10).getTotal());
+        subscriber.shutdown();
+    }
+
+    private void awaitInstanceCount(ZookeeperAppSubscriber subscriber, int expected)
+                                                                                     throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (subscriber.getSnapshot().getInstanceCount() != expected
+               && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(expected, subscriber.getSnapshot().getInstanceCount());
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.base.TestBase;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.zookeeper.CreateMode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ZookeeperInstanceWatcherTest extends TestBase {
+
+    private static final Logger LOGGER    = LoggerFactory
+                                              .getLogger(ZookeeperInstanceWatcherTest.class);
+
+    private static final int    APP_COUNT = 100;
+
+    private CuratorFramework    client;
+
+    @Before
+    public void setupClient() throws Exception {
+        client = CuratorFrameworkFactory.newClient(testServer.getConnectString(),
+            new ExponentialBackoffRetry(1000, 3));
+        client.start();
+        client.blockUntilConnected(10, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void recycleClient() {
+        client.close();
+    }
+
+    @Test
+    public void watchBeforeRootCreated() throws Exception {
+        CollectingListener listener = new CollectingListener();
+        ZookeeperInstanceWatcher watcher = new ZookeeperInstanceWatcher(client, listener);
+        watcher.start();
+        Assert.assertTrue(listener.initialized.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(0, listener.totalAtInitialized);
+
+        String appPath = ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE + "/test_app";
+        client.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL)
+            .forPath(appPath + "/127.0.0.1:8080?state=UP");
+        listener.awaitInstances(1);
+        Assert.assertEquals(1, listener.instances.get("test_app").size());
+
+        client.create().withMode(CreateMode.EPHEMERAL)
+            .forPath(appPath + "/127.0.0.1:8081?state=UP");
+        listener.awaitInstances(2);
+
+        client.delete().forPath(appPath + "/127.0.0.1:8080?state=UP");
+        client.delete().forPath(appPath + "/127.0.0.1:8081?state=UP");
+        client.delete().forPath(appPath);
+        listener.awaitInstances(0);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (listener.instances.containsKey("test_app")
+               && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(listener.instances.containsKey("test_app"));
+        watcher.close();
+    }
+
+    @Test
+    public void watchExistingInstances() throws Exception {
+        ZookeeperTestInstances.prepare(client, APP_COUNT, APP_COUNT * 10);
+
+        CollectingListener listener = new CollectingListener();
+        ZookeeperInstanceWatcher watcher = new ZookeeperInstanceWatcher(client, listener);
+        watcher.start();
+        // Every existing instance is delivered before initialized
+        Assert.assertTrue(listener.initialized.await(60, TimeUnit.SECONDS));
+        Assert.assertTrue(watcher.isInitialized());
+        Assert.assertEquals(APP_COUNT * 10, listener.totalAtInitialized);
+        Assert.assertEquals(APP_COUNT, listener.instances.size());
+        watcher.close();
+    }
+
+    /**
+     * Compare retained heap of {@link TreeCache} and {@link ZookeeperInstanceWatcher}.
+     * It takes a while, run with {@code -Ddashboard.test.heap=true}.
+     */
+    @Test
+    public void compareHeapFootprint() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("dashboard.test.heap"));
+
+        for (int count : new int[] { 10000, 50000 }) {
+            ZookeeperTestInstances.prepare(client, APP_COUNT, count);
+
+            long base = usedHeap();
+            CountDownLatch initialized = new CountDownLatch(1);
+            TreeCache treeCache = new TreeCache(client,
+                ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE);
+            treeCache.getListenable().addListener((cli, event) -> {
+                if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+                    initialized.countDown();
+                }
+            });
+            treeCache.start();
+            Assert.assertTrue(initialized.await(60, TimeUnit.SECONDS));
+            long treeCacheHeap = usedHeap() - base;
+            treeCache.close();
+
+            base = usedHeap();
+            CollectingListener listener = new CollectingListener(false);
+            ZookeeperInstanceWatcher watcher = new ZookeeperInstanceWatcher(client, listener);
+            watcher.start();
+            listener.awaitInstances(count);
+            long watcherHeap = usedHeap() - base;
+            watcher.close();
+
+            LOGGER.info("Retained heap with {} instances: TreeCache {} KB, watcher {} KB", count,
+                treeCacheHeap >> 10, watcherHeap >> 10);
+            Assert.assertTrue(watcherHeap < treeCacheHeap);
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Keep instance counts only, or instance names if required
+     */
+    private static class CollectingListener implements ZookeeperInstanceWatcher.Listener {
+
+        private final Map<String, List<String>> instances   = new ConcurrentHashMap<>();
+
+        private final Map<String, Integer>      counts      = new ConcurrentHashMap<>();
+
+        private final boolean                   keepNames;
+
+        private final CountDownLatch            initialized = new CountDownLatch(1);
+
+        private volatile int                    totalAtInitialized;
+
+        CollectingListener() {
+            this(true);
+        }
+
+        CollectingListener(boolean keepNames) {
+            this.keepNames = keepNames;
+        }
+
+        @Override
+        public void onChildrenChanged(String appName, List<String> children) {
+            if (keepNames) {
+                instances.put(appName, children);
+            }
+            counts.put(appName, children.size());
+        }
+
+        @Override
+        public void onAppRemoved(String appName) {
+            instances.remove(appName);
+            counts.remove(appName);
+        }
+
+        @Override
+        public void onInitialized() {
+            totalAtInitialized = total();
+            initialized.countDown();
+        }
+
+        void awaitInstances(int expected) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 60000;
+            while (total() != expected && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(expected, total());
+        }
+
+        private int total() {
+            return counts.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.base.TestBase;
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.test.KillSession;
+import org.apache.zookeeper.data.Stat;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulate many instances reconnecting to a recovered zookeeper at the same time
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ZookeeperRecoverySimulationTest extends TestBase {
+
+    private static final int  PUBLISHER_COUNT    = 20;
+
+    private static final int  PERMITS_PER_SECOND = 20;
+
+    private static final long TIMEOUT_MS         = 30000L;
+
+    @Test
+    public void skipSurvivedSessionNodes() throws Exception {
+        RecoveryRecorder recorder = new RecoveryRecorder();
+        List<ZookeeperAppPublisher> publishers = startPublishers(recorder, null);
+        List<Long> createdZxids = new ArrayList<>();
+        for (ZookeeperAppPublisher publisher : publishers) {
+            createdZxids.add(sessionStat(publisher).getCzxid());
+        }
+
+        // Sessions are kept by the restarted server, so are their ephemeral nodes
+        testServer.restart();
+        recorder.await(PUBLISHER_COUNT);
+        Assert.assertEquals(PUBLISHER_COUNT, recorder.skipped.size());
+        Assert.assertTrue(recorder.recreated.isEmpty());
+        for (int i = 0; i < PUBLISHER_COUNT; i++) {
+            Assert.assertEquals(createdZxids.get(i).longValue(), sessionStat(publishers.get(i))
+                .getCzxid());
+        }
+        shutdown(publishers);
+    }
+
+    @Test
+    public void recreateExpiredSessionNodesAtLimitedRate() throws Exception {
+        RecoveryRecorder recorder = new RecoveryRecorder();
+        // All instances share a single scheduler as they do in one container
+        RecoveryScheduler scheduler = new RecoveryScheduler(200L, PERMITS_PER_SECOND);
+        List<ZookeeperAppPublisher> publishers = startPublishers(recorder, scheduler);
+
+        for (ZookeeperAppPublisher publisher : publishers) {
+            CuratorFramework curator = publisher.getClient().getCuratorClient();
+            KillSession.kill(curator.getZookeeperClient().getZooKeeper(),
+                testServer.getConnectString());
+        }
+        recorder.await(PUBLISHER_COUNT);
+        Assert.assertEquals(PUBLISHER_COUNT, recorder.recreated.size());
+        Assert.assertTrue(recorder.skipped.isEmpty());
+
+        // Recoveries are paced by the token bucket rather than sent in the same instant
+        List<Long> finished = new ArrayList<>(recorder.recreated);
+        Collections.sort(finished);
+        long spanMs = TimeUnit.NANOSECONDS.toMillis(finished.get(finished.size() - 1)
+                                                    - finished.get(0));
+        long expectedMs = (PUBLISHER_COUNT - 1) * 1000L / PERMITS_PER_SECOND;
+        Assert.assertTrue("Recovered within " + spanMs + "ms", spanMs >= expectedMs * 8 / 10);
+
+        for (ZookeeperAppPublisher publisher : publishers) {
+            CuratorFramework curator = publisher.getClient().getCuratorClient();
+            Stat stat = sessionStat(publisher);
+            Assert.assertNotNull(stat);
+            Assert.assertEquals(curator.getZookeeperClient().getZooKeeper().getSessionId(),
+                stat.getEphemeralOwner());
+        }
+        shutdown(publishers);
+        scheduler.close();
+    }
+
+    private List<ZookeeperAppPublisher> startPublishers(RecoveryRecorder recorder,
+                                                        RecoveryScheduler scheduler)
+                                                                                    throws Exception {
+        List<ZookeeperAppPublisher> publishers = new ArrayList<>();
+        for (int i = 0; i < PUBLISHER_COUNT; i++) {
+            ZookeeperAppPublisher publisher = newPublisher(newApp(i));
+            publisher.getClient().getConfig().setRecoverJitterMs(500);
+            if (scheduler != null) {
+                publisher.setRecoveryScheduler(scheduler);
+            }
+            publisher.setMetricsRecorder(recorder);
+            publisher.start();
+            publishers.add(publisher);
+        }
+        for (ZookeeperAppPublisher publisher : publishers) {
+            publisher.registerAsync().get(10, TimeUnit.SECONDS);
+        }
+        return publishers;
+    }
+
+    private Stat sessionStat(ZookeeperAppPublisher publisher) throws Exception {
+        String sessionNode = ZookeeperRegistryUtils.toSessionNode(publisher.getApplication());
+        return publisher.getClient().getCuratorClient().checkExists().forPath(sessionNode);
+    }
+
+    private void shutdown(List<ZookeeperAppPublisher> publishers) {
+        for (ZookeeperAppPublisher publisher : publishers) {
+            Assert.assertTrue(publisher.getClient().getConnectionStateCount(
+                ConnectionState.RECONNECTED) > 0);
+            publisher.shutdown();
+        }
+    }
+
+    private Application newApp(int index) {
+        return Application.newBuilder().appName("test_app").hostName("10.1.1." + index)
+            .port(8080).startTime(System.currentTimeMillis())
+            .lastRecover(System.currentTimeMillis()).appState("UP").build();
+    }
+
+    /**
+     * Collect finish time of each recovery
+     */
+    private static final class RecoveryRecorder implements PublisherMetricsRecorder {
+
+        private final ConcurrentLinkedQueue<Long> recreated = new ConcurrentLinkedQueue<>();
+
+        private final ConcurrentLinkedQueue<Long> skipped   = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void recordRecover(long costNanos, boolean success, boolean recreated) {
+            Assert.assertTrue(success);
+            (recreated ? this.recreated : this.skipped).add(System.nanoTime());
+        }
+
+        private void await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+            while (recreated.size() + skipped.size() < count
+                   && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50L);
+            }
+        }
+    }
+}
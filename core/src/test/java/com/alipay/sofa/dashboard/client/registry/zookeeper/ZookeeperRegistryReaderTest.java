@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.base.TestBase;
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperConfig;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.ZooDefs;
+import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Id;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ZookeeperRegistryReaderTest extends TestBase {
+
+    private static final Logger LOGGER         = LoggerFactory
+                                                   .getLogger(ZookeeperRegistryReaderTest.class);
+
+    /**
+     * Run with {@code -Ddashboard.test.instances=10000} to time a large registry
+     */
+    private static final int    INSTANCE_COUNT = Integer.getInteger("dashboard.test.instances",
+                                                   500);
+
+    private static final int    APP_COUNT      = 100;
+
+    private CuratorFramework    client;
+
+    @Before
+    public void setupClient() throws Exception {
+        client = CuratorFrameworkFactory.newClient(testServer.getConnectString(),
+            new ExponentialBackoffRetry(1000, 3));
+        client.start();
+        client.blockUntilConnected(10, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void recycleClient() {
+        client.close();
+    }
+
+    @Test
+    public void rebuildLargeRegistry() throws Exception {
+        prepareInstances(INSTANCE_COUNT);
+
+        Map<String, InstanceGroup> syncResult = timedRead(ZookeeperConfig.RebuildMode.SYNC);
+        Map<String, InstanceGroup> pipelinedResult = timedRead(ZookeeperConfig.RebuildMode.PIPELINED);
+        Map<String, InstanceGroup> pathOnlyResult = timedRead(ZookeeperConfig.RebuildMode.PATH_ONLY);
+
+        Assert.assertNotNull(syncResult);
+        Assert.assertNotNull(pipelinedResult);
+        Assert.assertNotNull(pathOnlyResult);
+        Assert.assertEquals(APP_COUNT, pipelinedResult.size());
+        Assert.assertEquals(INSTANCE_COUNT, countInstances(pipelinedResult));
+        Assert.assertEquals(syncResult, pipelinedResult);
+        Assert.assertEquals(syncResult, pathOnlyResult);
+    }
+
+    @Test
+    public void pathOnlyCarriesAllFields() throws Exception {
+        Application app1 = Application.newBuilder().appName("test_app").hostName("10.1.1.1")
+            .port(8080).startTime(1L).lastRecover(2L).appState("UP").build();
+        Application app2 = Application.newBuilder().appName("test_app").hostName("10.1.1.2")
+            .internalHost("192.168.1.2").port(8081).startTime(3L).lastRecover(4L)
+            .appState("DOWN").build();
+        for (Application app : new Application[] { app1, app2 }) {
+            client.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL)
+                .forPath(ZookeeperRegistryUtils.toSessionNode(app), JsonUtils.toJsonBytes(app));
+        }
+
+        ZookeeperConfig syncConfig = new ZookeeperConfig();
+        syncConfig.setRebuildMode(ZookeeperConfig.RebuildMode.SYNC);
+        Map<String, InstanceGroup> payloads = new ZookeeperRegistryReader(client, syncConfig)
+            .readAll();
+        Map<String, InstanceGroup> paths = new ZookeeperRegistryReader(client,
+            new ZookeeperConfig()).readAll();
+
+        Assert.assertNotNull(payloads);
+        Assert.assertNotNull(paths);
+        Assert.assertEquals(payloads.get("test_app").toString(), paths.get("test_app")
+            .toString());
+    }
+
+    @Test
+    public void rebuildWithTinyWindow() throws Exception {
+        prepareInstances(APP_COUNT * 3);
+
+        ZookeeperConfig config = new ZookeeperConfig();
+        config.setRebuildMaxInFlight(1);
+        Map<String, InstanceGroup> result = new ZookeeperRegistryReader(client, config)
+            .readAll();
+
+        Assert.assertNotNull(result);
+        Assert.assertEquals(APP_COUNT * 3, countInstances(result));
+    }
+
+    @Test
+    public void failedReadKeepsCache() throws Exception {
+        ZookeeperAppSubscriber subscriber = newSubscriber();
+        subscriber.getClient().getConfig()
+            .setRebuildMode(ZookeeperConfig.RebuildMode.PIPELINED);
+        subscriber.start();
+        Application app = Application.newBuilder().appName("test_app").hostName("10.1.1.1")
+            .port(8080).startTime(1L).lastRecover(2L).appState("UP").build();
+        client.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL)
+            .forPath(ZookeeperRegistryUtils.toSessionNode(app), JsonUtils.toJsonBytes(app));
+        Assert.assertTrue(subscriber.rebuildAsync().get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, subscriber.getByName("test_app").size());
+
+        // Children of this app can not be read by anyone
+        client.create()
+            .withACL(Collections.singletonList(new ACL(ZooDefs.Perms.ALL, new Id("digest",
+                "dashboard:unknown"))))
+            .forPath(ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE + "/locked_app");
+        ZookeeperConfig config = new ZookeeperConfig();
+        config.setRebuildMode(ZookeeperConfig.RebuildMode.PIPELINED);
+        Assert.assertNull(new ZookeeperRegistryReader(client, config).readAll());
+
+        // Partial result is never applied, cached instances are kept
+        Assert.assertFalse(subscriber.rebuildAsync().get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, subscriber.getByName("test_app").size());
+        subscriber.shutdown();
+    }
+
+    @Test
+    public void rebuildEmptyRegistry() {
+        Map<String, InstanceGroup> result = new ZookeeperRegistryReader(client,
+            new ZookeeperConfig()).readAll();
+        Assert.assertNotNull(result);
+        Assert.assertTrue(result.isEmpty());
+    }
+
+    private Map<String, InstanceGroup> timedRead(ZookeeperConfig.RebuildMode mode) {
+        ZookeeperConfig config = new ZookeeperConfig();
+        config.setRebuildMode(mode);
+
+        long begin = System.nanoTime();
+        Map<String, InstanceGroup> result = new ZookeeperRegistryReader(client, config)
+            .readAll();
+        long cost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        LOGGER.info("Rebuild {} instances in {} mode cost {} ms", INSTANCE_COUNT, mode, cost);
+        return result;
+    }
+
+    private void prepareInstances(int count) throws Exception {
+        ZookeeperTestInstances.prepare(client, APP_COUNT, count);
+    }
+
+    private int countInstances(Map<String, InstanceGroup> result) {
+        return result.values().stream().mapToInt(InstanceGroup::size).sum();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ZookeeperRegistryUtilsTest {
+
+    @Test
+    public void encodeSameAsLegacy() {
+        Application full = newApp("test_app", "10.1.1.1", "192.168.1.1", "UP");
+        Application nullable = newApp("test_app", "10.1.1.1", null, null);
+        nullable.setStartTime(-1L);
+        for (Application app : new Application[] { full, nullable }) {
+            Assert.assertEquals(LegacySessionNodeCodec.toSessionNode(app),
+                ZookeeperRegistryUtils.toSessionNode(app));
+        }
+    }
+
+    @Test
+    public void decodeSameAsLegacy() {
+        String prefix = ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE + "/test_app/";
+        String[] nodes = {
+                ZookeeperRegistryUtils.toSessionNode(newApp("test_app", "10.1.1.1",
+                    "192.168.1.1", "UP")),
+                ZookeeperRegistryUtils.toSessionNode(newApp("test_app", "10.1.1.1", null, null)),
+                prefix + "10.1.1.1:8080?state=UP&lastRecover=2&startTime=1&internalHost=null&",
+                prefix + "10.1.1.1:8080?internalHost=a%2Fb&startTime=1&lastRecover=2&state=U+P",
+                prefix + "10.1.1.1:8080?internalHost=x&startTime=1&unknown=v&lastRecover=2",
+                prefix + "10.1.1.1?internalHost=x&startTime=1&lastRecover=2&state=UP",
+                prefix + "10.1.1.1:8080?internalHost=x&startTime=1&state=UP",
+                prefix + "10.1.1.1:8080?internalHost=x&startTime=a1&lastRecover=2",
+                prefix + "10.1.1.1:8080?internalHost&startTime=1&lastRecover=2",
+                prefix + "10.1.1.1:8080",
+                prefix + "10.1.1.1:8080?startTime=1&lastRecover=2/extra",
+                ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE + "/test_app",
+                "/other/test_app/10.1.1.1:8080?startTime=1&lastRecover=2", null };
+        for (String node : nodes) {
+            Application expect = LegacySessionNodeCodec.parseSessionNode(node);
+            Application actual = ZookeeperRegistryUtils.parseSessionNode(node);
+            if (expect == null) {
+                Assert.assertNull(node, actual);
+                continue;
+            }
+            Assert.assertNotNull(node, actual);
+            Assert.assertEquals(node, expect, actual);
+            Assert.assertEquals(node, expect.getAppState(), actual.getAppState());
+            Assert.assertEquals(node, expect.getStartTime(), actual.getStartTime());
+            Assert.assertEquals(node, expect.getLastRecover(), actual.getLastRecover());
+        }
+    }
+
+    @Test
+    public void rejectIllegalPort() {
+        String prefix = ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE + "/test_app/10.1.1.1:";
+        String query = "?startTime=1&lastRecover=2";
+        for (String port : new String[] { "65536", "4294975488", "-1" }) {
+            Assert.assertNull(port, ZookeeperRegistryUtils.parseSessionNode(prefix + port + query));
+        }
+        Application parsed = ZookeeperRegistryUtils.parseSessionNode(prefix + "65535" + query);
+        Assert.assertNotNull(parsed);
+        Assert.assertEquals(65535, parsed.getPort());
+    }
+
+    @Test
+    public void roundTrip() {
+        Application app = newApp("test_app", "10.1.1.1", "192.168.1.1", "DOWN");
+        app.setStartTime(Long.MAX_VALUE);
+        app.setLastRecover(Long.MIN_VALUE);
+        Application parsed = ZookeeperRegistryUtils.parseSessionNode(ZookeeperRegistryUtils
+            .toSessionNode(app));
+        Assert.assertNotNull(parsed);
+        Assert.assertEquals(app, parsed);
+        Assert.assertEquals(Long.MAX_VALUE, parsed.getStartTime());
+        Assert.assertEquals(Long.MIN_VALUE, parsed.getLastRecover());
+        Assert.assertEquals("DOWN", parsed.getAppState());
+    }
+
+    @Test
+    public void mutableSessionNode() {
+        Application app = newApp("test_app", "10.1.1.1", "192.168.1.1", "UP");
+        String stable = ZookeeperRegistryUtils.toSessionNode(app, false);
+        Assert.assertTrue(ZookeeperRegistryUtils.isMutableSessionNode(stable));
+        Assert.assertFalse(ZookeeperRegistryUtils.isMutableSessionNode(ZookeeperRegistryUtils
+            .toSessionNode(app)));
+        Assert.assertFalse(ZookeeperRegistryUtils
+            .isMutableSessionNode("10.1.1.1:8080?state=UP&startTime=1&lastRecover=2"));
+
+        // Still readable by previous codec, without state
+        Application parsed = LegacySessionNodeCodec.parseSessionNode(stable);
+        Assert.assertNotNull(parsed);
+        Assert.assertEquals(app, parsed);
+        Assert.assertNull(parsed.getAppState());
+        Assert.assertEquals(app, ZookeeperRegistryUtils.parseSessionNode(stable));
+
+        app.setAppState("DOWN");
+        Assert.assertEquals(stable, ZookeeperRegistryUtils.toSessionNode(app, false));
+    }
+
+    private static Application newApp(String appName, String hostName, String internalHost,
+                                      String state) {
+        return Application.newBuilder().appName(appName).hostName(hostName).port(8080)
+            .internalHost(internalHost).startTime(1567000000000L).lastRecover(1567000001000L)
+            .appState(state).build();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.ApplicationSnapshot;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ZookeeperSnapshotFileTest {
+
+    private Path dir;
+
+    @Before
+    public void createDir() throws IOException {
+        dir = Files.createTempDirectory("dashboard-snapshot");
+    }
+
+    @After
+    public void deleteDir() throws IOException {
+        Files.list(dir).forEach(it -> it.toFile().delete());
+        Files.delete(dir);
+    }
+
+    @Test
+    public void writeAndRead() throws IOException {
+        Application app1 = Application.newBuilder().appName("test_app1").hostName("10.1.1.1")
+            .port(8080).startTime(1L).lastRecover(2L).appState("UP").build();
+        Application app2 = Application.newBuilder().appName("test_app1").hostName("10.1.1.2")
+            .internalHost("192.168.1.2").port(8081).startTime(3L).lastRecover(4L).build();
+        Application app3 = Application.newBuilder().appName("测试应用").hostName("10.1.1.3")
+            .port(8082).startTime(5L).lastRecover(6L).appState("DOWN").build();
+        Map<String, List<Application>> source = new HashMap<>();
+        source.put("test_app1", Arrays.asList(app1, app2));
+        source.put("测试应用", Arrays.asList(app3));
+
+        Path file = dir.resolve("registry.snapshot");
+        ZookeeperSnapshotFile.write(file, ApplicationSnapshot.of(1L, source));
+        Map<String, InstanceGroup> loaded = ZookeeperSnapshotFile.read(file);
+
+        Assert.assertNotNull(loaded);
+        Assert.assertEquals(2, loaded.size());
+        List<Application> group = new ArrayList<>(loaded.get("test_app1"));
+        group.sort(ApplicationSnapshot.INSTANCE_ORDER); // Group is not ordered
+        Assert.assertEquals(Arrays.asList(app1, app2).toString(), group.toString());
+        Assert.assertEquals(app3.toString(), loaded.get("测试应用").iterator().next().toString());
+    }
+
+    @Test
+    public void readAbsentOrBrokenFile() throws IOException {
+        Path file = dir.resolve("registry.snapshot");
+        Assert.assertNull(ZookeeperSnapshotFile.read(file));
+
+        Files.write(file, new byte[] { 1, 2, 3 });
+        Assert.assertNull(ZookeeperSnapshotFile.read(file));
+
+        Map<String, List<Application>> source = new HashMap<>();
+        source.put("test_app1", Arrays.asList(Application.newBuilder().appName("test_app1")
+            .hostName("10.1.1.1").port(8080).appState("UP").build()));
+        ZookeeperSnapshotFile.write(file, ApplicationSnapshot.of(1L, source));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3)); // Truncated
+        Assert.assertNull(ZookeeperSnapshotFile.read(file));
+    }
+
+    @Test
+    public void rejectCountsBeyondFile() throws IOException {
+        Path file = dir.resolve("registry.snapshot");
+        // Header only, claiming more apps than bytes left
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        buffer.putInt(0x53444153).putInt(1).putLong(System.currentTimeMillis());
+        buffer.putInt(Integer.MAX_VALUE);
+        Files.write(file, buffer.array());
+        Assert.assertNull(ZookeeperSnapshotFile.read(file));
+
+        // An app claiming more instances than bytes left
+        buffer = ByteBuffer.allocate(32);
+        buffer.putInt(0x53444153).putInt(1).putLong(System.currentTimeMillis());
+        buffer.putInt(1).putInt(0).putInt(1 << 30).putInt(0);
+        Files.write(file, buffer.array());
+        Assert.assertNull(ZookeeperSnapshotFile.read(file));
+
+        buffer.putInt(24, -1); // Negative count
+        Files.write(file, buffer.array());
+        Assert.assertNull(ZookeeperSnapshotFile.read(file));
+    }
+
+    @Test
+    public void ignoreExpiredFile() throws IOException {
+        Map<String, List<Application>> source = new HashMap<>();
+        source.put("test_app1", Arrays.asList(Application.newBuilder().appName("test_app1")
+            .hostName("10.1.1.1").port(8080).appState("UP").build()));
+        Path file = dir.resolve("registry.snapshot");
+        ZookeeperSnapshotFile.write(file, ApplicationSnapshot.of(1L, source));
+        Assert.assertNotNull(ZookeeperSnapshotFile.read(file, 60000L));
+
+        // Saved time is rewritten as two minutes ago
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putLong(8, System.currentTimeMillis() - 120000L);
+        Files.write(file, bytes);
+        Assert.assertNull(ZookeeperSnapshotFile.read(file, 60000L));
+        Assert.assertNotNull(ZookeeperSnapshotFile.read(file, 0L));
+    }
+}
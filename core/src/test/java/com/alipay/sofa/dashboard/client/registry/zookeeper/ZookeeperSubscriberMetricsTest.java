@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.base.TestBase;
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.registry.AppPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class ZookeeperSubscriberMetricsTest extends TestBase {
+
+    @Test
+    public void publishSubscriberMeters() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ZookeeperAppSubscriber subscriber = newSubscriber();
+        new ZookeeperSubscriberMetrics(subscriber).bindTo(registry);
+        subscriber.start();
+        Assert.assertEquals(1L, registry.get("sofa.dashboard.subscriber.rebuild")
+            .tag("result", "success").timer().count());
+
+        Application app = Application.newBuilder().appName("test_app").hostName("127.0.0.1")
+            .port(8080).startTime(System.currentTimeMillis())
+            .lastRecover(System.currentTimeMillis()).appState("UP").build();
+        AppPublisher publisher = newPublisher(app);
+        publisher.start();
+        publisher.register();
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (subscriber.getByName("test_app").isEmpty()
+               && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1.0, registry.get("sofa.dashboard.subscriber.connected").gauge()
+            .value(), 0.0);
+        Assert.assertEquals(1.0, registry.get("sofa.dashboard.subscriber.instances").gauge()
+            .value(), 0.0);
+        Assert.assertEquals(1.0, registry.get("sofa.dashboard.subscriber.changes")
+            .tag("type", "added").functionCounter().count(), 0.0);
+        Assert.assertTrue(registry.get("sofa.dashboard.subscriber.apply.latency").timer()
+            .count() > 0);
+
+        publisher.shutdown();
+        subscriber.shutdown();
+    }
+}
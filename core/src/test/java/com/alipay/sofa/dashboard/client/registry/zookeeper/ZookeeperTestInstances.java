@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.registry.zookeeper;
+
+import com.alipay.sofa.dashboard.client.model.common.Application;
+import com.alipay.sofa.dashboard.client.utils.JsonUtils;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.zookeeper.CreateMode;
+import org.junit.Assert;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prepare large amount of session nodes for registry tests
+ *
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+final class ZookeeperTestInstances {
+
+    private ZookeeperTestInstances() {
+    }
+
+    /**
+     * Create instances named {@code app_0} to {@code app_${appCount - 1}} with distinct hosts.
+     *
+     * @param client   curator client
+     * @param appCount application count
+     * @param count    instance count
+     * @throws Exception unexpected zookeeper error
+     */
+    static void prepare(CuratorFramework client, int appCount, int count) throws Exception {
+        for (int i = 0; i < appCount; i++) {
+            if (client.checkExists().forPath(appPath(i)) == null) {
+                client.create().creatingParentContainersIfNeeded()
+                    .withMode(CreateMode.PERSISTENT).forPath(appPath(i));
+            }
+        }
+
+        // Create instance nodes in background, or it takes too long to prepare
+        final Semaphore window = new Semaphore(512);
+        for (int i = 0; i < count; i++) {
+            Application app = Application.newBuilder().appName("app_" + (i % appCount))
+                .hostName("10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff))
+                .port(8080).startTime(i).lastRecover(i).appState("UP").build();
+            window.acquire();
+            client.create().withMode(CreateMode.EPHEMERAL)
+                .inBackground((cli, event) -> window.release())
+                .forPath(ZookeeperRegistryUtils.toSessionNode(app), JsonUtils.toJsonBytes(app));
+        }
+        Assert.assertTrue(window.tryAcquire(512, 60, TimeUnit.SECONDS));
+    }
+
+    private static String appPath(int index) {
+        return ZookeeperConstants.SOFA_BOOT_CLIENT_INSTANCE + ZookeeperConstants.SEPARATOR
+               + "app_" + index;
+    }
+}
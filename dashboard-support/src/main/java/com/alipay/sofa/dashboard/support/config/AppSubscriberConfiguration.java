@@ -18,9 +18,12 @@ package com.alipay.sofa.dashboard.support.config;
 
 import com.alipay.sofa.dashboard.client.registry.AppSubscriber;
 import com.alipay.sofa.dashboard.client.registry.zookeeper.ZookeeperAppSubscriber;
+import com.alipay.sofa.dashboard.client.registry.zookeeper.ZookeeperSubscriberMetrics;
 import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperClient;
 import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperConfig;
 import com.alipay.sofa.dashboard.support.properties.SofaDashboardZookeeperProperties;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -44,10 +47,33 @@ public class AppSubscriberConfiguration {
         config.setMaxRetries(prop.getMaxRetries());
         config.setSessionTimeoutMs(prop.getSessionTimeoutMs());
         config.setConnectionTimeoutMs(prop.getConnectionTimeoutMs());
+        config.setRebuildMode(prop.getRebuildMode());
+        config.setRebuildMaxInFlight(prop.getRebuildMaxInFlight());
+        config.setRebuildTimeoutMs(prop.getRebuildTimeoutMs());
+        config.setCoalesceWindowMs(prop.getCoalesceWindowMs());
+        config.setEventThreads(prop.getEventThreads());
+        config.setSnapshotFile(prop.getSnapshotFile());
+        config.setSnapshotPeriodMs(prop.getSnapshotPeriodMs());
+        config.setSnapshotMaxAgeMs(prop.getSnapshotMaxAgeMs());
 
         ZookeeperAppSubscriber subscriber = new ZookeeperAppSubscriber(new ZookeeperClient(config));
         subscriber.start();
         return subscriber;
     }
 
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    static class AppSubscriberMetricsConfiguration {
+
+        @Bean
+        public MeterBinder appSubscriberMetrics(AppSubscriber subscriber) {
+            return registry -> {
+                if (subscriber instanceof ZookeeperAppSubscriber) {
+                    new ZookeeperSubscriberMetrics((ZookeeperAppSubscriber) subscriber)
+                        .bindTo(registry);
+                }
+            };
+        }
+    }
+
 }
@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.dashboard.support.properties;
 
+import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperConfig.RebuildMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -25,27 +26,67 @@ public class SofaDashboardZookeeperProperties {
     /**
      * Zookeeper 工作地址.
      */
-    private String address             = "127.0.0.1:2181";
+    private String      address             = "127.0.0.1:2181";
 
     /**
      * Zookeeper 客户端错误重试间隔(ms).
      */
-    private int    baseSleepTimeMs     = 1000;
+    private int         baseSleepTimeMs     = 1000;
 
     /**
      * Zookeeper 客户端最大重试次数.
      */
-    private int    maxRetries          = 3;
+    private int         maxRetries          = 3;
 
     /**
      * Zookeeper 客户端会话超时时间(ms).
      */
-    private int    sessionTimeoutMs    = 6000;
+    private int         sessionTimeoutMs    = 6000;
 
     /**
      * Zookeeper 客户端超时时间(ms).
      */
-    private int    connectionTimeoutMs = 6000;
+    private int         connectionTimeoutMs = 6000;
+
+    /**
+     * 订阅端重建本地缓存的方式.
+     */
+    private RebuildMode rebuildMode         = RebuildMode.PATH_ONLY;
+
+    /**
+     * 订阅端流水线重建缓存时最大并发请求数.
+     */
+    private int         rebuildMaxInFlight  = 512;
+
+    /**
+     * 订阅端重建缓存超时时间(ms).
+     */
+    private int         rebuildTimeoutMs    = 60000;
+
+    /**
+     * 订阅端合并变更事件的时间窗口(ms), 不大于 0 时逐个处理.
+     */
+    private int         coalesceWindowMs    = 100;
+
+    /**
+     * 订阅端处理变更事件的线程数, 不大于 0 时使用 CPU 核数.
+     */
+    private int         eventThreads        = 0;
+
+    /**
+     * 订阅端本地快照文件路径, 为空时不启用本地快照.
+     */
+    private String      snapshotFile;
+
+    /**
+     * 订阅端本地快照文件写入周期(ms).
+     */
+    private int         snapshotPeriodMs    = 60000;
+
+    /**
+     * 订阅端本地快照文件最大有效期(ms), 更早写入的快照文件不再加载, 不大于 0 时不限制.
+     */
+    private int         snapshotMaxAgeMs    = 3600000;
 
     public String getAddress() {
         return address;
@@ -87,11 +128,79 @@ public class SofaDashboardZookeeperProperties {
         this.connectionTimeoutMs = connectionTimeoutMs;
     }
 
+    public RebuildMode getRebuildMode() {
+        return rebuildMode;
+    }
+
+    public void setRebuildMode(RebuildMode rebuildMode) {
+        this.rebuildMode = rebuildMode;
+    }
+
+    public int getRebuildMaxInFlight() {
+        return rebuildMaxInFlight;
+    }
+
+    public void setRebuildMaxInFlight(int rebuildMaxInFlight) {
+        this.rebuildMaxInFlight = rebuildMaxInFlight;
+    }
+
+    public int getRebuildTimeoutMs() {
+        return rebuildTimeoutMs;
+    }
+
+    public void setRebuildTimeoutMs(int rebuildTimeoutMs) {
+        this.rebuildTimeoutMs = rebuildTimeoutMs;
+    }
+
+    public int getCoalesceWindowMs() {
+        return coalesceWindowMs;
+    }
+
+    public void setCoalesceWindowMs(int coalesceWindowMs) {
+        this.coalesceWindowMs = coalesceWindowMs;
+    }
+
+    public int getEventThreads() {
+        return eventThreads;
+    }
+
+    public void setEventThreads(int eventThreads) {
+        this.eventThreads = eventThreads;
+    }
+
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public void setSnapshotFile(String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public int getSnapshotPeriodMs() {
+        return snapshotPeriodMs;
+    }
+
+    public void setSnapshotPeriodMs(int snapshotPeriodMs) {
+        this.snapshotPeriodMs = snapshotPeriodMs;
+    }
+
+    public int getSnapshotMaxAgeMs() {
+        return snapshotMaxAgeMs;
+    }
+
+    public void setSnapshotMaxAgeMs(int snapshotMaxAgeMs) {
+        this.snapshotMaxAgeMs = snapshotMaxAgeMs;
+    }
+
     @Override
     public String toString() {
         return "SofaDashboardZookeeperProperties{" + "address='" + address + '\''
                + ", baseSleepTimeMs=" + baseSleepTimeMs + ", maxRetries=" + maxRetries
                + ", sessionTimeoutMs=" + sessionTimeoutMs + ", connectionTimeoutMs="
-               + connectionTimeoutMs + '}';
+               + connectionTimeoutMs + ", rebuildMode='" + rebuildMode + '\''
+               + ", rebuildMaxInFlight=" + rebuildMaxInFlight + ", rebuildTimeoutMs="
+               + rebuildTimeoutMs + ", coalesceWindowMs=" + coalesceWindowMs + ", eventThreads="
+               + eventThreads + ", snapshotFile='" + snapshotFile + '\'' + ", snapshotPeriodMs="
+               + snapshotPeriodMs + ", snapshotMaxAgeMs=" + snapshotMaxAgeMs + '}';
     }
 }
\ No newline at end of file
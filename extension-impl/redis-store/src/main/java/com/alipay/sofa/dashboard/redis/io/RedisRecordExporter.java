@@ -17,6 +17,7 @@
 package com.alipay.sofa.dashboard.redis.io;
 
 import com.alipay.sofa.dashboard.client.io.RecordExporter;
+import com.alipay.sofa.dashboard.client.io.RecordMarkers;
 import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
 import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
 import com.alipay.sofa.dashboard.client.utils.JsonUtils;
@@ -45,10 +46,28 @@ public class RedisRecordExporter extends RedisStoreBase implements RecordExporte
 
         Set<String> records = template.boundZSetOps(keyName)
             .rangeByScore(queryMin, current);
-        return Optional.ofNullable(records).orElse(new HashSet<>())
+        List<StoreRecord> result = Optional.ofNullable(records).orElse(new HashSet<>())
             .stream()
             .map(it -> JsonUtils.parseObject(it, StoreRecord.class))
             .sorted(Comparator.comparingLong(StoreRecord::getTimestamp))
             .collect(Collectors.toList());
+        return RecordMarkers.expand(result, since -> getFullRecord(keyName, since));
+    }
+
+    /**
+     * Load the full record referred by unchanged markers, which may be out of query range
+     *
+     * @param keyName   dimension key
+     * @param timestamp timestamp of full record
+     * @return full record, or {@code null} if already expired
+     */
+    private StoreRecord getFullRecord(String keyName, long timestamp) {
+        Set<String> records = template.boundZSetOps(keyName).rangeByScore(timestamp, timestamp);
+        return Optional.ofNullable(records).orElse(new HashSet<>())
+            .stream()
+            .map(it -> JsonUtils.parseObject(it, StoreRecord.class))
+            .filter(it -> !RecordMarkers.isMarker(it))
+            .findFirst()
+            .orElse(null);
     }
 }
@@ -17,6 +17,7 @@
 package com.alipay.sofa.dashboard.redis.io;
 
 import com.alipay.sofa.dashboard.client.io.RecordImporter;
+import com.alipay.sofa.dashboard.client.io.RecordMarkers;
 import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
 import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
 import com.alipay.sofa.dashboard.client.utils.JsonUtils;
@@ -60,7 +61,8 @@ public class RedisRecordImporter extends RedisStoreBase implements RecordImporte
                 byte[] value = JsonUtils.toJsonString(record)
                     .getBytes(Charset.defaultCharset());
                 long score = record.getTimestamp();
-                long expire = score - timeoutTtl;
+                // Kept a little longer, for markers inside ttl referring to older full records
+                long expire = score - timeoutTtl - RecordMarkers.maxBaseAge(timeoutTtl);
 
                 connection.zRemRangeByScore(keyName, 0, expire); // Expire timeout record
                 connection.zAdd(keyName, score, value);
@@ -68,4 +70,9 @@ public class RedisRecordImporter extends RedisStoreBase implements RecordImporte
             return null;
         });
     }
+
+    @Override
+    public long getRecordTtlMs() {
+        return timeoutTtl;
+    }
 }
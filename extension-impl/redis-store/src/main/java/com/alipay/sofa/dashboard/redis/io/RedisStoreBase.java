@@ -26,6 +26,8 @@ package com.alipay.sofa.dashboard.redis.io;
  *     |- dim_value_3
  *     |- ...
  * </pre>
+ * A value may be an unchanged marker referring to an earlier value by timestamp, which is
+ * expanded by {@link RedisRecordExporter} on read.
  *
  * @author chen.pengzhi (chpengzh@foxmail.com)
  */
@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.dashboard.redis.io;
 
+import com.alipay.sofa.dashboard.client.io.RecordMarkers;
 import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
 import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
 import com.alipay.sofa.dashboard.redis.context.RedisTestContext;
@@ -75,4 +76,54 @@ public class RedisStoreBasicTest {
         List<StoreRecord> query = exporter.getLatestRecords(hostAndPort, schemeName, 60_000);
         Assert.assertArrayEquals(samples.toArray(), query.toArray());
     }
+
+    @Test
+    public void expandUnchangedMarker() {
+        final HostAndPort hostAndPort = new HostAndPort("127.0.0.1", "10.41.0.1", 8081);
+        final String schemeName = "test";
+        long current = System.currentTimeMillis();
+        StoreRecord full = StoreRecord.newBuilder().schemeName(schemeName)
+            .timestamp(current - 120_000).value("aaaaa").build();
+        importer.addRecords(hostAndPort, Lists.newArrayList(full));
+        importer.addRecords(hostAndPort,
+            Lists.newArrayList(RecordMarkers.marker(schemeName, current, full.getTimestamp())));
+
+        // Full record is out of query range, but still referred by the marker
+        List<StoreRecord> query = exporter.getLatestRecords(hostAndPort, schemeName, 60_000);
+        Assert.assertEquals(1, query.size());
+        Assert.assertEquals(current, query.get(0).getTimestamp());
+        Assert.assertEquals("aaaaa", query.get(0).getValue());
+    }
+
+    @Test
+    public void expandMarkersOfWholeTtlWindow() {
+        final HostAndPort hostAndPort = new HostAndPort("127.0.0.1", "10.41.0.1", 8082);
+        final String schemeName = "test";
+        long ttl = importer.getRecordTtlMs();
+        long maxSilent = RecordMarkers.maxBaseAge(ttl);
+        long current = System.currentTimeMillis();
+
+        // Sampled every minute, full record flushed again once silent for too long
+        long lastFull = 0L;
+        int expected = 0;
+        for (long ts = current - ttl - 90_000; ts < current; ts += 60_000) {
+            StoreRecord record;
+            if (lastFull <= 0 || ts - lastFull >= maxSilent) {
+                record = StoreRecord.newBuilder().schemeName(schemeName).timestamp(ts)
+                    .value("aaaaa").build();
+                lastFull = ts;
+            } else {
+                record = RecordMarkers.marker(schemeName, ts, lastFull);
+            }
+            importer.addRecords(hostAndPort, Lists.newArrayList(record));
+            if (ts > current - ttl) {
+                expected++;
+            }
+        }
+
+        // Oldest markers of the window refer to a full record older than ttl
+        List<StoreRecord> query = exporter.getLatestRecords(hostAndPort, schemeName, ttl);
+        Assert.assertEquals(expected, query.size());
+        query.forEach(it -> Assert.assertEquals("aaaaa", it.getValue()));
+    }
 }
@@ -23,10 +23,13 @@ import com.alipay.sofa.dashboard.client.properties.SofaDashboardClientProperties
 import com.alipay.sofa.dashboard.client.properties.SofaDashboardZookeeperProperties;
 import com.alipay.sofa.dashboard.client.registry.AppPublisher;
 import com.alipay.sofa.dashboard.client.registry.zookeeper.ZookeeperAppPublisher;
+import com.alipay.sofa.dashboard.client.registry.zookeeper.ZookeeperPublisherMetrics;
 import com.alipay.sofa.dashboard.client.utils.NetworkAddressUtils;
 import com.alipay.sofa.dashboard.client.zookeeper.LifecycleHandler;
 import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperClient;
 import com.alipay.sofa.dashboard.client.zookeeper.ZookeeperConfig;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
@@ -98,6 +101,9 @@ public class AppPublisherConfiguration {
         config.setMaxRetries(prop.getMaxRetries());
         config.setSessionTimeoutMs(prop.getSessionTimeoutMs());
         config.setConnectionTimeoutMs(prop.getConnectionTimeoutMs());
+        config.setMutableState(prop.isMutableState());
+        config.setRecoverJitterMs(prop.getRecoverJitterMs());
+        config.setRecoverPermitsPerSecond(prop.getRecoverPermitsPerSecond());
         return config;
     }
 
@@ -119,6 +125,21 @@ public class AppPublisherConfiguration {
         return new ZookeeperAppPublisher(application, client);
     }
 
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    static class AppPublisherMetricsConfiguration {
+
+        @Bean
+        public MeterBinder appPublisherMetrics(AppPublisher publisher) {
+            return registry -> {
+                if (publisher instanceof ZookeeperAppPublisher) {
+                    new ZookeeperPublisherMetrics((ZookeeperAppPublisher) publisher)
+                        .bindTo(registry);
+                }
+            };
+        }
+    }
+
     private int getPort(SofaDashboardClientProperties properties, Environment env) {
         String virtualPort = properties.getVirtualPort();
         if (StringUtils.isEmpty(virtualPort)) {
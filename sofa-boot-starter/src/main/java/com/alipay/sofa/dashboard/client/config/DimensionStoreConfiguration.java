@@ -57,8 +57,13 @@ public class DimensionStoreConfiguration {
                                                           Environment env) {
         HostAndPort hostAndPort = getHostAndPort(env, props);
         RecordImporter importer = storeProvider.getIfAvailable(EmptyRecordImporter::new);
-        return new DimensionRecordingSchedule(hostAndPort, dimensions, importer,
-            props.getStoreInitDelayExp(), props.getStoreUploadPeriodExp());
+        DimensionRecordingSchedule schedule = new DimensionRecordingSchedule(hostAndPort,
+            dimensions, importer, props.getStoreInitDelayExp(), props.getStoreUploadPeriodExp(),
+            props.getStoreSampleThreads(), props.getStoreSampleTimeoutMs(),
+            props.getStoreSampleTimeouts());
+        schedule.setSamplePeriods(props.getStoreSamplePeriods());
+        schedule.setMaxSilentSeconds(props.getStoreMaxSilentSeconds());
+        return schedule;
     }
 
     private HostAndPort getHostAndPort(Environment env, SofaDashboardClientProperties properties) {
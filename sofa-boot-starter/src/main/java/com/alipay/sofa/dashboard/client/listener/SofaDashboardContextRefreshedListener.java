@@ -28,7 +28,7 @@ import org.springframework.stereotype.Component;
 
 /**
  * By listening to the ContextRefreshedEvent listener, after the application is fully started,
- * get the client's health check status, and then register
+ * get the client's health check status, and then register asynchronously
  *
  * @author guolei.sgl (guolei.sgl@antfin.com) 2019/2/19 2:17 PM
  **/
@@ -51,9 +51,20 @@ public class SofaDashboardContextRefreshedListener implements
                 : Status.DOWN.toString();
             publisher.getApplication().setAppState(status);
             publisher.start();
-            publisher.register();
         } catch (Exception e) {
             LOGGER.info("sofa dashboard client register failed.", e);
+            return;
         }
+
+        // Never block context refreshing on registry
+        long begin = System.currentTimeMillis();
+        publisher.registerAsync().whenComplete((ignore, err) -> {
+            if (err == null) {
+                LOGGER.info("sofa dashboard client registered in {} ms.",
+                    System.currentTimeMillis() - begin);
+            } else {
+                LOGGER.info("sofa dashboard client register failed.", err);
+            }
+        });
     }
 }
@@ -23,6 +23,9 @@ import org.springframework.util.StringUtils;
 
 import com.google.common.base.CaseFormat;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @ConfigurationProperties(prefix = "com.alipay.sofa.dashboard.client")
 public class SofaDashboardClientProperties {
 
@@ -76,6 +79,31 @@ public class SofaDashboardClientProperties {
      */
     private long               storeUploadPeriodExp  = 60;
 
+    /**
+     * Dashboard度量数据并行采集的最大线程数
+     */
+    private int                storeSampleThreads    = 4;
+
+    /**
+     * Dashboard单个维度采集超时时间(ms), 超时的维度本次不上报
+     */
+    private long               storeSampleTimeoutMs  = 10000;
+
+    /**
+     * 按维度名覆盖采集超时时间(ms)
+     */
+    private Map<String, Long>  storeSampleTimeouts   = new HashMap<>();
+
+    /**
+     * 按维度名覆盖采集周期期望(s), 未配置时使用维度自身声明的周期或上报周期
+     */
+    private Map<String, Long>  storeSamplePeriods    = new HashMap<>();
+
+    /**
+     * 维度值未变化时, 完整记录的最长上报间隔(s), 其间仅上报未变化标记, 启动时限制在存储端记录保留时间的一半以内
+     */
+    private long               storeMaxSilentSeconds = 1800;
+
     public boolean isArkEnable() {
         return arkEnable;
     }
@@ -116,6 +144,46 @@ public class SofaDashboardClientProperties {
         this.storeUploadPeriodExp = storeUploadPeriodExp;
     }
 
+    public int getStoreSampleThreads() {
+        return storeSampleThreads;
+    }
+
+    public void setStoreSampleThreads(int storeSampleThreads) {
+        this.storeSampleThreads = storeSampleThreads;
+    }
+
+    public long getStoreSampleTimeoutMs() {
+        return storeSampleTimeoutMs;
+    }
+
+    public void setStoreSampleTimeoutMs(long storeSampleTimeoutMs) {
+        this.storeSampleTimeoutMs = storeSampleTimeoutMs;
+    }
+
+    public Map<String, Long> getStoreSampleTimeouts() {
+        return storeSampleTimeouts;
+    }
+
+    public void setStoreSampleTimeouts(Map<String, Long> storeSampleTimeouts) {
+        this.storeSampleTimeouts = storeSampleTimeouts;
+    }
+
+    public Map<String, Long> getStoreSamplePeriods() {
+        return storeSamplePeriods;
+    }
+
+    public void setStoreSamplePeriods(Map<String, Long> storeSamplePeriods) {
+        this.storeSamplePeriods = storeSamplePeriods;
+    }
+
+    public long getStoreMaxSilentSeconds() {
+        return storeMaxSilentSeconds;
+    }
+
+    public void setStoreMaxSilentSeconds(long storeMaxSilentSeconds) {
+        this.storeMaxSilentSeconds = storeMaxSilentSeconds;
+    }
+
     public String getInternalHost() {
         if (environment.containsProperty("rpc_register_internal_host")) {
             return environment.getProperty("rpc_register_internal_host");
@@ -185,7 +253,10 @@ public class SofaDashboardClientProperties {
     public String toString() {
         return "SofaDashboardClientProperties{" + "enable=" + enable + ", instanceIp='"
                + instanceIp + '\'' + ", storeInitDelayExp=" + storeInitDelayExp
-               + ", storeUploadPeriodExp=" + storeUploadPeriodExp + "virtualHost=" + virtualHost
+               + ", storeUploadPeriodExp=" + storeUploadPeriodExp + ", storeSampleThreads="
+               + storeSampleThreads + ", storeSampleTimeoutMs=" + storeSampleTimeoutMs
+               + ", storeSampleTimeouts=" + storeSampleTimeouts + ", storeSamplePeriods="
+               + storeSamplePeriods + ", storeMaxSilentSeconds=" + storeMaxSilentSeconds + "virtualHost=" + virtualHost
                + "virtualPort=" + virtualPort + "internalHost=" + internalHost + '}';
     }
 }
\ No newline at end of file
@@ -24,27 +24,42 @@ public class SofaDashboardZookeeperProperties {
     /**
      * Zookeeper 工作地址.
      */
-    private String address             = "127.0.0.1:2181";
+    private String  address                 = "127.0.0.1:2181";
 
     /**
      * Zookeeper 客户端错误重试间隔(ms).
      */
-    private int    baseSleepTimeMs     = 1000;
+    private int     baseSleepTimeMs         = 1000;
 
     /**
      * Zookeeper 客户端最大重试次数.
      */
-    private int    maxRetries          = 3;
+    private int     maxRetries              = 3;
 
     /**
      * Zookeeper 客户端会话超时时间(ms).
      */
-    private int    sessionTimeoutMs    = 6000;
+    private int     sessionTimeoutMs        = 6000;
 
     /**
      * Zookeeper 客户端超时时间(ms).
      */
-    private int    connectionTimeoutMs = 6000;
+    private int     connectionTimeoutMs     = 6000;
+
+    /**
+     * 是否把应用状态写入会话节点数据, 状态变化时原地更新而不重建节点.
+     */
+    private boolean mutableState            = false;
+
+    /**
+     * 重连后恢复会话节点前的最大随机延迟(ms), 不大于 0 时立即恢复.
+     */
+    private int     recoverJitterMs         = 3000;
+
+    /**
+     * 每秒最多恢复的会话节点数, 不大于 0 时不限速.
+     */
+    private int     recoverPermitsPerSecond = 10;
 
     public String getAddress() {
         return address;
@@ -86,11 +101,36 @@ public class SofaDashboardZookeeperProperties {
         this.connectionTimeoutMs = connectionTimeoutMs;
     }
 
+    public boolean isMutableState() {
+        return mutableState;
+    }
+
+    public void setMutableState(boolean mutableState) {
+        this.mutableState = mutableState;
+    }
+
+    public int getRecoverJitterMs() {
+        return recoverJitterMs;
+    }
+
+    public void setRecoverJitterMs(int recoverJitterMs) {
+        this.recoverJitterMs = recoverJitterMs;
+    }
+
+    public int getRecoverPermitsPerSecond() {
+        return recoverPermitsPerSecond;
+    }
+
+    public void setRecoverPermitsPerSecond(int recoverPermitsPerSecond) {
+        this.recoverPermitsPerSecond = recoverPermitsPerSecond;
+    }
+
     @Override
     public String toString() {
         return "SofaDashboardZookeeperProperties{" + "address='" + address + '\''
                + ", baseSleepTimeMs=" + baseSleepTimeMs + ", maxRetries=" + maxRetries
                + ", sessionTimeoutMs=" + sessionTimeoutMs + ", connectionTimeoutMs="
-               + connectionTimeoutMs + '}';
+               + connectionTimeoutMs + ", mutableState=" + mutableState + ", recoverJitterMs="
+               + recoverJitterMs + ", recoverPermitsPerSecond=" + recoverPermitsPerSecond + '}';
     }
 }
\ No newline at end of file
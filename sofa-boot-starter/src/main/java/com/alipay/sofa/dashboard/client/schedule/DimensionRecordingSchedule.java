@@ -20,53 +20,161 @@ import com.alipay.sofa.dashboard.client.dimension.ApplicationDimension;
 import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
 import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
 import com.alipay.sofa.dashboard.client.io.RecordImporter;
+import com.alipay.sofa.dashboard.client.io.RecordMarkers;
 import com.alipay.sofa.dashboard.client.utils.JsonUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.lang.Nullable;
 
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
+ * Sample all dimensions periodically and flush them into {@link RecordImporter}.
+ * <p>
+ * Dimensions are grouped by sampling period (see {@link ApplicationDimension#getSamplePeriodExp()}),
+ * and each group is scheduled on its own jittered timer, so that static dimensions are not
+ * sampled as often as memory or threads.
+ * <p>
+ * A hash of the last full record is kept for each dimension, and every unchanged value is
+ * flushed as a lightweight {@link RecordMarkers unchanged marker}. A full record is flushed
+ * again once the last one is older than {@link #setMaxSilentSeconds(long)}, which is kept
+ * within {@link RecordMarkers#maxBaseAge(long)} of {@link RecordImporter#getRecordTtlMs()},
+ * so that markers inside the store window always refer to a record still kept by the store.
+ * <p>
+ * Dimensions are sampled in parallel on a small pool, each bounded by its own timeout.
+ * A dimension never has more than one sample in flight: while a timed out sample is still
+ * running, later cycles skip that dimension instead of piling up on it. Records sampled in
+ * time are flushed anyway.
+ *
  * @author chen.pengzhi (chpengzh@foxmail.com)
  */
-public class DimensionRecordingSchedule implements InitializingBean {
+public class DimensionRecordingSchedule implements InitializingBean, DisposableBean {
+
+    private static final Logger               LOGGER                     = LoggerFactory
+                                                                             .getLogger(DimensionRecordingSchedule.class);
+
+    /**
+     * Default thread count of sampling pool
+     */
+    public static final int                   DEFAULT_SAMPLE_THREADS     = 4;
+
+    /**
+     * Default timeout of sampling a single dimension
+     */
+    public static final long                  DEFAULT_SAMPLE_TIMEOUT_MS  = 10000L;
+
+    /**
+     * Default max interval between full records of an unchanged value
+     */
+    public static final long                  DEFAULT_MAX_SILENT_SECONDS = 1800L;
+
+    private final HostAndPort                 hostAndPort;
+
+    private final List<ApplicationDimension>  dimensions;
+
+    private final RecordImporter              importer;
+
+    /**
+     * Run a timer task for each group of dimensions
+     */
+    private final ScheduledThreadPoolExecutor executors;
+
+    /**
+     * Sample dimensions in parallel
+     */
+    private final ThreadPoolExecutor          samplers;
 
-    private static final Logger              LOGGER = LoggerFactory
-                                                        .getLogger(DimensionRecordingSchedule.class);
+    private final long                        sampleTimeoutMs;
 
-    private final HostAndPort                hostAndPort;
+    /**
+     * Timeout overrides by dimension name
+     */
+    private final Map<String, Long>           sampleTimeouts;
 
-    private final List<ApplicationDimension> dimensions;
+    /**
+     * Sampling states by dimension name, never modified after constructed
+     */
+    private final Map<String, SampleState>    states                     = new HashMap<>();
 
-    private final RecordImporter             importer;
+    /**
+     * Sampling period overrides by dimension name, in seconds
+     */
+    private Map<String, Long>                 samplePeriods              = Collections.emptyMap();
 
-    private final ScheduledExecutorService   executors;
+    private long                              maxSilentMs                = TimeUnit.SECONDS
+                                                                             .toMillis(DEFAULT_MAX_SILENT_SECONDS);
 
-    private final long                       initDelayExp;
+    private final long                        initDelayExp;
 
-    private final long                       flushPeriodExp;
+    private final long                        flushPeriodExp;
 
-    private final Random                     random = new Random();
+    private final Random                      random                     = new Random();
 
     public DimensionRecordingSchedule(HostAndPort hostAndPort,
                                       List<ApplicationDimension> dimensions,
                                       RecordImporter importer, long initDelayExp,
                                       long flushPeriodExp) {
+        this(hostAndPort, dimensions, importer, initDelayExp, flushPeriodExp,
+            DEFAULT_SAMPLE_THREADS, DEFAULT_SAMPLE_TIMEOUT_MS, Collections.emptyMap());
+    }
+
+    /**
+     * @param hostAndPort     instance id of records
+     * @param dimensions      dimensions to sample
+     * @param importer        record importer
+     * @param initDelayExp    expectation of first flush delay in seconds
+     * @param flushPeriodExp  expectation of flush period in seconds
+     * @param sampleThreads   max thread count of sampling pool
+     * @param sampleTimeoutMs default timeout of sampling a single dimension
+     * @param sampleTimeouts  timeout overrides by dimension name, in milliseconds
+     */
+    public DimensionRecordingSchedule(HostAndPort hostAndPort,
+                                      List<ApplicationDimension> dimensions,
+                                      RecordImporter importer, long initDelayExp,
+                                      long flushPeriodExp, int sampleThreads,
+                                      long sampleTimeoutMs, Map<String, Long> sampleTimeouts) {
         this.hostAndPort = hostAndPort;
         this.dimensions = dimensions;
         this.importer = importer;
         this.initDelayExp = initDelayExp;
         this.flushPeriodExp = flushPeriodExp;
-        this.executors = Executors.newSingleThreadScheduledExecutor(r -> {
+        this.sampleTimeoutMs = sampleTimeoutMs;
+        this.sampleTimeouts = sampleTimeouts == null ? Collections.emptyMap() : new HashMap<>(
+            sampleTimeouts);
+        for (ApplicationDimension dimension : dimensions) {
+            states.put(dimension.getName(), new SampleState());
+        }
+        this.executors = new ScheduledThreadPoolExecutor(1, r -> {
             Thread thread = new Thread(r);
             thread.setDaemon(true);
             return thread;
         });
+
+        // No more threads than dimensions, since each one has at most one sample in flight
+        int threads = Math.max(1, Math.min(sampleThreads, dimensions.size()));
+        AtomicInteger index = new AtomicInteger();
+        this.samplers = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "DimensionSampler-" + index.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.samplers.allowCoreThreadTimeOut(true);
     }
 
     @Override
@@ -75,11 +183,233 @@ public class DimensionRecordingSchedule implements InitializingBean {
             .collect(Collectors.toSet());
         importer.createTablesIfNotExists(hostAndPort, schemes);
 
-        int nextDelay = calculateNextScheduleTime(initDelayExp).intValue();
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Schedule next importer in {} second", nextDelay);
+        long maxBaseAge = RecordMarkers.maxBaseAge(importer.getRecordTtlMs());
+        if (maxBaseAge > 0 && maxSilentMs > maxBaseAge) {
+            LOGGER.warn("Max silent interval {} ms is clamped to {} ms for record ttl",
+                maxSilentMs, maxBaseAge);
+            maxSilentMs = maxBaseAge;
+        }
+        Map<Long, List<ApplicationDimension>> groups = groupByPeriod();
+        // Timers only wait for sampling, one thread each keeps groups from delaying each other
+        executors.setCorePoolSize(Math.max(1, groups.size()));
+        groups.forEach((periodExp, group) -> {
+            int nextDelay = calculateNextScheduleTime(initDelayExp).intValue();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Schedule next importer of {} in {} second", namesOf(group),
+                    nextDelay);
+            }
+            executors.schedule(new StoreTimerTask(periodExp, group), nextDelay,
+                TimeUnit.SECONDS);
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executors.shutdownNow();
+        samplers.shutdownNow();
+    }
+
+    /**
+     * Override sampling periods declared by dimensions, should be set before started.
+     *
+     * @param samplePeriods expected sampling periods in seconds, by dimension name
+     */
+    public void setSamplePeriods(Map<String, Long> samplePeriods) {
+        this.samplePeriods = samplePeriods == null ? Collections.emptyMap() : new HashMap<>(
+            samplePeriods);
+    }
+
+    /**
+     * Max interval between full records of an unchanged value, should be set before started.
+     * It is clamped to {@link RecordMarkers#maxBaseAge(long)} of record ttl once started.
+     *
+     * @param maxSilentSeconds interval in seconds
+     */
+    public void setMaxSilentSeconds(long maxSilentSeconds) {
+        this.maxSilentMs = TimeUnit.SECONDS.toMillis(maxSilentSeconds);
+    }
+
+    /**
+     * How many times an unchanged value is flushed as a marker
+     *
+     * @param dimensionName dimension name
+     * @return unchanged count, {@code 0} if no such dimension
+     */
+    public long getUnchangedCount(String dimensionName) {
+        SampleState state = states.get(dimensionName);
+        return state == null ? 0L : state.unchanged.sum();
+    }
+
+    /**
+     * How many times sampling of a dimension is timeout
+     *
+     * @param dimensionName dimension name
+     * @return timeout count, {@code 0} if no such dimension
+     */
+    public long getTimeoutCount(String dimensionName) {
+        SampleState state = states.get(dimensionName);
+        return state == null ? 0L : state.timeouts.sum();
+    }
+
+    /**
+     * How many times sampling of a dimension throws an error
+     *
+     * @param dimensionName dimension name
+     * @return failure count, {@code 0} if no such dimension
+     */
+    public long getFailureCount(String dimensionName) {
+        SampleState state = states.get(dimensionName);
+        return state == null ? 0L : state.failures.sum();
+    }
+
+    /**
+     * How many cycles skip a dimension, since its previous sample is still running
+     *
+     * @param dimensionName dimension name
+     * @return skipped count, {@code 0} if no such dimension
+     */
+    public long getSkippedCount(String dimensionName) {
+        SampleState state = states.get(dimensionName);
+        return state == null ? 0L : state.skipped.sum();
+    }
+
+    /**
+     * Group dimensions by their expected sampling period
+     *
+     * @return dimensions group by period in seconds
+     */
+    Map<Long, List<ApplicationDimension>> groupByPeriod() {
+        Map<Long, List<ApplicationDimension>> groups = new TreeMap<>();
+        for (ApplicationDimension dimension : dimensions) {
+            Long periodExp = samplePeriods.get(dimension.getName());
+            if (periodExp == null || periodExp <= 0) {
+                periodExp = dimension.getSamplePeriodExp();
+            }
+            if (periodExp <= 0) {
+                periodExp = flushPeriodExp;
+            }
+            groups.computeIfAbsent(periodExp, key -> new ArrayList<>()).add(dimension);
+        }
+        return groups;
+    }
+
+    /**
+     * Sample a group of dimensions, and flush them. An unchanged value is replaced by an
+     * unchanged marker referring to the last full record.
+     *
+     * @param group     dimensions of same period
+     * @param timestamp record timestamp
+     */
+    void flush(List<ApplicationDimension> group, long timestamp) {
+        List<StoreRecord> samples = sample(group, timestamp);
+        List<StoreRecord> records = new ArrayList<>(samples.size());
+        Map<SampleState, Long> fullHashes = new HashMap<>();
+        for (StoreRecord record : samples) {
+            SampleState state = states.get(record.getSchemeName());
+            long hash = hashOf(record.getValue());
+            if (state.lastFullAt <= 0 || hash != state.lastHash
+                || timestamp - state.lastFullAt >= maxSilentMs) {
+                records.add(record);
+                fullHashes.put(state, hash);
+                continue;
+            }
+            state.unchanged.increment();
+            records.add(RecordMarkers.marker(record.getSchemeName(), timestamp,
+                state.lastFullAt));
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        importer.addRecords(hostAndPort, records);
+        // Markers only refer to full records that are really stored
+        fullHashes.forEach((state, hash) -> {
+            state.lastHash = hash;
+            state.lastFullAt = timestamp;
+        });
+    }
+
+    /**
+     * 64-bit FNV-1a hash of a sampled value, so that large values are not kept in memory
+     * just for comparison.
+     *
+     * @param value sampled value
+     * @return hash code
+     */
+    static long hashOf(@Nullable String value) {
+        if (value == null) {
+            return 0L;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash ^ value.length();
+    }
+
+    /**
+     * Sample all dimensions
+     *
+     * @param timestamp record timestamp
+     * @return records sampled in time
+     */
+    List<StoreRecord> sample(long timestamp) {
+        return sample(dimensions, timestamp);
+    }
+
+    /**
+     * Sample dimensions in parallel, and wait for each one until its own timeout.
+     *
+     * @param group     dimensions to sample
+     * @param timestamp record timestamp
+     * @return records sampled in time
+     */
+    private List<StoreRecord> sample(List<ApplicationDimension> group, long timestamp) {
+        long begin = System.nanoTime();
+        List<Sample> samples = new ArrayList<>(group.size());
+        for (ApplicationDimension dimension : group) {
+            SampleState state = states.get(dimension.getName());
+            if (!state.running.compareAndSet(false, true)) {
+                state.skipped.increment();
+                LOGGER.warn("Skip dimension {}, previous sample is still running",
+                    dimension.getName());
+                continue;
+            }
+            Sample sample = new Sample(dimension, state);
+            try {
+                sample.task = samplers.submit(sample);
+                samples.add(sample);
+            } catch (RejectedExecutionException e) {
+                state.running.set(false); // Already shutdown
+            }
         }
-        executors.schedule(new StoreTimerTask(), nextDelay, TimeUnit.SECONDS);
+
+        List<StoreRecord> records = new ArrayList<>(samples.size());
+        for (Sample sample : samples) {
+            String name = sample.dimension.getName();
+            long timeoutMs = sampleTimeouts.getOrDefault(name, sampleTimeoutMs);
+            long remain = begin + TimeUnit.MILLISECONDS.toNanos(timeoutMs) - System.nanoTime();
+            try {
+                String value = sample.result.get(Math.max(0L, remain), TimeUnit.NANOSECONDS);
+                StoreRecord record = new StoreRecord();
+                record.setTimestamp(timestamp);
+                record.setSchemeName(name);
+                record.setValue(value);
+                records.add(record);
+            } catch (TimeoutException e) {
+                sample.abandon();
+                sample.state.timeouts.increment();
+                LOGGER.warn("Timeout sampling dimension {} in {} ms", name, timeoutMs);
+            } catch (ExecutionException e) {
+                sample.state.failures.increment();
+                LOGGER.warn("Unable to sample dimension {}", name, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                samples.forEach(Sample::abandon);
+                break;
+            }
+        }
+        return records;
     }
 
     /**
@@ -102,33 +432,123 @@ public class DimensionRecordingSchedule implements InitializingBean {
         return exp;
     }
 
+    private static List<String> namesOf(List<ApplicationDimension> group) {
+        return group.stream().map(ApplicationDimension::getName).collect(Collectors.toList());
+    }
+
     private class StoreTimerTask extends TimerTask {
 
+        private final long                       periodExp;
+
+        private final List<ApplicationDimension> group;
+
+        private StoreTimerTask(long periodExp, List<ApplicationDimension> group) {
+            this.periodExp = periodExp;
+            this.group = group;
+        }
+
         @Override
         public void run() {
             try {
                 long current = System.currentTimeMillis();
 
-                List<StoreRecord> records = new ArrayList<>();
-                for (ApplicationDimension dimension : dimensions) {
-                    StoreRecord record = new StoreRecord();
-                    record.setTimestamp(current);
-                    record.setSchemeName(dimension.getName());
-                    record.setValue(JsonUtils.toJsonString(dimension.currentValue()));
-                    records.add(record);
-                }
-                importer.addRecords(hostAndPort, records);
+                flush(group, current);
 
             } catch (Throwable err) {
                 LOGGER.warn("Unable to flush dimension record", err);
 
             } finally {
-                int nextDelay = calculateNextScheduleTime(flushPeriodExp).intValue();
+                int nextDelay = calculateNextScheduleTime(periodExp).intValue();
                 if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Schedule next importer in {} second", nextDelay);
+                    LOGGER.debug("Schedule next importer of {} in {} second", namesOf(group),
+                        nextDelay);
                 }
-                executors.schedule(this, nextDelay, TimeUnit.SECONDS);
+                try {
+                    executors.schedule(this, nextDelay, TimeUnit.SECONDS);
+                } catch (RejectedExecutionException ignore) {
+                    // Already destroyed
+                }
+
+            }
+        }
+    }
+
+    /**
+     * Sampling state of a dimension
+     */
+    private static final class SampleState {
+
+        /**
+         * Bulkhead of this dimension, {@code true} while a sample is queued or running
+         */
+        private final AtomicBoolean running   = new AtomicBoolean(false);
+
+        private final LongAdder     timeouts  = new LongAdder();
+
+        private final LongAdder     failures  = new LongAdder();
+
+        private final LongAdder     skipped   = new LongAdder();
+
+        private final LongAdder     unchanged = new LongAdder();
+
+        /**
+         * Hash and timestamp of last full record, only accessed by the timer task of its group
+         */
+        private long                lastHash;
+
+        private long                lastFullAt;
+    }
+
+    /**
+     * A single sample of a dimension
+     */
+    private static final class Sample implements Runnable {
+
+        private final ApplicationDimension      dimension;
+
+        private final SampleState               state;
+
+        private final CompletableFuture<String> result  = new CompletableFuture<>();
+
+        /**
+         * Set by whoever comes first, the sampling thread or {@link #abandon()}
+         */
+        private final AtomicBoolean             started = new AtomicBoolean(false);
+
+        private volatile Future<?>              task;
+
+        private Sample(ApplicationDimension dimension, SampleState state) {
+            this.dimension = dimension;
+            this.state = state;
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return; // Abandoned while queued
+            }
+            String value;
+            try {
+                value = JsonUtils.toJsonString(dimension.currentValue());
+            } catch (Throwable e) {
+                state.running.set(false);
+                result.completeExceptionally(e);
+                return;
+            }
+            // Release bulkhead before the waiting flush wakes up, so that next flush never skips it
+            state.running.set(false);
+            result.complete(value);
+        }
 
+        /**
+         * Give up this sample. A running one is interrupted, and keeps the bulkhead
+         * until it really returns.
+         */
+        private void abandon() {
+            if (started.compareAndSet(false, true)) {
+                state.running.set(false);
+            } else if (task != null && !result.isDone()) {
+                task.cancel(true);
             }
         }
     }
@@ -0,0 +1,347 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.dashboard.client.schedule;
+
+import com.alipay.sofa.dashboard.client.dimension.ApplicationDimension;
+import com.alipay.sofa.dashboard.client.io.RecordImporter;
+import com.alipay.sofa.dashboard.client.io.RecordMarkers;
+import com.alipay.sofa.dashboard.client.model.common.HostAndPort;
+import com.alipay.sofa.dashboard.client.model.io.StoreRecord;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * @author chen.pengzhi (chpengzh@foxmail.com)
+ */
+public class DimensionRecordingScheduleTest {
+
+    private final CountDownLatch       release   = new CountDownLatch(1);
+
+    private DimensionRecordingSchedule schedule;
+
+    @After
+    public void recycleSchedule() {
+        release.countDown();
+        if (schedule != null) {
+            schedule.destroy();
+        }
+    }
+
+    @Test
+    public void sampleInParallel() {
+        List<ApplicationDimension> dimensions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            dimensions.add(new TestDimension("slow_" + i, () -> sleep(200L)));
+        }
+        schedule = newSchedule(dimensions, 1000L);
+
+        long begin = System.currentTimeMillis();
+        List<StoreRecord> records = schedule.sample(begin);
+        long cost = System.currentTimeMillis() - begin;
+        Assert.assertEquals(4, records.size());
+        Assert.assertTrue("Sampled one after another in " + cost + " ms", cost < 700L);
+    }
+
+    @Test
+    public void flushPartialResults() {
+        TestDimension blocked = new TestDimension("blocked", () -> awaitQuietly(release));
+        TestDimension failed = new TestDimension("failed", () -> {
+            throw new IllegalStateException("Mock error");
+        });
+        TestDimension normal = new TestDimension("normal", () -> {
+        });
+        schedule = newSchedule(Arrays.asList(blocked, failed, normal), 100L);
+
+        List<StoreRecord> records = schedule.sample(System.currentTimeMillis());
+        Assert.assertEquals(Collections.singleton("normal"), namesOf(records));
+        Assert.assertEquals(1, schedule.getTimeoutCount("blocked"));
+        Assert.assertEquals(1, schedule.getFailureCount("failed"));
+        Assert.assertEquals(0, schedule.getTimeoutCount("normal"));
+
+        // Interrupted by timeout, the blocked one is sampled again in next cycle
+        records = schedule.sample(System.currentTimeMillis());
+        Assert.assertEquals(Collections.singleton("normal"), namesOf(records));
+        Assert.assertEquals(2, schedule.getTimeoutCount("blocked"));
+    }
+
+    @Test
+    public void skipDimensionStillRunning() {
+        TestDimension stuck = new TestDimension("stuck", this::sleepUninterruptibly);
+        TestDimension normal = new TestDimension("normal", () -> {
+        });
+        schedule = newSchedule(Arrays.asList(stuck, normal), 100L);
+
+        Assert.assertEquals(1, schedule.sample(System.currentTimeMillis()).size());
+        Assert.assertEquals(1, schedule.getTimeoutCount("stuck"));
+
+        // Previous sample ignores interruption, no more sample piles up on it
+        Assert.assertEquals(1, schedule.sample(System.currentTimeMillis()).size());
+        Assert.assertEquals(1, schedule.getSkippedCount("stuck"));
+        Assert.assertEquals(1, stuck.calls);
+    }
+
+    @Test
+    public void overrideTimeoutByName() {
+        TestDimension slow = new TestDimension("slow", () -> sleep(300L));
+        schedule = new DimensionRecordingSchedule(new HostAndPort("127.0.0.1", null, 8080),
+            Collections.singletonList(slow), new NoopImporter(), 30, 60, 2, 100L,
+            Collections.singletonMap("slow", 2000L));
+        Assert.assertEquals(1, schedule.sample(System.currentTimeMillis()).size());
+        Assert.assertEquals(0, schedule.getTimeoutCount("slow"));
+    }
+
+    @Test
+    public void groupByPeriod() {
+        TestDimension memory = new TestDimension("memory", () -> {
+        });
+        TestDimension mappings = new TestDimension("mappings", () -> {
+        });
+        mappings.periodExp = 600L;
+        TestDimension env = new TestDimension("env", () -> {
+        });
+        env.periodExp = 600L;
+        schedule = newSchedule(Arrays.asList(memory, mappings, env), 1000L);
+        schedule.setSamplePeriods(Collections.singletonMap("env", 300L));
+
+        Map<Long, List<ApplicationDimension>> groups = schedule.groupByPeriod();
+        Assert.assertEquals(3, groups.size());
+        Assert.assertEquals(Collections.singletonList(memory), groups.get(60L));
+        Assert.assertEquals(Collections.singletonList(env), groups.get(300L));
+        Assert.assertEquals(Collections.singletonList(mappings), groups.get(600L));
+    }
+
+    @Test
+    public void flushMarkerIfUnchanged() {
+        TestDimension memory = new TestDimension("memory", () -> {
+        });
+        TestDimension mappings = new TestDimension("mappings", () -> {
+        });
+        RecordingImporter importer = new RecordingImporter();
+        schedule = new DimensionRecordingSchedule(new HostAndPort("127.0.0.1", null, 8080),
+            Arrays.asList(memory, mappings), importer, 30, 60, 2, 1000L, Collections.emptyMap());
+        schedule.setMaxSilentSeconds(600L);
+        schedule.afterPropertiesSet();
+        List<ApplicationDimension> group = Arrays.asList(memory, mappings);
+
+        long timestamp = 1000000L;
+        schedule.flush(group, timestamp);
+        schedule.flush(group, timestamp + 60000L);
+        Assert.assertEquals(2, importer.countOf("memory"));
+        Assert.assertEquals(2, importer.countOf("mappings"));
+        Assert.assertEquals(1, schedule.getUnchangedCount("memory"));
+
+        // Unchanged value is flushed as a marker
+        for (String name : Arrays.asList("memory", "mappings")) {
+            List<StoreRecord> records = importer.recordsOf(name);
+            Assert.assertEquals(name, records.get(0).getValue());
+            Assert.assertTrue(RecordMarkers.isMarker(records.get(1)));
+            Assert.assertNull(records.get(1).getValue());
+            Assert.assertEquals(timestamp, records.get(1).getUnchangedSince());
+            Assert.assertEquals(1, schedule.getUnchangedCount(name));
+        }
+
+        mappings.value = "changed";
+        schedule.flush(group, timestamp + 120000L);
+        Assert.assertEquals(2, importer.fullCountOf("mappings"));
+
+        // Unchanged value is flushed again once silent for too long
+        schedule.flush(group, timestamp + 180000L);
+        Assert.assertEquals(2, importer.fullCountOf("mappings"));
+        schedule.flush(group, timestamp + 720000L);
+        Assert.assertEquals(3, importer.fullCountOf("mappings"));
+    }
+
+    @Test
+    public void keepBaseRecordWithinTtl() {
+        TestDimension info = new TestDimension("info", () -> {
+        });
+        ExpiringImporter importer = new ExpiringImporter(10000L);
+        schedule = new DimensionRecordingSchedule(new HostAndPort("127.0.0.1", null, 8080),
+            Collections.singletonList(info), importer, 30, 60, 2, 1000L, Collections.emptyMap());
+        schedule.afterPropertiesSet(); // Default silent interval is longer than record ttl
+
+        long timestamp = 1000000L;
+        for (int i = 0; i <= 30; i++) {
+            schedule.flush(Collections.singletonList(info), timestamp + i * 1000L);
+        }
+        long now = timestamp + 30000L;
+        // The first base record is expired, full records are flushed again in time
+        Assert.assertNull(importer.findFull(timestamp));
+        Assert.assertEquals(3, importer.fullCountOf("info"));
+
+        // Every marker of the whole store window finds its base record
+        List<StoreRecord> window = importer.recordsOf("info").stream()
+            .filter(it -> it.getTimestamp() > now - 10000L).collect(Collectors.toList());
+        List<StoreRecord> expanded = RecordMarkers.expand(window, importer::findFull);
+        Assert.assertEquals(10, window.size());
+        Assert.assertEquals(10, expanded.size());
+        expanded.forEach(it -> Assert.assertEquals("info", it.getValue()));
+    }
+
+    private DimensionRecordingSchedule newSchedule(List<ApplicationDimension> dimensions,
+                                                   long timeoutMs) {
+        return new DimensionRecordingSchedule(new HostAndPort("127.0.0.1", null, 8080),
+            dimensions, new NoopImporter(), 30, 60, 4, timeoutMs, Collections.emptyMap());
+    }
+
+    private static Set<String> namesOf(List<StoreRecord> records) {
+        return records.stream().map(StoreRecord::getSchemeName).collect(Collectors.toSet());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sleepUninterruptibly() {
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (release.getCount() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ignore) {
+                // Keep running, as a misbehaving dimension does
+            }
+        }
+    }
+
+    private static class TestDimension implements ApplicationDimension<String> {
+
+        private final String    name;
+
+        private final Runnable  action;
+
+        private volatile int    calls;
+
+        private volatile String value;
+
+        private long            periodExp;
+
+        TestDimension(String name, Runnable action) {
+            this.name = name;
+            this.action = action;
+            this.value = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Class<String> getType() {
+            return String.class;
+        }
+
+        @Override
+        public String currentValue() {
+            calls++;
+            action.run();
+            return value;
+        }
+
+        @Override
+        public long getSamplePeriodExp() {
+            return periodExp;
+        }
+    }
+
+    private static class RecordingImporter extends NoopImporter {
+
+        private final List<StoreRecord> records = new ArrayList<>();
+
+        @Override
+        public void addRecords(HostAndPort instanceId, List<StoreRecord> records) {
+            this.records.addAll(records);
+        }
+
+        long countOf(String name) {
+            return recordsOf(name).size();
+        }
+
+        long fullCountOf(String name) {
+            return recordsOf(name).stream().filter(it -> !RecordMarkers.isMarker(it)).count();
+        }
+
+        List<StoreRecord> recordsOf(String name) {
+            return records.stream().filter(it -> name.equals(it.getSchemeName()))
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Keep records for a while, as redis store does
+     */
+    private static class ExpiringImporter extends RecordingImporter {
+
+        private final long ttlMs;
+
+        ExpiringImporter(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+
+        @Override
+        public void addRecords(HostAndPort instanceId, List<StoreRecord> records) {
+            super.addRecords(instanceId, records);
+            long expire = records.get(0).getTimestamp() - ttlMs - RecordMarkers.maxBaseAge(ttlMs);
+            super.records.removeIf(it -> it.getTimestamp() <= expire);
+        }
+
+        @Override
+        public long getRecordTtlMs() {
+            return ttlMs;
+        }
+
+        StoreRecord findFull(long timestamp) {
+            return super.records.stream()
+                .filter(it -> it.getTimestamp() == timestamp && !RecordMarkers.isMarker(it))
+                .findFirst().orElse(null);
+        }
+    }
+
+    private static class NoopImporter implements RecordImporter {
+
+        @Override
+        public void createTablesIfNotExists(HostAndPort instanceId, Set<String> dimensionSchemes) {
+        }
+
+        @Override
+        public void addRecords(HostAndPort instanceId, List<StoreRecord> records) {
+        }
+    }
+}